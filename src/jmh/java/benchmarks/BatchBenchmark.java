@@ -0,0 +1,103 @@
+package benchmarks;
+
+import data.ScenarioBatch;
+import data.batchKernels.BatchKernel;
+import data.batchKernels.ScalarBatchKernel;
+import data.batchKernels.VectorBatchKernel;
+import domain.Controller;
+import domain.DataFileParser;
+import domain.ParsedData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running many scenarios one model run at a time with running them as one {@link ScenarioBatch}, using the
+ * scalar and the Vector API kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BatchBenchmark {
+
+    @Param({"EconomyModel", "EducationModel"})
+    public String model;
+
+    @Param({"64", "4096"})
+    public int scenarios;
+
+    @Param({"100"})
+    public int years;
+
+    private ParsedData data;
+
+    private Controller[] controllers;
+
+    private Controller batchController;
+
+    private ScenarioBatch scalarBatch;
+
+    private ScenarioBatch vectorBatch;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Path dataFile = Files.createTempFile("batch-benchmark", ".txt");
+        try {
+            DataFileGenerator.generate(dataFile, model, years, 0, 42);
+            data = DataFileParser.parse(dataFile);
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+
+        controllers = new Controller[scenarios];
+        for (int s = 0; s < scenarios; s++)
+            controllers[s] = new Controller(model).readData(data);
+
+        batchController = new Controller(model);
+        scalarBatch = copy(batchController.newBatch(data, scenarios), new ScalarBatchKernel());
+        vectorBatch = copy(scalarBatch, new VectorBatchKernel());
+    }
+
+    private ScenarioBatch copy(ScenarioBatch batch, BatchKernel kernel) {
+        ScenarioBatch copy = new ScenarioBatch(batch.getScenarioCount(), batch.getYears(), kernel);
+        for (String name : batch.getVariableNames())
+            copy.put(name, batch.getSeries(name, 0));
+        return copy;
+    }
+
+    @Benchmark
+    public Controller[] oneByOne() {
+        for (Controller controller : controllers)
+            controller.runModel();
+        return controllers;
+    }
+
+    @Benchmark
+    public ScenarioBatch scalarBatch() {
+        batchController.runBatch(scalarBatch);
+        return scalarBatch;
+    }
+
+    @Benchmark
+    public ScenarioBatch vectorBatch() {
+        batchController.runBatch(vectorBatch);
+        return vectorBatch;
+    }
+}
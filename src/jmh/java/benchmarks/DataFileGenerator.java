@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Generates synthetic model data files of any size for the benchmarks.
+ *
+ * <p>A generated file has the usual layout: a {@code YEARS} header, one full row per growth rate, a single starting
+ * value per level variable (extended by {@link domain.Controller#readDataFrom}) and optionally filler variables with
+ * full rows that no model binds, which make the file as wide as needed. Growth rates stay close to 1, so even
+ * 10^6-year runs stay finite.
+ *
+ * <p>It can also be run on its own:
+ * <pre>
+ * java -cp target/benchmarks.jar benchmarks.DataFileGenerator out.txt EconomyModel 1000000 200
+ * </pre>
+ */
+public class DataFileGenerator {
+
+    /**
+     * The growth and level variables of every built-in model.
+     */
+    static final Map<String, List<List<String>>> MODEL_VARIABLES = Map.of(
+            "EconomyModel", List.of(
+                    List.of("grPRC", "grPUC", "grINV", "grEXP", "grIMP"),
+                    List.of("PRC", "PUC", "INV", "EXP", "IMP")),
+            "PopulationModel", List.of(
+                    List.of("grPOP", "grIMM"),
+                    List.of("POP", "IMM")),
+            "ClimateModel", List.of(
+                    List.of("grCO2", "grTEMP"),
+                    List.of("CO2", "TEMP")),
+            "EducationModel", List.of(
+                    List.of("grSTUD", "grTEA"),
+                    List.of("STUD", "TEA")));
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: DataFileGenerator <output> <model> <years> [filler variables]");
+            System.exit(1);
+        }
+        int fillers = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        generate(Path.of(args[0]), args[1], Integer.parseInt(args[2]), fillers, 42);
+    }
+
+    /**
+     * Writes a data file for one of the built-in models.
+     *
+     * @param path    the file to write.
+     * @param model   the simple name of the model class.
+     * @param years   the number of years, i.e. LL.
+     * @param fillers the number of additional full-length rows.
+     * @param seed    the seed of the random values.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void generate(Path path, String model, int years, int fillers, long seed) throws IOException {
+        List<List<String>> variables = MODEL_VARIABLES.get(model);
+        if (variables == null)
+            throw new IllegalArgumentException("Unknown model: " + model);
+
+        SplittableRandom random = new SplittableRandom(seed);
+
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("YEARS");
+            for (int t = 0; t < years; t++) {
+                out.write(' ');
+                out.write(Integer.toString(2000 + t));
+            }
+            out.newLine();
+
+            for (String growth : variables.get(0))
+                writeRow(out, growth, years, () -> 1 + (random.nextDouble() - 0.5) * 0.002);
+
+            for (String level : variables.get(1))
+                writeRow(out, level, 1, () -> 1000 + random.nextDouble() * 1_000_000);
+
+            for (int i = 0; i < fillers; i++)
+                writeRow(out, "FILLER" + i, years, () -> random.nextDouble() * 1_000_000);
+        }
+    }
+
+    private static void writeRow(BufferedWriter out, String name, int length,
+                                 DoubleSupplier values) throws IOException {
+        out.write(name);
+        for (int t = 0; t < length; t++) {
+            out.write(' ');
+            out.write(Double.toString(Math.round(values.getAsDouble() * 1e6) / 1e6));
+        }
+        out.newLine();
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import domain.Controller;
+import domain.ResultFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures exporting the results of an {@code EconomyModel} run as a string and streamed to a discarding writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"100", "100000"})
+    public int years;
+
+    private Controller controller;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Path dataFile = Files.createTempFile("export-benchmark", ".txt");
+        try {
+            DataFileGenerator.generate(dataFile, "EconomyModel", years, 0, 42);
+            controller = new Controller("EconomyModel").readDataFrom(dataFile.toString()).runModel();
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    @Benchmark
+    public String getResultsAsTsv() {
+        return controller.getResultsAsTsv();
+    }
+
+    @Benchmark
+    public Controller writeResults() {
+        return controller.writeResults(Writer.nullWriter(), ResultFormat.TSV);
+    }
+}
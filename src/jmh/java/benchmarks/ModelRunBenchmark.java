@@ -0,0 +1,59 @@
+package benchmarks;
+
+import domain.Controller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Controller#runModel()} for every built-in model across horizon lengths.
+ *
+ * <p>A model run recomputes the whole horizon from the first year, so running the same loaded controller
+ * repeatedly measures the same work every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelRunBenchmark {
+
+    @Param({"EconomyModel", "PopulationModel", "ClimateModel", "EducationModel"})
+    public String model;
+
+    @Param({"100", "10000", "1000000"})
+    public int years;
+
+    private Controller controller;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Path dataFile = Files.createTempFile("model-benchmark", ".txt");
+        try {
+            DataFileGenerator.generate(dataFile, model, years, 0, 42);
+            controller = new Controller(model).readDataFrom(dataFile.toString());
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    @Benchmark
+    public Controller runModel() {
+        return controller.runModel();
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import domain.Controller;
+import domain.ScriptCache;
+import domain.vectorLogic.VectorCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Controller#runScript(String)} with the {@link ScriptCache} emptied before every call (cold, paying
+ * for compilation) and kept (warm, paying only for execution), running the script in Groovy or through the
+ * {@link VectorCompiler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptBenchmark {
+
+    @Param({"100", "100000"})
+    public int years;
+
+    @Param({"groovy", "vector"})
+    public String engine;
+
+    private Controller controller;
+
+    private String script;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        VectorCompiler.shared().setEnabled(engine.equals("vector"));
+        Path dataFile = Files.createTempFile("script-benchmark", ".txt");
+        try {
+            DataFileGenerator.generate(dataFile, "EconomyModel", years, 0, 42);
+            controller = new Controller("EconomyModel").readDataFrom(dataFile.toString()).runModel();
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+        script = Files.readString(Path.of("src/main/resources/scripts/economy_script.groovy"));
+    }
+
+    /**
+     * Forgets the script variables and recorded scripts of the previous call, so that every call starts alike.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        controller.resetScriptVariables();
+    }
+
+    @Benchmark
+    public Controller cold() {
+        ScriptCache.shared().clear();
+        VectorCompiler.shared().clear();
+        return controller.runScript(script);
+    }
+
+    @Benchmark
+    public Controller warm() {
+        return controller.runScript(script);
+    }
+}
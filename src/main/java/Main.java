@@ -1,7 +1,21 @@
 import data.Paths;
+import domain.batchLogic.BatchReport;
+import domain.batchLogic.BatchRunner;
+import domain.batchLogic.JobManifest;
+import domain.DataCache;
+import domain.ResultCache;
+import domain.ResultFormat;
+import domain.ResultWriter;
+import domain.compareLogic.ScenarioComparison;
+import domain.metricsLogic.Metrics;
+import domain.serverLogic.SimulationServer;
 import ui.Window;
 
 import javax.swing.*;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 /**
  * The Main class serves as the entry point for the Modelling Framework application.
@@ -13,11 +27,97 @@ import javax.swing.*;
  * This class creates an instance of the Window class, which sets up the main
  * application window with the necessary components to enable model selection,
  * data selection, and execution.
+ *
+ * Started with {@code --batch <manifest> [--workers <n>]}, the application runs
+ * the jobs of a manifest headless instead (see {@link JobManifest}), prints
+ * throughput and latency statistics and exits with status 1 if any job failed.
+ *
+ * Started with {@code --serve <port> [--max-runs <n>]}, it serves model runs over
+ * HTTP on the loopback address instead (see {@link SimulationServer}).
+ *
+ * Started with {@code --compare <model> <data>... [--baseline <data>] [--scripts <a,b>]
+ * [--format full]}, it runs the model on every data file concurrently and writes
+ * every variable with its deltas against the baseline, by default the first data
+ * file, to standard output (see {@link ScenarioComparison}).
+ *
+ * The GUI always collects phase timings (see {@link Metrics}); the headless modes
+ * collect them when started with {@code -Dmodelsim.metrics=true}, and the batch
+ * mode then prints them after its report.
+ *
+ * Repeated runs are served from the {@link ResultCache}; start with
+ * {@code -Dmodelsim.resultCache=<directory>} to keep it on disk across runs.
  */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args));
+        }
+        if (args.length > 0 && args[0].equals("--compare")) {
+            System.exit(compare(args));
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args);
+            return;
+        }
+
+        Metrics.shared().setEnabled(true);
         SwingUtilities.invokeLater(
-                () -> new Window(Paths.ToModels.getPath(), Paths.ToData.getPath())
+                () -> new Window(Paths.ToData.getPath())
         );
     }
+
+    private static int runBatch(String[] args) throws Exception {
+        if (args.length != 2 && !(args.length == 4 && args[2].equals("--workers"))) {
+            System.err.println("Usage: --batch <manifest> [--workers <n>]");
+            return 2;
+        }
+
+        BatchRunner runner = new BatchRunner();
+        if (args.length == 4)
+            runner.workers(Integer.parseInt(args[3]));
+
+        BatchReport report = runner.run(JobManifest.parse(Path.of(args[1])));
+        report.print(System.out);
+        System.out.print(DataCache.shared().summary());
+        System.out.print(ResultCache.shared().summary());
+        if (Metrics.shared().isEnabled())
+            Metrics.shared().print(System.out);
+        return report.getFailures().isEmpty() ? 0 : 1;
+    }
+
+    private static int compare(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: --compare <model> <data>... [--baseline <data>] [--scripts <a,b>] [--format full]");
+            return 2;
+        }
+
+        ScenarioComparison comparison = new ScenarioComparison(args[1]);
+        ResultFormat format = ResultFormat.TSV;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> comparison.baseline(args[++i]);
+                case "--scripts" -> comparison.scripts(args[++i].split(","));
+                case "--format" -> format = args[++i].equals("full") ? ResultFormat.FULL_PRECISION : ResultFormat.TSV;
+                default -> comparison.scenarios(args[i]);
+            }
+        }
+
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        comparison.run().writeTo(new ResultWriter(out, format));
+        return 0;
+    }
+
+    private static void serve(String[] args) throws Exception {
+        if (args.length != 2 && !(args.length == 4 && args[2].equals("--max-runs"))) {
+            System.err.println("Usage: --serve <port> [--max-runs <n>]");
+            System.exit(2);
+        }
+
+        SimulationServer server = new SimulationServer(Integer.parseInt(args[1]));
+        if (args.length == 4)
+            server.maxConcurrentRuns(Integer.parseInt(args[3]));
+
+        server.start();
+        System.out.println("Listening on http://localhost:" + server.getPort() + "/run/{model}");
+    }
 }
@@ -0,0 +1,22 @@
+package data;
+
+/**
+ * Represents a {@link Model} that can also advance many scenarios at once.
+ *
+ * <p>A batched run reads its inputs from and writes its outputs to a {@link ScenarioBatch} instead of the model's
+ * own fields, so one model instance can run any number of batches. For every scenario the results are identical to
+ * those of {@link Model#run()} on the same inputs.
+ *
+ * <p>An implementation must only touch the scenarios of the batch it is given, addressing them through
+ * {@link ScenarioBatch#index(int, int)}, and must obtain its outputs from {@link ScenarioBatch#output(String)}, so
+ * that disjoint {@linkplain ScenarioBatch#range(int, int) ranges} of one batch can run concurrently.
+ */
+public interface BatchedModel extends Model {
+
+    /**
+     * Runs the model for every scenario of the batch.
+     *
+     * @param batch the inputs of all scenarios; receives the outputs.
+     */
+    public void runBatch(ScenarioBatch batch);
+}
@@ -0,0 +1,37 @@
+package data;
+
+import java.util.Set;
+
+/**
+ * Represents a {@link Model} that can recompute only part of its results after some inputs changed.
+ *
+ * <p>The computed fields of such a model declare their inputs with {@link data.annotations.DependsOn}. From these
+ * declarations the caller works out which fields are affected by a change and from which year, and passes them to
+ * {@link #runFrom(int, Set)}. The values of all other fields and years must already be those of a previous run.
+ */
+public interface IncrementalModel extends Model {
+
+    /**
+     * Recomputes the given fields from year index {@code from} onwards. The results equal those of a full
+     * {@link #run()}, provided the model is otherwise unchanged since its last run.
+     *
+     * @param from     the index of the first year to recompute.
+     * @param affected the names of the computed fields to recompute.
+     */
+    public void runFrom(int from, Set<String> affected);
+
+    /**
+     * Recomputes a growing series for the year indexes {@code from} (inclusive) to {@code to} (exclusive), as
+     * {@code level[t] = growth.get(t) * level[t - 1]}. The value of the first year is an input and is never
+     * recomputed.
+     *
+     * @param level  the series to recompute.
+     * @param growth the growth rates of the series.
+     * @param from   the index of the first year to recompute.
+     * @param to     the number of years.
+     */
+    static void grow(double[] level, Series growth, int from, int to) {
+        for (int t = Math.max(from, 1); t < to; t++)
+            level[t] = growth.get(t) * level[t - 1];
+    }
+}
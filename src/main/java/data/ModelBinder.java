@@ -0,0 +1,160 @@
+package data;
+
+import groovy.lang.Binding;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accesses the fields annotated with {@link data.annotations.Bind} of one {@link Model} class directly, without
+ * reflection.
+ *
+ * <p>Binders are generated at build time by {@link data.processors.ModelIndexProcessor} for every model class whose
+ * bound fields are not private, and are returned by its {@link ModelProvider#binder()}. Fields are identified by
+ * their index in declaration order. Besides single fields, a binder moves all bound fields at once: loading parsed
+ * data, binding them to a script and exporting them as result rows.
+ */
+public interface ModelBinder {
+
+    /**
+     * Receives the result rows of a model from {@link #exportTo(Model, RowSink)}.
+     */
+    interface RowSink {
+        /**
+         * Receives a {@code double[]} field.
+         *
+         * @param name   the name of the field.
+         * @param values the values of the field; not a copy.
+         */
+        void row(String name, double[] values);
+
+        /**
+         * Receives an {@code int[]} field.
+         *
+         * @param name   the name of the field.
+         * @param values the values of the field; not a copy.
+         */
+        void row(String name, int[] values);
+
+        /**
+         * Receives a {@link Series} field; by default as the array of all its values.
+         *
+         * @param name   the name of the field.
+         * @param values the values of the field; not a copy.
+         */
+        default void row(String name, Series values) {
+            row(name, values.toArray());
+        }
+    }
+
+    /**
+     * Returns the names of the bound fields in declaration order.
+     *
+     * @return the field names.
+     */
+    List<String> names();
+
+    /**
+     * Returns the types of the bound fields in declaration order: {@code int}, {@code int[]}, {@code double[]} or
+     * {@link Series}.
+     *
+     * @return the field types.
+     */
+    List<Class<?>> types();
+
+    /**
+     * Returns the fields every bound field is computed from, as declared by {@link data.annotations.DependsOn}, in
+     * declaration order; empty for an input field.
+     *
+     * @return the dependencies of the fields.
+     */
+    List<List<String>> dependencies();
+
+    /**
+     * Reads a bound field.
+     *
+     * @param model the model to read from.
+     * @param field the index of the field.
+     * @return the value of the field, boxed for an {@code int} field.
+     */
+    Object get(Model model, int field);
+
+    /**
+     * Writes a bound field.
+     *
+     * @param model the model to write to.
+     * @param field the index of the field.
+     * @param value the new value; an {@link Integer} for an {@code int} field.
+     */
+    void set(Model model, int field, Object value);
+
+    /**
+     * Assigns parsed input data to the bound fields: {@code LL} receives the number of years, {@code YEARS} a copy
+     * of the years, every {@code double[]} field a copy of its row, as made by {@link #row(Map, String, int)}, and
+     * every {@link Series} field its row as made by {@link #series(Map, String, int)}.
+     *
+     * @param model the model to fill.
+     * @param rows  the rows of the data file by variable name.
+     * @param years the years of the data file, or {@code null} if it has no header.
+     */
+    void loadFrom(Model model, Map<String, double[]> rows, int[] years);
+
+    /**
+     * Exposes every bound field as a variable of a Groovy binding.
+     *
+     * @param model   the model whose fields are bound.
+     * @param binding the binding that receives the variables.
+     */
+    void bindTo(Model model, Binding binding);
+
+    /**
+     * Passes every {@code int[]}, {@code double[]} and {@link Series} field to a sink, in declaration order.
+     *
+     * @param model the model whose fields are exported.
+     * @param sink  the receiver of the rows.
+     */
+    void exportTo(Model model, RowSink sink);
+
+    /**
+     * Returns a copy of a row as it is assigned to a model: a missing row becomes an array of {@code LL} zeros and a
+     * row shorter than {@code LL} is extended with its last value.
+     *
+     * @param rows the rows of a data file by variable name.
+     * @param name the name of the row.
+     * @param LL   the number of years.
+     * @return a new array of at least {@code LL} values.
+     */
+    static double[] row(Map<String, double[]> rows, String name, int LL) {
+        double[] values = rows.get(name);
+        if (values == null)
+            return new double[LL];
+
+        //if row is not full we extend it with the last value in values array
+        if (values.length < LL) {
+            double[] extended = new double[LL];
+            System.arraycopy(values, 0, extended, 0, values.length);
+            for (int i = values.length; i < LL; i++) {
+                extended[i] = values[values.length - 1];
+            }
+            return extended;
+        }
+        return values.clone();
+    }
+
+    /**
+     * Returns a row as it is assigned to a {@link Series} field: like {@link #row(Map, String, int)}, but a row
+     * shorter than {@code LL} keeps only its own values and repeats the last one as a constant tail, and a missing
+     * row is a constant zero, without allocating an array of {@code LL} values.
+     *
+     * @param rows the rows of a data file by variable name.
+     * @param name the name of the row.
+     * @param LL   the number of years.
+     * @return a new series of at least {@code LL} values, sharing nothing with {@code rows}.
+     */
+    static Series series(Map<String, double[]> rows, String name, int LL) {
+        double[] values = rows.get(name);
+        if (values == null)
+            return Series.constant(LL, 0);
+        return Series.withTail(values.clone(), Math.max(LL, values.length));
+    }
+}
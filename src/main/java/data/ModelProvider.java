@@ -0,0 +1,60 @@
+package data;
+
+import java.util.List;
+
+/**
+ * Describes a {@link Model} implementation and creates its instances.
+ *
+ * <p>Providers are generated at build time by {@link data.processors.ModelIndexProcessor}, one for every model
+ * class, and registered for {@link java.util.ServiceLoader}. They let models be listed and instantiated without
+ * scanning directories or reflection.
+ */
+public interface ModelProvider {
+
+    /**
+     * Returns the name the model is selected by: its simple name for a class in {@code data.models}, otherwise its
+     * qualified name.
+     *
+     * @return the model name.
+     */
+    String name();
+
+    /**
+     * Returns the model class.
+     *
+     * @return the class of the instances created by {@link #create()}.
+     */
+    Class<? extends Model> type();
+
+    /**
+     * Creates a new instance of the model.
+     *
+     * @return the new model.
+     */
+    Model create();
+
+    /**
+     * Returns the names of the fields annotated with {@link data.annotations.Bind} that are read from data, in
+     * declaration order.
+     *
+     * @return the input fields.
+     */
+    List<String> inputs();
+
+    /**
+     * Returns the names of the fields annotated with {@link data.annotations.Bind} that the model computes, as
+     * declared by {@link data.annotations.DependsOn}, in declaration order.
+     *
+     * @return the output fields.
+     */
+    List<String> outputs();
+
+    /**
+     * Returns the binder accessing the bound fields of the model without reflection.
+     *
+     * @return the binder, or {@code null} if none was generated because a bound field is private.
+     */
+    default ModelBinder binder() {
+        return null;
+    }
+}
@@ -1,7 +1,6 @@
 package data;
 
 public enum Paths {
-    ToModels("./src/main/java/data/models"),
     ToData("./src/main/resources/data/"),
     ToScripts("./src/main/resources/scripts");
 
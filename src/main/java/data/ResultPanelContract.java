@@ -1,6 +1,10 @@
 package data;
 
 import domain.Controller;
+import domain.Results;
+
+import java.nio.file.Path;
+import java.util.Set;
 
 /**
  * Contract for the Result Panel that defines the interactions between the View, Presenter, and Model.
@@ -12,11 +16,15 @@ public interface ResultPanelContract {
 
         Presenter getPresenter();
 
-        void displayResults(String[][] results, String[] columnNames);
+        void displayResults(Results results);
 
         void showError(String message);
 
         void notifyScriptExecution(String successMessage);
+
+        void showProgress(String message);
+
+        void showMetrics(String summary);
     }
 
     interface Presenter {
@@ -24,14 +32,20 @@ public interface ResultPanelContract {
 
         void onCreateAndRunScript(String scriptCode);
 
-        void updateResultsTable(String tsvData);
+        void onCancelClicked();
+
+        void onShowMetricsClicked();
+
+        void updateResultsTable(Results results);
 
         void setController(Controller controller);
+
+        void reloadController(Controller controller, Results results);
+
+        void onScriptFilesChanged(Set<Path> scriptFiles);
     }
 
     interface Model {
-        String[][] parseTSV(String tsvData);
-
         void executeScriptFromFile(String scriptPath, Controller controller);
 
         void executeAdHocScript(String scriptCode, Controller controller);
@@ -0,0 +1,275 @@
+package data;
+
+import data.batchKernels.BatchKernel;
+import data.exceptions.NoFieldException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code ScenarioBatch} class holds the series of many scenarios of one model in a structure-of-arrays layout.
+ *
+ * <p>Every variable is a single array of {@code LL * stride} values, stored time step by time step: the value of
+ * scenario {@code s} in year {@code t} is at index {@code t * stride + s}, where the stride is the total number of
+ * scenarios. A {@link BatchedModel} therefore advances all scenarios of one time step with contiguous operations of
+ * its {@link BatchKernel}.
+ *
+ * <p>{@link #range(int, int)} returns a view of consecutive scenarios that shares the arrays of the whole batch.
+ * Views of disjoint ranges can be run by different threads at the same time, each writing only its own scenarios.
+ */
+public class ScenarioBatch {
+    /**
+     * The number of scenarios of this batch or view.
+     */
+    private final int scenarioCount;
+
+    /**
+     * The index of the first scenario of this view within the arrays; 0 for a whole batch.
+     */
+    private final int offset;
+
+    /**
+     * The number of scenarios stored per time step, i.e. the scenario count of the whole batch.
+     */
+    private final int stride;
+
+    /**
+     * The number of years.
+     */
+    private final int LL;
+
+    /**
+     * The years shared by all scenarios.
+     */
+    private final int[] YEARS;
+
+    /**
+     * The kernel used by batched models.
+     */
+    private final BatchKernel kernel;
+
+    /**
+     * The values of the variables by name, shared by a batch and all its views.
+     */
+    private final Map<String, double[]> variables;
+
+    /**
+     * Constructs an empty batch with the {@linkplain BatchKernel#preferred() preferred kernel}.
+     *
+     * @param scenarioCount the number of scenarios.
+     * @param YEARS         the years shared by all scenarios.
+     */
+    public ScenarioBatch(int scenarioCount, int[] YEARS) {
+        this(scenarioCount, YEARS, BatchKernel.preferred());
+    }
+
+    /**
+     * Constructs an empty batch with the given kernel.
+     *
+     * @param scenarioCount the number of scenarios.
+     * @param YEARS         the years shared by all scenarios.
+     * @param kernel        the kernel used by batched models.
+     */
+    public ScenarioBatch(int scenarioCount, int[] YEARS, BatchKernel kernel) {
+        if (scenarioCount <= 0)
+            throw new IllegalArgumentException("Scenario count must be positive: " + scenarioCount);
+
+        this.scenarioCount = scenarioCount;
+        this.offset = 0;
+        this.stride = scenarioCount;
+        this.YEARS = YEARS;
+        this.LL = YEARS == null ? 0 : YEARS.length;
+        this.kernel = kernel;
+        this.variables = Collections.synchronizedMap(new LinkedHashMap<>());
+    }
+
+    private ScenarioBatch(ScenarioBatch batch, int from, int to) {
+        this.scenarioCount = to - from;
+        this.offset = batch.offset + from;
+        this.stride = batch.stride;
+        this.YEARS = batch.YEARS;
+        this.LL = batch.LL;
+        this.kernel = batch.kernel;
+        this.variables = batch.variables;
+    }
+
+    /**
+     * Returns a view of the scenarios {@code from} (inclusive) to {@code to} (exclusive) of this batch. The view
+     * shares all arrays with this batch; scenario 0 of the view is scenario {@code from} of this batch.
+     *
+     * @param from the index of the first scenario.
+     * @param to   the index after the last scenario.
+     * @return the view.
+     * @throws IndexOutOfBoundsException if the range is empty or exceeds this batch.
+     */
+    public ScenarioBatch range(int from, int to) {
+        if (from < 0 || to > scenarioCount || from >= to)
+            throw new IndexOutOfBoundsException("Invalid scenario range " + from + ".." + to + " of " + scenarioCount);
+        return new ScenarioBatch(this, from, to);
+    }
+
+    /**
+     * Returns the number of scenarios.
+     *
+     * @return the number of scenarios of this batch or view.
+     */
+    public int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    /**
+     * Returns the number of years.
+     *
+     * @return the number of years.
+     */
+    public int getLL() {
+        return LL;
+    }
+
+    /**
+     * Returns the years shared by all scenarios.
+     *
+     * @return the years, or {@code null} if there are none.
+     */
+    public int[] getYears() {
+        return YEARS;
+    }
+
+    /**
+     * Returns the kernel batched models use for their arithmetic.
+     *
+     * @return the kernel.
+     */
+    public BatchKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Returns the position of a value in the arrays of the batch.
+     *
+     * <p>The values of all scenarios of one year are contiguous, so {@code index(t, 0)} is the start of the
+     * {@link #getScenarioCount()} values of year {@code t}.
+     *
+     * @param t        the index of the year.
+     * @param scenario the index of the scenario in this batch or view.
+     * @return the index into the arrays returned by {@link #get(String)}.
+     */
+    public int index(int t, int scenario) {
+        return t * stride + offset + scenario;
+    }
+
+    /**
+     * Returns the names of all variables of the batch.
+     *
+     * @return the names in the order the variables were added.
+     */
+    public Set<String> getVariableNames() {
+        return variables.keySet();
+    }
+
+    /**
+     * Checks whether the batch has a variable.
+     *
+     * @param name the name of the variable.
+     * @return {@code true} if the variable was added.
+     */
+    public boolean has(String name) {
+        return variables.containsKey(name);
+    }
+
+    /**
+     * Adds a variable with the same series in every scenario. In a view, the scenarios outside the view are zero.
+     *
+     * @param name   the name of the variable.
+     * @param values the series; only the first {@code LL} values are used.
+     * @return the current {@code ScenarioBatch} instance for method chaining.
+     */
+    public ScenarioBatch put(String name, double[] values) {
+        double[] data = new double[LL * stride];
+        for (int t = 0; t < LL; t++) {
+            double value = values[t];
+            int row = index(t, 0);
+            for (int s = 0; s < scenarioCount; s++)
+                data[row + s] = value;
+        }
+        variables.put(name, data);
+        return this;
+    }
+
+    /**
+     * Replaces the series of a variable in one scenario.
+     *
+     * @param name     the name of the variable.
+     * @param scenario the index of the scenario.
+     * @param values   the series; only the first {@code LL} values are used.
+     * @return the current {@code ScenarioBatch} instance for method chaining.
+     * @throws NoFieldException if the batch has no such variable.
+     */
+    public ScenarioBatch set(String name, int scenario, double[] values) {
+        double[] data = get(name);
+        for (int t = 0; t < LL; t++)
+            data[index(t, scenario)] = values[t];
+        return this;
+    }
+
+    /**
+     * Replaces the series of a variable in one scenario by a constant.
+     *
+     * @param name     the name of the variable.
+     * @param scenario the index of the scenario.
+     * @param value    the value of every year.
+     * @return the current {@code ScenarioBatch} instance for method chaining.
+     * @throws NoFieldException if the batch has no such variable.
+     */
+    public ScenarioBatch fill(String name, int scenario, double value) {
+        double[] data = get(name);
+        for (int t = 0; t < LL; t++)
+            data[index(t, scenario)] = value;
+        return this;
+    }
+
+    /**
+     * Returns the values of a variable in the batch layout.
+     *
+     * @param name the name of the variable.
+     * @return the values of all scenarios of the whole batch; the returned array is not a copy.
+     * @throws NoFieldException if the batch has no such variable.
+     */
+    public double[] get(String name) {
+        double[] data = variables.get(name);
+        if (data == null)
+            throw new NoFieldException("Variable '" + name + "' is not present in the scenario batch.");
+        return data;
+    }
+
+    /**
+     * Returns the series of a variable in one scenario.
+     *
+     * @param name     the name of the variable.
+     * @param scenario the index of the scenario.
+     * @return a copy of the series.
+     * @throws NoFieldException if the batch has no such variable.
+     */
+    public double[] getSeries(String name, int scenario) {
+        double[] data = get(name);
+        double[] values = new double[LL];
+        for (int t = 0; t < LL; t++)
+            values[t] = data[index(t, scenario)];
+        return values;
+    }
+
+    /**
+     * Returns the array receiving a model output, creating it if the batch has no such variable yet.
+     *
+     * <p>An existing array is reused, since the model overwrites every value of the scenarios it runs. This lets the
+     * views of one batch run concurrently and write their outputs into the same array.
+     *
+     * @param name the name of the variable.
+     * @return the values of the variable in the batch layout.
+     */
+    public double[] output(String name) {
+        return variables.computeIfAbsent(name, key -> new double[LL * stride]);
+    }
+}
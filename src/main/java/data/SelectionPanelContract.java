@@ -16,9 +16,15 @@ public interface SelectionPanelContract {
 
         void showDataList(String[] data);
 
+        void addDataFile(String dataFileName);
+
+        void removeDataFile(String dataFileName);
+
         void showError(String message);
 
         void showModelRunSuccessfully();
+
+        void showProgress(String message);
     }
 
     interface Presenter {
@@ -28,13 +34,17 @@ public interface SelectionPanelContract {
 
         void onRunModelClicked();
 
-        void loadModelData(String modelsPath, String dataPath);
+        void onCancelClicked();
+
+        void loadModelData(String dataPath);
+
+        void watchInputs(String dataPath, String scriptsPath);
 
         void setResultPanelPresenter(ResultPanelContract.Presenter resultPanelPresenter);
     }
 
     interface Model {
-        String[] getModelFiles(String modelsPath);
+        String[] getModelNames();
 
         String[] getDataFiles(String dataPath);
 
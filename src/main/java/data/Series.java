@@ -0,0 +1,251 @@
+package data;
+
+import org.codehaus.groovy.runtime.DefaultGroovyMethods;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A series of {@code double} values, one per year, that stores only the values that differ from a constant tail.
+ *
+ * <p>Input rows of a data file are often shorter than the number of years: a growth rate such as
+ * {@code grPRC 1.03} is given once and repeated for every year. A {@code Series} keeps the given values and the
+ * tail value, so such a row takes constant memory however many years the model covers. Fields annotated with
+ * {@link data.annotations.Bind} may be declared as {@code Series} instead of {@code double[]} and are then loaded this
+ * way; models read them with {@link #get(int)} and scripts with the usual {@code X[t]} and {@code X.length}. A
+ * series is not an array, though: a script passing it to a method that takes a {@code double[]} must pass
+ * {@code X as double[]}, a copy of its values.
+ *
+ * <p>{@link #slice(int, int)} and {@link #window(int, int)} return views over a range of years without copying.
+ * Writing into the stored values of a series writes through to every view sharing them. Writing a different value
+ * into the constant tail first copies the series into an array of its own, after which it no longer shares values
+ * with its views.
+ */
+public final class Series {
+    private static final double[] EMPTY = new double[0];
+
+    /**
+     * The array holding the stored values, shared with views of this series.
+     */
+    private double[] values;
+
+    /**
+     * The index in {@link #values} of the first year.
+     */
+    private int offset;
+
+    /**
+     * The number of years held in {@link #values}; the later years have the value {@link #tail}.
+     */
+    private int stored;
+
+    private final int length;
+    private final double tail;
+
+    private Series(double[] values, int offset, int stored, int length, double tail) {
+        this.values = values;
+        this.offset = offset;
+        this.stored = stored;
+        this.length = length;
+        this.tail = tail;
+    }
+
+    /**
+     * Creates a series with the same value in every year.
+     *
+     * @param length the number of years.
+     * @param value  the value of every year.
+     * @return a series using constant memory.
+     */
+    public static Series constant(int length, double value) {
+        if (length < 0)
+            throw new IllegalArgumentException("Series length must not be negative: " + length);
+        return new Series(EMPTY, 0, 0, length, value);
+    }
+
+    /**
+     * Creates a series over an array, one value per year. The array is used as is, not copied.
+     *
+     * @param values the values.
+     * @return a series with as many years as values.
+     */
+    public static Series of(double... values) {
+        return new Series(values, 0, values.length, values.length, 0);
+    }
+
+    /**
+     * Creates a series whose first years are given and whose remaining years repeat the last given value, as a short
+     * row of a data file is read. The array is used as is, not copied.
+     *
+     * @param values the values of the first years; if empty, every year is 0.
+     * @param length the number of years.
+     * @return a series storing at most {@code length} values.
+     */
+    public static Series withTail(double[] values, int length) {
+        if (length < 0)
+            throw new IllegalArgumentException("Series length must not be negative: " + length);
+        if (values.length == 0)
+            return constant(length, 0);
+        return new Series(values, 0, Math.min(values.length, length), length, values[values.length - 1]);
+    }
+
+    /**
+     * Returns the value of a year.
+     *
+     * @param t the index of the year.
+     * @return the value.
+     * @throws IndexOutOfBoundsException if {@code t} is not an index of this series.
+     */
+    public double get(int t) {
+        Objects.checkIndex(t, length);
+        return t < stored ? values[offset + t] : tail;
+    }
+
+    /**
+     * Sets the value of a year.
+     *
+     * @param t     the index of the year.
+     * @param value the new value.
+     * @throws IndexOutOfBoundsException if {@code t} is not an index of this series.
+     */
+    public void set(int t, double value) {
+        Objects.checkIndex(t, length);
+        if (t >= stored) {
+            if (Double.doubleToRawLongBits(value) == Double.doubleToRawLongBits(tail))
+                return;
+            materialize();
+        }
+        values[offset + t] = value;
+    }
+
+    /**
+     * Returns the value of a year; lets Groovy scripts read the series as {@code X[t]}.
+     *
+     * @param t the index of the year.
+     * @return the value.
+     */
+    public double getAt(int t) {
+        return get(t);
+    }
+
+    /**
+     * Sets the value of a year; lets Groovy scripts write the series as {@code X[t] = value}.
+     *
+     * @param t     the index of the year.
+     * @param value the new value.
+     */
+    public void putAt(int t, double value) {
+        set(t, value);
+    }
+
+    /**
+     * Returns the number of years.
+     *
+     * @return the length of the series.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of years; lets Groovy scripts read it as {@code X.length}, like that of an array.
+     *
+     * @return the length of the series.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the number of years; lets Groovy scripts call {@code X.size()}, like on an array.
+     *
+     * @return the length of the series.
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Converts this series for Groovy's {@code as} operator; {@code X as double[]} returns the values of all years
+     * as a new array, e.g. for passing them to a method taking a {@code double[]}.
+     *
+     * @param type the type to convert to.
+     * @return a copy of the values for {@code double[]}, and otherwise what Groovy converts any object to.
+     */
+    public Object asType(Class<?> type) {
+        if (type == double[].class)
+            return toArray();
+        return DefaultGroovyMethods.asType(this, type);
+    }
+
+    /**
+     * Returns the number of years whose values are stored; every later year has the value of the constant tail.
+     *
+     * @return the number of stored values, at most {@link #length()}.
+     */
+    public int storedLength() {
+        return stored;
+    }
+
+    /**
+     * Returns a view of the years from {@code from} (inclusive) to {@code to} (exclusive), without copying.
+     *
+     * @param from the index of the first year of the view.
+     * @param to   the index after the last year of the view.
+     * @return a series of {@code to - from} years.
+     * @throws IndexOutOfBoundsException if the range is not within this series.
+     */
+    public Series slice(int from, int to) {
+        Objects.checkFromToIndex(from, to, length);
+        int viewStored = Math.clamp((long) stored - from, 0, to - from);
+        return new Series(values, offset + from, viewStored, to - from, tail);
+    }
+
+    /**
+     * Returns a view of the {@code size} years up to and including year {@code end}, without copying; e.g. the
+     * inputs of a moving average.
+     *
+     * @param end  the index of the last year of the window.
+     * @param size the number of years.
+     * @return a series of {@code size} years.
+     * @throws IndexOutOfBoundsException if the window is not within this series.
+     */
+    public Series window(int end, int size) {
+        return slice(end - size + 1, end + 1);
+    }
+
+    /**
+     * Returns a series with the same values that shares nothing with this one and stores no more values.
+     *
+     * @return the copy.
+     */
+    public Series copy() {
+        return new Series(Arrays.copyOfRange(values, offset, offset + stored), 0, stored, length, tail);
+    }
+
+    /**
+     * Returns the values of all years as a new array.
+     *
+     * @return an array of {@link #length()} values.
+     */
+    public double[] toArray() {
+        double[] array = new double[length];
+        System.arraycopy(values, offset, array, 0, stored);
+        Arrays.fill(array, stored, length, tail);
+        return array;
+    }
+
+    /**
+     * Moves all values into an array of this series' own, so that any year can be written.
+     */
+    private void materialize() {
+        values = toArray();
+        offset = 0;
+        stored = length;
+    }
+
+    @Override
+    public String toString() {
+        return "Series[length=" + length + ", stored=" + stored + ", tail=" + tail + "]";
+    }
+}
@@ -0,0 +1,24 @@
+package data.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * The DependsOn annotation declares which bound fields a computed field of a
+ * model is calculated from. A field that lists itself follows a recurrence,
+ * i.e. its value in year t is computed from its value in year t - 1.
+ * <p>
+ * The dependencies of a field must only be read at the same year or earlier
+ * ones, so that a change of an input from year t affects its dependents from
+ * year t onwards. Fields without this annotation are pure inputs.
+ */
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Target(java.lang.annotation.ElementType.FIELD)
+public @interface DependsOn {
+    /**
+     * Returns the names of the bound fields the annotated field is computed from.
+     *
+     * @return the field names.
+     */
+    String[] value();
+}
@@ -0,0 +1,85 @@
+package data.batchKernels;
+
+/**
+ * The {@code BatchKernel} interface provides the element-wise arithmetic used by batched model runs.
+ *
+ * <p>Every operation combines {@code length} consecutive elements of two arrays, starting at the given offsets, and
+ * stores the results into a third array, which may be one of the operands. Each element is computed with exactly one
+ * IEEE 754 operation, so all implementations produce bit-identical results.
+ */
+public interface BatchKernel {
+
+    /**
+     * Computes {@code dst[dstOffset + i] = a[aOffset + i] + b[bOffset + i]}.
+     *
+     * @param a         the first operand.
+     * @param aOffset   the index of the first element of {@code a}.
+     * @param b         the second operand.
+     * @param bOffset   the index of the first element of {@code b}.
+     * @param dst       the target array.
+     * @param dstOffset the index of the first element of {@code dst}.
+     * @param length    the number of elements.
+     */
+    void add(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length);
+
+    /**
+     * Computes {@code dst[dstOffset + i] = a[aOffset + i] - b[bOffset + i]}.
+     *
+     * @param a         the first operand.
+     * @param aOffset   the index of the first element of {@code a}.
+     * @param b         the second operand.
+     * @param bOffset   the index of the first element of {@code b}.
+     * @param dst       the target array.
+     * @param dstOffset the index of the first element of {@code dst}.
+     * @param length    the number of elements.
+     */
+    void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length);
+
+    /**
+     * Computes {@code dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i]}.
+     *
+     * @param a         the first operand.
+     * @param aOffset   the index of the first element of {@code a}.
+     * @param b         the second operand.
+     * @param bOffset   the index of the first element of {@code b}.
+     * @param dst       the target array.
+     * @param dstOffset the index of the first element of {@code dst}.
+     * @param length    the number of elements.
+     */
+    void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length);
+
+    /**
+     * Computes {@code dst[dstOffset + i] = a[aOffset + i] / b[bOffset + i]}.
+     *
+     * @param a         the first operand.
+     * @param aOffset   the index of the first element of {@code a}.
+     * @param b         the second operand.
+     * @param bOffset   the index of the first element of {@code b}.
+     * @param dst       the target array.
+     * @param dstOffset the index of the first element of {@code dst}.
+     * @param length    the number of elements.
+     */
+    void divide(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length);
+
+    /**
+     * Returns the fastest kernel available in the running JVM: {@link VectorBatchKernel} if the
+     * {@code jdk.incubator.vector} module is present (e.g. with {@code --add-modules jdk.incubator.vector}),
+     * {@link ScalarBatchKernel} otherwise.
+     *
+     * @return the preferred kernel.
+     */
+    static BatchKernel preferred() {
+        return Holder.PREFERRED;
+    }
+
+    /**
+     * Selects the preferred kernel once, on first use.
+     */
+    final class Holder {
+        private static final BatchKernel PREFERRED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                ? new VectorBatchKernel()
+                : new ScalarBatchKernel();
+
+        private Holder() { }
+    }
+}
@@ -0,0 +1,32 @@
+package data.batchKernels;
+
+/**
+ * The {@code ScalarBatchKernel} class implements {@link BatchKernel} with plain loops. It is used whenever the
+ * Vector API is not available and gives the same results as {@link VectorBatchKernel}.
+ */
+public class ScalarBatchKernel implements BatchKernel {
+
+    @Override
+    public void add(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    @Override
+    public void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    @Override
+    public void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    @Override
+    public void divide(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+}
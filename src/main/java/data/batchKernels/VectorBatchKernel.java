@@ -0,0 +1,68 @@
+package data.batchKernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@code VectorBatchKernel} class implements {@link BatchKernel} with the JDK Vector API, processing as many
+ * elements per instruction as the preferred vector shape of the CPU holds. The elements left over after the last
+ * full vector are processed one by one.
+ *
+ * <p>This class needs the {@code jdk.incubator.vector} module at runtime; use {@link BatchKernel#preferred()}
+ * instead of instantiating it directly.
+ */
+public class VectorBatchKernel implements BatchKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .add(DoubleVector.fromArray(SPECIES, b, bOffset + i))
+                    .intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    @Override
+    public void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .sub(DoubleVector.fromArray(SPECIES, b, bOffset + i))
+                    .intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    @Override
+    public void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .mul(DoubleVector.fromArray(SPECIES, b, bOffset + i))
+                    .intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    @Override
+    public void divide(double[] a, int aOffset, double[] b, int bOffset, double[] dst, int dstOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .div(DoubleVector.fromArray(SPECIES, b, bOffset + i))
+                    .intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++)
+            dst[dstOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+}
@@ -0,0 +1,7 @@
+package data.exceptions;
+
+public class ScriptBudgetExceededException extends RuntimeException {
+    public ScriptBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package data.exceptions;
+
+public class ScriptCompilationException extends RuntimeException {
+    public ScriptCompilationException(String message) {
+        super(message);
+    }
+}
@@ -1,18 +1,25 @@
 package data.models;
 
-import data.Model;
+import data.BatchedModel;
+import data.IncrementalModel;
+import data.ScenarioBatch;
+import data.Series;
 import data.annotations.Bind;
+import data.annotations.DependsOn;
+import data.batchKernels.BatchKernel;
 
-public class ClimateModel implements Model{
-    @Bind private int LL;           // number of years
+import java.util.Set;
 
-    @Bind private int[] YEARS;     //years [from, to]
-    @Bind private double[] grCO2;  //CO2 emission growth
-    @Bind private double[] grTEMP; //temperature increment growth
+public class ClimateModel implements BatchedModel, IncrementalModel {
+    @Bind int LL;           // number of years
 
-    @Bind private double[] CO2;    //current CO2 emissions
-    @Bind private double[] TEMP;   //temperature change
-    @Bind private double[] CLIMATE_CHANGE;  //climate change index
+    @Bind int[] YEARS;     //years [from, to]
+    @Bind Series grCO2;  //CO2 emission growth
+    @Bind Series grTEMP; //temperature increment growth
+
+    @Bind @DependsOn({"grCO2", "CO2"}) double[] CO2;    //current CO2 emissions
+    @Bind @DependsOn({"grTEMP", "TEMP"}) double[] TEMP;   //temperature change
+    @Bind @DependsOn({"CO2", "TEMP"}) double[] CLIMATE_CHANGE;  //climate change index
 
     public ClimateModel() { }
 
@@ -21,9 +28,42 @@ public class ClimateModel implements Model{
         CLIMATE_CHANGE = new double[LL];
         CLIMATE_CHANGE[0] = CO2[0] + TEMP[0];
         for (int t = 1; t < LL; t++) {
-            CO2[t] = grCO2[t] * CO2[t - 1];
-            TEMP[t] = grTEMP[t] * TEMP[t - 1];
+            CO2[t] = grCO2.get(t) * CO2[t - 1];
+            TEMP[t] = grTEMP.get(t) * TEMP[t - 1];
             CLIMATE_CHANGE[t] = CO2[t] + TEMP[t];
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void runFrom(int from, Set<String> affected) {
+        if (affected.contains("CO2"))
+            IncrementalModel.grow(CO2, grCO2, from, LL);
+        if (affected.contains("TEMP"))
+            IncrementalModel.grow(TEMP, grTEMP, from, LL);
+        if (affected.contains("CLIMATE_CHANGE")) {
+            for (int t = from; t < LL; t++)
+                CLIMATE_CHANGE[t] = CO2[t] + TEMP[t];
+        }
+    }
+
+    @Override
+    public void runBatch(ScenarioBatch batch) {
+        int S = batch.getScenarioCount();
+        BatchKernel kernel = batch.getKernel();
+        double[] grCO2 = batch.get("grCO2");
+        double[] grTEMP = batch.get("grTEMP");
+        double[] CO2 = batch.get("CO2");
+        double[] TEMP = batch.get("TEMP");
+        double[] CLIMATE_CHANGE = batch.output("CLIMATE_CHANGE");
+
+        for (int t = 0; t < batch.getLL(); t++) {
+            int row = batch.index(t, 0);
+            if (t > 0) {
+                int previous = batch.index(t - 1, 0);
+                kernel.multiply(grCO2, row, CO2, previous, CO2, row, S);
+                kernel.multiply(grTEMP, row, TEMP, previous, TEMP, row, S);
+            }
+            kernel.add(CO2, row, TEMP, row, CLIMATE_CHANGE, row, S);
+        }
+    }
+}
@@ -1,25 +1,32 @@
 package data.models;
 
-import data.Model;
+import data.BatchedModel;
+import data.IncrementalModel;
+import data.ScenarioBatch;
+import data.Series;
 import data.annotations.Bind;
+import data.annotations.DependsOn;
+import data.batchKernels.BatchKernel;
 
-public class EconomyModel implements Model{
-    @Bind private int LL;           // number of years
+import java.util.Set;
 
-    @Bind private int[] YEARS;      //years [from, to]
+public class EconomyModel implements BatchedModel, IncrementalModel {
+    @Bind int LL;           // number of years
 
-    @Bind private double[] grPRC;    //the growth rate of private consumption
-    @Bind private double[] grPUC;    //the growth rate of public consumption
-    @Bind private double[] grINV;   //investment growth
-    @Bind private double[] grEXP;   //export growth
-    @Bind private double[] grIMP;   //import growth
+    @Bind int[] YEARS;      //years [from, to]
 
-    @Bind private double[] PRC;      //private consumption
-    @Bind private double[] PUC;      //public consumption
-    @Bind private double[] INV;     //investment
-    @Bind private double[] EXP;     //export
-    @Bind private double[] IMP;     //import
-    @Bind private double[] GDP;     //Gross domestic product
+    @Bind Series grPRC;    //the growth rate of private consumption
+    @Bind Series grPUC;    //the growth rate of public consumption
+    @Bind Series grINV;   //investment growth
+    @Bind Series grEXP;   //export growth
+    @Bind Series grIMP;   //import growth
+
+    @Bind @DependsOn({"grPRC", "PRC"}) double[] PRC;      //private consumption
+    @Bind @DependsOn({"grPUC", "PUC"}) double[] PUC;      //public consumption
+    @Bind @DependsOn({"grINV", "INV"}) double[] INV;     //investment
+    @Bind @DependsOn({"grEXP", "EXP"}) double[] EXP;     //export
+    @Bind @DependsOn({"grIMP", "IMP"}) double[] IMP;     //import
+    @Bind @DependsOn({"PRC", "PUC", "INV", "EXP", "IMP"}) double[] GDP;     //Gross domestic product
 
     public EconomyModel() { }
 
@@ -28,12 +35,63 @@ public class EconomyModel implements Model{
         GDP = new double[LL];
         GDP[0] = PRC[0] + PUC[0] + INV[0] + EXP[0] - IMP[0];
         for (int t = 1; t < LL; t++) {
-            PRC[t] = grPRC[t] * PRC[t - 1];
-            PUC[t] = grPUC[t] * PUC[t - 1];
-            INV[t] = grINV[t] * INV[t - 1];
-            EXP[t] = grEXP[t] * EXP[t - 1];
-            IMP[t] = grIMP[t] * IMP[t - 1];
+            PRC[t] = grPRC.get(t) * PRC[t - 1];
+            PUC[t] = grPUC.get(t) * PUC[t - 1];
+            INV[t] = grINV.get(t) * INV[t - 1];
+            EXP[t] = grEXP.get(t) * EXP[t - 1];
+            IMP[t] = grIMP.get(t) * IMP[t - 1];
             GDP[t] = PRC[t] + PUC[t] + INV[t] + EXP[t] - IMP[t];
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void runFrom(int from, Set<String> affected) {
+        if (affected.contains("PRC"))
+            IncrementalModel.grow(PRC, grPRC, from, LL);
+        if (affected.contains("PUC"))
+            IncrementalModel.grow(PUC, grPUC, from, LL);
+        if (affected.contains("INV"))
+            IncrementalModel.grow(INV, grINV, from, LL);
+        if (affected.contains("EXP"))
+            IncrementalModel.grow(EXP, grEXP, from, LL);
+        if (affected.contains("IMP"))
+            IncrementalModel.grow(IMP, grIMP, from, LL);
+        if (affected.contains("GDP")) {
+            for (int t = from; t < LL; t++)
+                GDP[t] = PRC[t] + PUC[t] + INV[t] + EXP[t] - IMP[t];
+        }
+    }
+
+    @Override
+    public void runBatch(ScenarioBatch batch) {
+        int S = batch.getScenarioCount();
+        BatchKernel kernel = batch.getKernel();
+        double[] grPRC = batch.get("grPRC");
+        double[] grPUC = batch.get("grPUC");
+        double[] grINV = batch.get("grINV");
+        double[] grEXP = batch.get("grEXP");
+        double[] grIMP = batch.get("grIMP");
+        double[] PRC = batch.get("PRC");
+        double[] PUC = batch.get("PUC");
+        double[] INV = batch.get("INV");
+        double[] EXP = batch.get("EXP");
+        double[] IMP = batch.get("IMP");
+        double[] GDP = batch.output("GDP");
+
+        for (int t = 0; t < batch.getLL(); t++) {
+            int row = batch.index(t, 0);
+            if (t > 0) {
+                int previous = batch.index(t - 1, 0);
+                kernel.multiply(grPRC, row, PRC, previous, PRC, row, S);
+                kernel.multiply(grPUC, row, PUC, previous, PUC, row, S);
+                kernel.multiply(grINV, row, INV, previous, INV, row, S);
+                kernel.multiply(grEXP, row, EXP, previous, EXP, row, S);
+                kernel.multiply(grIMP, row, IMP, previous, IMP, row, S);
+            }
+            kernel.add(PRC, row, PUC, row, GDP, row, S);
+            kernel.add(GDP, row, INV, row, GDP, row, S);
+            kernel.add(GDP, row, EXP, row, GDP, row, S);
+            kernel.subtract(GDP, row, IMP, row, GDP, row, S);
+        }
+    }
+}
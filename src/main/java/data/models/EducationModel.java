@@ -1,19 +1,26 @@
 package data.models;
 
-import data.Model;
+import data.BatchedModel;
+import data.IncrementalModel;
+import data.ScenarioBatch;
+import data.Series;
 import data.annotations.Bind;
+import data.annotations.DependsOn;
+import data.batchKernels.BatchKernel;
 
-public class EducationModel implements Model{
-    @Bind private int LL;           // number of years
+import java.util.Set;
 
-    @Bind private int[] YEARS;      //years [from, to]
+public class EducationModel implements BatchedModel, IncrementalModel {
+    @Bind int LL;           // number of years
 
-    @Bind private double[] grSTUD;  //growth rate of students
-    @Bind private double[] grTEA;   //growth rate of teachers
+    @Bind int[] YEARS;      //years [from, to]
 
-    @Bind private double[] STUD;    //student's number
-    @Bind private double[] TEA;     //teacher's number
-    @Bind private double[] STUDENT_TEACHER_RATIO;    //students per teacher
+    @Bind Series grSTUD;  //growth rate of students
+    @Bind Series grTEA;   //growth rate of teachers
+
+    @Bind @DependsOn({"grSTUD", "STUD"}) double[] STUD;    //student's number
+    @Bind @DependsOn({"grTEA", "TEA"}) double[] TEA;     //teacher's number
+    @Bind @DependsOn({"STUD", "TEA"}) double[] STUDENT_TEACHER_RATIO;    //students per teacher
 
     public EducationModel() { }
 
@@ -22,9 +29,42 @@ public class EducationModel implements Model{
         STUDENT_TEACHER_RATIO = new double[LL];
         STUDENT_TEACHER_RATIO[0] = STUD[0] / TEA[0];
         for (int t = 1; t < LL; t++) {
-            STUD[t] = grSTUD[t] * STUD[t - 1];
-            TEA[t] = grTEA[t] * TEA[t - 1];
+            STUD[t] = grSTUD.get(t) * STUD[t - 1];
+            TEA[t] = grTEA.get(t) * TEA[t - 1];
             STUDENT_TEACHER_RATIO[t] = STUD[t] / TEA[t];
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void runFrom(int from, Set<String> affected) {
+        if (affected.contains("STUD"))
+            IncrementalModel.grow(STUD, grSTUD, from, LL);
+        if (affected.contains("TEA"))
+            IncrementalModel.grow(TEA, grTEA, from, LL);
+        if (affected.contains("STUDENT_TEACHER_RATIO")) {
+            for (int t = from; t < LL; t++)
+                STUDENT_TEACHER_RATIO[t] = STUD[t] / TEA[t];
+        }
+    }
+
+    @Override
+    public void runBatch(ScenarioBatch batch) {
+        int S = batch.getScenarioCount();
+        BatchKernel kernel = batch.getKernel();
+        double[] grSTUD = batch.get("grSTUD");
+        double[] grTEA = batch.get("grTEA");
+        double[] STUD = batch.get("STUD");
+        double[] TEA = batch.get("TEA");
+        double[] STUDENT_TEACHER_RATIO = batch.output("STUDENT_TEACHER_RATIO");
+
+        for (int t = 0; t < batch.getLL(); t++) {
+            int row = batch.index(t, 0);
+            if (t > 0) {
+                int previous = batch.index(t - 1, 0);
+                kernel.multiply(grSTUD, row, STUD, previous, STUD, row, S);
+                kernel.multiply(grTEA, row, TEA, previous, TEA, row, S);
+            }
+            kernel.divide(STUD, row, TEA, row, STUDENT_TEACHER_RATIO, row, S);
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package data.models;
 
-import data.Model;
+import data.BatchedModel;
+import data.IncrementalModel;
+import data.ScenarioBatch;
+import data.Series;
 import data.annotations.Bind;
+import data.annotations.DependsOn;
+import data.batchKernels.BatchKernel;
 
+import java.util.Set;
 
-public class PopulationModel implements Model{
-    @Bind private int LL;           // number of years
 
-    @Bind private int[] YEARS;      //years [from, to]
+public class PopulationModel implements BatchedModel, IncrementalModel {
+    @Bind int LL;           // number of years
 
-    @Bind private double[] grPOP;   //population growth
-    @Bind private double[] grIMM;   //immigration growth
+    @Bind int[] YEARS;      //years [from, to]
 
-    @Bind private double[] POP;     //current population
-    @Bind private double[] IMM;     //number of immigrants
-    @Bind private double[] TOTAL_POP;    //total population after recalculation
+    @Bind Series grPOP;   //population growth
+    @Bind Series grIMM;   //immigration growth
+
+    @Bind @DependsOn({"grPOP", "POP"}) double[] POP;     //current population
+    @Bind @DependsOn({"grIMM", "IMM"}) double[] IMM;     //number of immigrants
+    @Bind @DependsOn({"POP", "IMM"}) double[] TOTAL_POP;    //total population after recalculation
 
     public PopulationModel() { }
 
@@ -23,9 +30,42 @@ public class PopulationModel implements Model{
         TOTAL_POP = new double[LL];
         TOTAL_POP[0] = POP[0] + IMM[0];
         for (int t = 1; t < LL; t++) {
-            POP[t] = grPOP[t] * POP[t - 1];
-            IMM[t] = grIMM[t] * IMM[t - 1];
+            POP[t] = grPOP.get(t) * POP[t - 1];
+            IMM[t] = grIMM.get(t) * IMM[t - 1];
             TOTAL_POP[t] = POP[t] + IMM[t];
         }
     }
+
+    @Override
+    public void runFrom(int from, Set<String> affected) {
+        if (affected.contains("POP"))
+            IncrementalModel.grow(POP, grPOP, from, LL);
+        if (affected.contains("IMM"))
+            IncrementalModel.grow(IMM, grIMM, from, LL);
+        if (affected.contains("TOTAL_POP")) {
+            for (int t = from; t < LL; t++)
+                TOTAL_POP[t] = POP[t] + IMM[t];
+        }
+    }
+
+    @Override
+    public void runBatch(ScenarioBatch batch) {
+        int S = batch.getScenarioCount();
+        BatchKernel kernel = batch.getKernel();
+        double[] grPOP = batch.get("grPOP");
+        double[] grIMM = batch.get("grIMM");
+        double[] POP = batch.get("POP");
+        double[] IMM = batch.get("IMM");
+        double[] TOTAL_POP = batch.output("TOTAL_POP");
+
+        for (int t = 0; t < batch.getLL(); t++) {
+            int row = batch.index(t, 0);
+            if (t > 0) {
+                int previous = batch.index(t - 1, 0);
+                kernel.multiply(grPOP, row, POP, previous, POP, row, S);
+                kernel.multiply(grIMM, row, IMM, previous, IMM, row, S);
+            }
+            kernel.add(POP, row, IMM, row, TOTAL_POP, row, S);
+        }
+    }
 }
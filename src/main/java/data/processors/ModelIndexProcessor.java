@@ -0,0 +1,335 @@
+package data.processors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code ModelIndexProcessor} class generates the model index at build time.
+ *
+ * <p>For every public, concrete class implementing {@code data.Model} with a public no-argument constructor, it
+ * generates a {@code data.ModelProvider} named after the model with the suffix {@code Provider}, in the same package.
+ * The provider creates the model with a plain constructor call and lists its {@code @Bind} fields, split into
+ * outputs, which are annotated with {@code @DependsOn}, and inputs. All providers are registered in
+ * {@code META-INF/services/data.ModelProvider}.
+ *
+ * <p>If no bound field is private, a {@code data.ModelBinder} with the suffix {@code Binder} is generated as well.
+ * It reads and writes the bound fields directly, so the runtime needs no reflection for the model.
+ *
+ * <p>The processor runs in a compiler pass of its own before the main sources are compiled, see {@code pom.xml}.
+ * It refers to the annotated types by name only, so that it can be compiled before them.
+ */
+@SupportedAnnotationTypes("*")
+public class ModelIndexProcessor extends AbstractProcessor {
+    private static final String MODEL = "data.Model";
+    private static final String PROVIDER = "data.ModelProvider";
+    private static final String BIND = "data.annotations.Bind";
+    private static final String DEPENDS_ON = "data.annotations.DependsOn";
+    private static final String MODELS_PACKAGE = "data.models";
+
+    /**
+     * The types a bound field may have; fields of other types are not bound.
+     */
+    private static final Set<String> SUPPORTED_TYPES = Set.of("int", "int[]", "double[]", "data.Series");
+
+    /**
+     * The qualified names of the providers generated so far, in all rounds.
+     */
+    private final Set<String> providers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement model = processingEnv.getElementUtils().getTypeElement(MODEL);
+        if (model == null)
+            return false;
+
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        TypeMirror modelType = model.asType();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            if (isModel(type, modelType))
+                generateProvider(type);
+        }
+        return false;
+    }
+
+    private boolean isModel(TypeElement type, TypeMirror modelType) {
+        if (type.getKind() != ElementKind.CLASS || !type.getModifiers().contains(Modifier.PUBLIC)
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !processingEnv.getTypeUtils().isAssignable(type.asType(), modelType))
+            return false;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+                return true;
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Model has no public no-argument constructor and is not indexed", type);
+        return false;
+    }
+
+    private void generateProvider(TypeElement type) {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String modelName = type.getSimpleName().toString();
+        String providerName = modelName + "Provider";
+        String name = packageName.equals(MODELS_PACKAGE) ? modelName : type.getQualifiedName().toString();
+
+        List<VariableElement> bound = new ArrayList<>();
+        List<String> inputs = new ArrayList<>();
+        List<String> outputs = new ArrayList<>();
+        boolean accessible = true;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!hasAnnotation(field, BIND))
+                continue;
+            (hasAnnotation(field, DEPENDS_ON) ? outputs : inputs).add(field.getSimpleName().toString());
+            if (!SUPPORTED_TYPES.contains(field.asType().toString()))
+                continue;
+            bound.add(field);
+            if (field.getModifiers().contains(Modifier.PRIVATE))
+                accessible = false;
+        }
+
+        String binderName = null;
+        if (accessible) {
+            binderName = modelName + "Binder";
+            generateBinder(type, packageName, modelName, binderName, bound);
+        } else {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Model has private bound fields; they are accessed through reflection", type);
+        }
+
+        String qualifiedName = packageName.isEmpty() ? providerName : packageName + "." + providerName;
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            if (!packageName.isEmpty())
+                out.write("package " + packageName + ";\n\n");
+            out.write("import data.Model;\n");
+            if (binderName != null)
+                out.write("import data.ModelBinder;\n");
+            out.write("import data.ModelProvider;\n\n");
+            out.write("import java.util.List;\n\n");
+            out.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            out.write("public final class " + providerName + " implements ModelProvider {\n");
+            out.write("    @Override\n");
+            out.write("    public String name() {\n");
+            out.write("        return \"" + name + "\";\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public Class<? extends Model> type() {\n");
+            out.write("        return " + modelName + ".class;\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public Model create() {\n");
+            out.write("        return new " + modelName + "();\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public List<String> inputs() {\n");
+            out.write("        return " + listOf(inputs) + ";\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public List<String> outputs() {\n");
+            out.write("        return " + listOf(outputs) + ";\n");
+            out.write("    }\n");
+            if (binderName != null) {
+                out.write("\n    @Override\n");
+                out.write("    public ModelBinder binder() {\n");
+                out.write("        return new " + binderName + "();\n");
+                out.write("    }\n");
+            }
+            out.write("}\n");
+            providers.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot generate model provider: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Generates the binder of a model: typed static accessors for every bound field, and the {@code ModelBinder}
+     * methods as switches over the field index and straight-line bulk operations.
+     */
+    private void generateBinder(TypeElement type, String packageName, String modelName, String binderName,
+                                List<VariableElement> fields) {
+        String qualifiedName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            if (!packageName.isEmpty())
+                out.write("package " + packageName + ";\n\n");
+            out.write("import data.Model;\n");
+            out.write("import data.ModelBinder;\n");
+            out.write("import groovy.lang.Binding;\n\n");
+            out.write("import java.util.List;\n");
+            out.write("import java.util.Map;\n\n");
+            out.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            out.write("public final class " + binderName + " implements ModelBinder {\n");
+
+            for (VariableElement field : fields) {
+                String fieldName = field.getSimpleName().toString();
+                String fieldType = field.asType().toString();
+                String property = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+                out.write("    public static " + fieldType + " get" + property + "(" + modelName + " model) {\n");
+                out.write("        return model." + fieldName + ";\n");
+                out.write("    }\n\n");
+                out.write("    public static void set" + property + "(" + modelName + " model, " + fieldType
+                        + " value) {\n");
+                out.write("        model." + fieldName + " = value;\n");
+                out.write("    }\n\n");
+            }
+
+            out.write("    @Override\n");
+            out.write("    public List<String> names() {\n");
+            out.write("        return " + listOf(fields.stream().map(f -> f.getSimpleName().toString()).toList())
+                    + ";\n");
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public List<Class<?>> types() {\n");
+            out.write("        return List.of(" + fields.stream().map(f -> f.asType() + ".class")
+                    .collect(Collectors.joining(", ")) + ");\n");
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public List<List<String>> dependencies() {\n");
+            out.write("        return List.of(" + fields.stream().map(f -> listOf(dependenciesOf(f)))
+                    .collect(Collectors.joining(", ")) + ");\n");
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public Object get(Model model, int field) {\n");
+            out.write("        " + modelName + " target = (" + modelName + ") model;\n");
+            out.write("        return switch (field) {\n");
+            for (int i = 0; i < fields.size(); i++)
+                out.write("            case " + i + " -> target." + fields.get(i).getSimpleName() + ";\n");
+            out.write("            default -> throw new IndexOutOfBoundsException(field);\n");
+            out.write("        };\n");
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public void set(Model model, int field, Object value) {\n");
+            out.write("        " + modelName + " target = (" + modelName + ") model;\n");
+            out.write("        switch (field) {\n");
+            for (int i = 0; i < fields.size(); i++) {
+                String fieldType = fields.get(i).asType().toString();
+                String cast = fieldType.equals("int") ? "(Integer)" : "(" + fieldType + ")";
+                out.write("            case " + i + " -> target." + fields.get(i).getSimpleName() + " = " + cast
+                        + " value;\n");
+            }
+            out.write("            default -> throw new IndexOutOfBoundsException(field);\n");
+            out.write("        }\n");
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public void loadFrom(Model model, Map<String, double[]> rows, int[] years) {\n");
+            out.write("        " + modelName + " target = (" + modelName + ") model;\n");
+            out.write("        int LL = years == null ? 0 : years.length;\n");
+            for (VariableElement field : fields) {
+                String fieldName = field.getSimpleName().toString();
+                String fieldType = field.asType().toString();
+                if (fieldName.equals("LL") && fieldType.equals("int"))
+                    out.write("        target.LL = LL;\n");
+                else if (fieldName.equals("YEARS") && fieldType.equals("int[]"))
+                    out.write("        target.YEARS = years == null ? null : years.clone();\n");
+                else if (fieldType.equals("double[]"))
+                    out.write("        target." + fieldName + " = ModelBinder.row(rows, \"" + fieldName
+                            + "\", LL);\n");
+                else if (fieldType.equals("data.Series"))
+                    out.write("        target." + fieldName + " = ModelBinder.series(rows, \"" + fieldName
+                            + "\", LL);\n");
+            }
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public void bindTo(Model model, Binding binding) {\n");
+            out.write("        " + modelName + " target = (" + modelName + ") model;\n");
+            for (VariableElement field : fields) {
+                String fieldName = field.getSimpleName().toString();
+                out.write("        binding.setVariable(\"" + fieldName + "\", target." + fieldName + ");\n");
+            }
+            out.write("    }\n\n");
+
+            out.write("    @Override\n");
+            out.write("    public void exportTo(Model model, RowSink sink) {\n");
+            out.write("        " + modelName + " target = (" + modelName + ") model;\n");
+            for (VariableElement field : fields) {
+                String fieldName = field.getSimpleName().toString();
+                if (!field.asType().toString().equals("int"))
+                    out.write("        sink.row(\"" + fieldName + "\", target." + fieldName + ");\n");
+            }
+            out.write("    }\n");
+            out.write("}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot generate model binder: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Returns the values of the {@code DependsOn} annotation of a field, or an empty list.
+     */
+    private static List<String> dependenciesOf(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(DEPENDS_ON))
+                continue;
+            for (AnnotationValue value : mirror.getElementValues().values()) {
+                List<String> names = new ArrayList<>();
+                for (Object element : (List<?>) value.getValue())
+                    names.add((String) ((AnnotationValue) element).getValue());
+                return names;
+            }
+        }
+        return List.of();
+    }
+
+    private void writeServiceFile() {
+        if (providers.isEmpty())
+            return;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + PROVIDER);
+            try (Writer out = file.openWriter()) {
+                for (String provider : providers)
+                    out.write(provider + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write the model index: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(annotation));
+    }
+
+    private static String listOf(List<String> names) {
+        return names.stream().map(name -> "\"" + name + "\"").collect(Collectors.joining(", ", "List.of(", ")"));
+    }
+}
@@ -0,0 +1,364 @@
+package domain;
+
+import data.Model;
+import data.ModelBinder;
+import data.Series;
+import data.annotations.Bind;
+import data.annotations.DependsOn;
+import groovy.lang.Binding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code BindingPlan} class describes the fields annotated with {@link Bind} in one {@link Model} class.
+ *
+ * <p>The plan is built once per model class, on first use, and cached in a {@link ClassValue}. If the model has a
+ * {@link ModelBinder} generated at build time, every access goes through it, without reflection. Otherwise the plan
+ * finds the bound fields with reflection and keeps a getter and setter {@link MethodHandle} for each, so that
+ * loading data, binding script variables and exporting results only call prepared handles instead of scanning the
+ * class each time.
+ */
+public final class BindingPlan {
+
+    /**
+     * The types a bound field may have.
+     */
+    public enum Kind {
+        INT,
+        INT_ARRAY,
+        DOUBLE_ARRAY,
+        SERIES;
+
+        /**
+         * Checks whether a field of this kind holds one {@code double} value per year.
+         *
+         * @return {@code true} for {@link #DOUBLE_ARRAY} and {@link #SERIES}.
+         */
+        public boolean isSeries() {
+            return this == DOUBLE_ARRAY || this == SERIES;
+        }
+    }
+
+    /**
+     * A single bound field of a model class.
+     *
+     * @param name         the name of the field.
+     * @param kind         the type of the field.
+     * @param index        the position of the field among the bound fields.
+     * @param dependencies the fields this field is computed from, as declared by {@link DependsOn}; empty for an
+     *                     input field.
+     */
+    public record BoundField(String name, Kind kind, int index, List<String> dependencies) { }
+
+    /**
+     * Plans of all model classes used so far.
+     */
+    private static final ClassValue<BindingPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected BindingPlan computeValue(Class<?> type) {
+            ModelBinder binder = ModelRegistry.getBinder(type);
+            return binder != null ? new BindingPlan(binder) : new BindingPlan(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Model.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Model.class, Object.class);
+
+    /**
+     * The bound fields in declaration order.
+     */
+    private final List<BoundField> fields;
+
+    /**
+     * The bound fields by name.
+     */
+    private final Map<String, BoundField> fieldsByName;
+
+    /**
+     * The generated binder of the model class, or {@code null} if the plan uses method handles.
+     */
+    private final ModelBinder binder;
+
+    /**
+     * Handles of type {@code (Model)Object} reading the fields, by field index; {@code null} with a binder.
+     */
+    private final MethodHandle[] getters;
+
+    /**
+     * Handles of type {@code (Model,Object)void} writing the fields, by field index; {@code null} with a binder.
+     */
+    private final MethodHandle[] setters;
+
+    private BindingPlan(ModelBinder binder) {
+        List<BoundField> fields = new ArrayList<>();
+        Map<String, BoundField> fieldsByName = new HashMap<>();
+
+        for (int i = 0; i < binder.names().size(); i++) {
+            BoundField boundField = new BoundField(binder.names().get(i), kindOf(binder.types().get(i)), i,
+                    binder.dependencies().get(i));
+            fields.add(boundField);
+            fieldsByName.put(boundField.name(), boundField);
+        }
+
+        this.fields = Collections.unmodifiableList(fields);
+        this.fieldsByName = fieldsByName;
+        this.binder = binder;
+        this.getters = null;
+        this.setters = null;
+    }
+
+    private BindingPlan(Class<?> modelClass) {
+        List<BoundField> fields = new ArrayList<>();
+        Map<String, BoundField> fieldsByName = new HashMap<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(modelClass, MethodHandles.lookup());
+
+            for (Field field : modelClass.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Bind.class))
+                    continue;
+
+                Kind kind = kindOf(field.getType());
+                if (kind == null)
+                    continue;
+
+                BoundField boundField = new BoundField(
+                        field.getName(),
+                        kind,
+                        fields.size(),
+                        field.isAnnotationPresent(DependsOn.class)
+                                ? List.of(field.getAnnotation(DependsOn.class).value())
+                                : List.of());
+                getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                setters.add(lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                fields.add(boundField);
+                fieldsByName.put(boundField.name(), boundField);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access bound fields of " + modelClass.getName(), e);
+        }
+
+        this.fields = Collections.unmodifiableList(fields);
+        this.fieldsByName = fieldsByName;
+        this.binder = null;
+        this.getters = getters.toArray(new MethodHandle[0]);
+        this.setters = setters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * Returns the plan of the given model class, building it on first use.
+     *
+     * @param modelClass the class of the model.
+     * @return the cached {@code BindingPlan}.
+     */
+    public static BindingPlan of(Class<?> modelClass) {
+        return PLANS.get(modelClass);
+    }
+
+    /**
+     * Returns the bound fields in declaration order.
+     *
+     * @return an unmodifiable list of bound fields.
+     */
+    public List<BoundField> fields() {
+        return fields;
+    }
+
+    /**
+     * Returns the bound field with the given name.
+     *
+     * @param name the name of the field.
+     * @return the bound field, or {@code null} if no bound field has this name.
+     */
+    public BoundField field(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * Checks whether the model class has a bound field with the given name.
+     *
+     * @param name the name of the field.
+     * @return {@code true} if the field exists and is annotated with {@link Bind}.
+     */
+    public boolean isBound(String name) {
+        return fieldsByName.containsKey(name);
+    }
+
+    /**
+     * Works out which computed fields are affected by changed inputs, following the {@link DependsOn} declarations
+     * transitively.
+     *
+     * @param changes the changed fields with the index of the first changed year.
+     * @return the changed and affected fields, each with the index of the first year that needs recomputing.
+     */
+    public Map<String, Integer> affectedBy(Map<String, Integer> changes) {
+        Map<String, Integer> affected = new LinkedHashMap<>(changes);
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (BoundField field : fields) {
+                for (String dependency : field.dependencies()) {
+                    Integer from = affected.get(dependency);
+                    if (from == null)
+                        continue;
+
+                    Integer current = affected.get(field.name());
+                    if (current == null || from < current) {
+                        affected.put(field.name(), from);
+                        grown = true;
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Reads the value of a bound field.
+     *
+     * @param model the model to read from.
+     * @param field the bound field.
+     * @return the current value of the field, boxed for {@link Kind#INT}.
+     */
+    public Object get(Model model, BoundField field) {
+        if (binder != null)
+            return binder.get(model, field.index());
+        try {
+            return (Object) getters[field.index()].invokeExact(model);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot read field '" + field.name() + "'", e);
+        }
+    }
+
+    /**
+     * Writes the value of a bound field.
+     *
+     * @param model the model to write to.
+     * @param field the bound field.
+     * @param value the new value; an {@link Integer} for {@link Kind#INT}.
+     */
+    public void set(Model model, BoundField field, Object value) {
+        if (binder != null) {
+            binder.set(model, field.index(), value);
+            return;
+        }
+        try {
+            setters[field.index()].invokeExact(model, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot write field '" + field.name() + "'", e);
+        }
+    }
+
+    /**
+     * Assigns parsed input data to the bound fields of the model.
+     *
+     * <p>{@code LL} receives the number of years and {@code YEARS} the years themselves. Every other
+     * {@code double[]} field receives a copy of the row with the same name; a missing row becomes an array of zeros
+     * and a row shorter than {@code LL} is extended with its last value. A {@link Series} field receives the row as
+     * a series that stores only the values given and repeats the last one. Since nothing is shared with {@code data},
+     * the same parsed data can be loaded into several models.
+     *
+     * @param model the model to fill.
+     * @param data  the parsed content of a data file.
+     */
+    public void load(Model model, ParsedData data) {
+        if (binder != null) {
+            binder.loadFrom(model, data.getRows(), data.getYears());
+            return;
+        }
+        int LL = data.getLL();
+        for (BoundField field : fields) {
+            if (field.name().equals("LL")) {
+                set(model, field, LL);
+            } else if (field.name().equals("YEARS")) {
+                set(model, field, data.getYears() == null ? null : data.getYears().clone());
+            } else if (field.kind() == Kind.DOUBLE_ARRAY) {
+                set(model, field, copyRow(data, field.name()));
+            } else if (field.kind() == Kind.SERIES) {
+                set(model, field, ModelBinder.series(data.getRows(), field.name(), LL));
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of a row as it is assigned to a model: a missing row becomes an array of {@code LL} zeros and a
+     * row shorter than {@code LL} is extended with its last value.
+     *
+     * @param data the parsed content of a data file.
+     * @param name the name of the row.
+     * @return a new array of at least {@code LL} values.
+     */
+    static double[] copyRow(ParsedData data, String name) {
+        return ModelBinder.row(data.getRows(), name, data.getLL());
+    }
+
+    /**
+     * Exposes every bound field of the model as a variable of the Groovy binding.
+     *
+     * @param model   the model whose fields are bound.
+     * @param binding the binding that receives the variables.
+     */
+    public void bindTo(Model model, Binding binding) {
+        if (binder != null) {
+            binder.bindTo(model, binding);
+            return;
+        }
+        for (BoundField field : fields) {
+            binding.setVariable(field.name(), get(model, field));
+        }
+    }
+
+    /**
+     * Adds every {@code int[]}, {@code double[]} and {@link Series} field of the model to a results view, in declaration order.
+     *
+     * @param model   the model whose fields are exported.
+     * @param results the view receiving the rows.
+     */
+    void exportTo(Model model, Results results) {
+        if (binder != null) {
+            binder.exportTo(model, new ModelBinder.RowSink() {
+                @Override
+                public void row(String name, double[] values) {
+                    results.addRow(name, values, false);
+                }
+
+                @Override
+                public void row(String name, int[] values) {
+                    results.addRow(name, values);
+                }
+            });
+            return;
+        }
+        for (BoundField field : fields) {
+            if (field.kind() == Kind.DOUBLE_ARRAY)
+                results.addRow(field.name(), (double[]) get(model, field), false);
+            else if (field.kind() == Kind.SERIES)
+                results.addRow(field.name(), ((Series) get(model, field)).toArray(), false);
+            else if (field.kind() == Kind.INT_ARRAY)
+                results.addRow(field.name(), (int[]) get(model, field));
+        }
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == int.class)
+            return Kind.INT;
+        if (type == int[].class)
+            return Kind.INT_ARRAY;
+        if (type == double[].class)
+            return Kind.DOUBLE_ARRAY;
+        if (type == Series.class)
+            return Kind.SERIES;
+        return null;
+    }
+}
@@ -0,0 +1,354 @@
+package domain;
+
+import data.Model;
+import data.Series;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code Checkpoint} class writes and reads binary snapshots of a {@link Controller}'s state: the values of all
+ * fields annotated with {@link data.annotations.Bind} and all variables created by scripts.
+ *
+ * <p>The file is little-endian and laid out as follows:
+ * <pre>
+ * int     magic "MSHC"
+ * int     format version
+ * string  model name
+ * int     number of entries
+ * entry*  byte section (model field or script variable), byte kind, string name, int length, padding, values
+ * </pre>
+ * Strings are an {@code int} byte count followed by UTF-8 bytes. The values of every entry form one contiguous
+ * block, aligned to 8 bytes, so that restoring is a bulk copy out of a memory-mapped file. A {@code null} array is
+ * stored with length -1; an {@code int} field is stored as an array of length 1 and a {@link Series} field as the
+ * array of all its values.
+ */
+final class Checkpoint {
+    private static final int MAGIC = 0x4348534D; // "MSHC" in little-endian order
+    private static final int VERSION = 1;
+
+    private static final byte SECTION_MODEL = 0;
+    private static final byte SECTION_SCRIPT = 1;
+
+    private static final byte KIND_INT = 0;
+    private static final byte KIND_INT_ARRAY = 1;
+    private static final byte KIND_DOUBLE_ARRAY = 2;
+
+    /**
+     * The size of the buffer used when writing.
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The name of the model class the state belongs to.
+     */
+    private final String modelName;
+
+    /**
+     * The values of the bound model fields by name; {@link Integer}, {@code int[]}, {@code double[]} or
+     * {@link Series}; read from a file, a {@code Series} field is a {@code double[]}.
+     */
+    private final Map<String, Object> fields;
+
+    /**
+     * The script variables by name, in their original order.
+     */
+    private final Map<String, double[]> scriptVariables;
+
+    private Checkpoint(String modelName, Map<String, Object> fields, Map<String, double[]> scriptVariables) {
+        this.modelName = modelName;
+        this.fields = fields;
+        this.scriptVariables = scriptVariables;
+    }
+
+    String getModelName() {
+        return modelName;
+    }
+
+    Map<String, Object> getFields() {
+        return fields;
+    }
+
+    Map<String, double[]> getScriptVariables() {
+        return scriptVariables;
+    }
+
+    /**
+     * Takes an in-memory snapshot of a model and its script variables. All arrays are copied.
+     *
+     * @param modelName       the name of the model class.
+     * @param model           the model whose bound fields are saved.
+     * @param plan            the binding plan of the model class.
+     * @param scriptVariables the variables created by scripts.
+     * @return the snapshot.
+     */
+    static Checkpoint capture(String modelName, Model model, BindingPlan plan, Map<String, double[]> scriptVariables) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (BindingPlan.BoundField field : plan.fields())
+            fields.put(field.name(), plan.get(model, field));
+        return new Checkpoint(modelName, fields, scriptVariables).copy();
+    }
+
+    /**
+     * Returns a deep copy of this snapshot, so that restoring it does not share arrays with it.
+     *
+     * @return the copy.
+     */
+    Checkpoint copy() {
+        Map<String, Object> fieldsCopy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof double[] doubles)
+                value = doubles.clone();
+            else if (value instanceof int[] ints)
+                value = ints.clone();
+            else if (value instanceof Series series)
+                value = series.copy();
+            fieldsCopy.put(entry.getKey(), value);
+        }
+        Map<String, double[]> variablesCopy = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> entry : scriptVariables.entrySet())
+            variablesCopy.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().clone());
+        return new Checkpoint(modelName, fieldsCopy, variablesCopy);
+    }
+
+    /**
+     * Estimates the memory held by the values of this snapshot.
+     *
+     * @return the size in bytes.
+     */
+    long sizeInBytes() {
+        long bytes = 0;
+        for (Object value : fields.values()) {
+            if (value instanceof double[] doubles)
+                bytes += (long) doubles.length * Double.BYTES;
+            else if (value instanceof int[] ints)
+                bytes += (long) ints.length * Integer.BYTES;
+            else if (value instanceof Series series)
+                bytes += (long) series.storedLength() * Double.BYTES;
+            bytes += 64;
+        }
+        for (double[] values : scriptVariables.values())
+            bytes += (values == null ? 0 : (long) values.length * Double.BYTES) + 64;
+        return bytes;
+    }
+
+    /**
+     * Writes a snapshot of a model and its script variables.
+     *
+     * <p>The snapshot is written to a temporary file in the same directory and then moved over the target, so that
+     * a failure part-way keeps the previous file and concurrent readers never see a partial one.
+     *
+     * @param path            the file to write; an existing file is replaced.
+     * @param modelName       the name of the model class.
+     * @param model           the model whose bound fields are saved.
+     * @param plan            the binding plan of the model class.
+     * @param scriptVariables the variables created by scripts.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(Path path, String modelName, Model model, BindingPlan plan,
+                      Map<String, double[]> scriptVariables) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writeTo(temporary, modelName, model, plan, scriptVariables);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeTo(Path path, String modelName, Model model, BindingPlan plan,
+                                Map<String, double[]> scriptVariables) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BlockWriter out = new BlockWriter(channel);
+
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putString(modelName);
+            out.putInt(plan.fields().size() + scriptVariables.size());
+
+            for (BindingPlan.BoundField field : plan.fields()) {
+                Object value = plan.get(model, field);
+                switch (field.kind()) {
+                    case INT -> out.putInts(SECTION_MODEL, KIND_INT, field.name(), new int[]{(Integer) value});
+                    case INT_ARRAY -> out.putInts(SECTION_MODEL, KIND_INT_ARRAY, field.name(), (int[]) value);
+                    case DOUBLE_ARRAY -> out.putDoubles(SECTION_MODEL, field.name(), (double[]) value);
+                    case SERIES -> out.putDoubles(SECTION_MODEL, field.name(),
+                            value == null ? null : ((Series) value).toArray());
+                }
+            }
+            for (Map.Entry<String, double[]> entry : scriptVariables.entrySet())
+                out.putDoubles(SECTION_SCRIPT, entry.getKey(), entry.getValue());
+
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a snapshot by memory-mapping the file.
+     *
+     * @param path the file to read.
+     * @return the restored state.
+     * @throws IOException if the file cannot be read or is not a checkpoint.
+     */
+    static Checkpoint read(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            if (in.getInt() != MAGIC)
+                throw new IOException("Not a checkpoint file: " + path);
+            int version = in.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported checkpoint version " + version + " in " + path);
+
+            String modelName = getString(in);
+            int entries = in.getInt();
+
+            Map<String, Object> fields = new LinkedHashMap<>();
+            Map<String, double[]> scriptVariables = new LinkedHashMap<>();
+
+            for (int i = 0; i < entries; i++) {
+                byte section = in.get();
+                byte kind = in.get();
+                String name = getString(in);
+                int length = in.getInt();
+                align(in);
+
+                Object value;
+                if (kind == KIND_DOUBLE_ARRAY) {
+                    double[] values = null;
+                    if (length >= 0) {
+                        values = new double[length];
+                        in.asDoubleBuffer().get(values);
+                        in.position(in.position() + length * Double.BYTES);
+                    }
+                    value = values;
+                } else {
+                    int[] values = null;
+                    if (length >= 0) {
+                        values = new int[length];
+                        in.asIntBuffer().get(values);
+                        in.position(in.position() + length * Integer.BYTES);
+                    }
+                    value = kind == KIND_INT ? Integer.valueOf(values[0]) : values;
+                }
+
+                if (section == SECTION_SCRIPT)
+                    scriptVariables.put(name, (double[]) value);
+                else
+                    fields.put(name, value);
+            }
+            return new Checkpoint(modelName, fields, scriptVariables);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted checkpoint file: " + path, e);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void align(ByteBuffer in) {
+        in.position((in.position() + 7) & ~7);
+    }
+
+    /**
+     * Buffers writes to a channel and keeps track of the file offset for alignment.
+     */
+    private static final class BlockWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        BlockWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int i = 0; i < bytes.length; ) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - i);
+                buffer.put(bytes, i, n);
+                i += n;
+            }
+        }
+
+        void putInts(byte section, byte kind, String name, int[] values) throws IOException {
+            putHeader(section, kind, name, values == null ? -1 : values.length);
+            if (values == null)
+                return;
+            for (int i = 0; i < values.length; ) {
+                ensure(Integer.BYTES);
+                int n = Math.min(buffer.remaining() / Integer.BYTES, values.length - i);
+                buffer.asIntBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+            }
+        }
+
+        void putDoubles(byte section, String name, double[] values) throws IOException {
+            putHeader(section, KIND_DOUBLE_ARRAY, name, values == null ? -1 : values.length);
+            if (values == null)
+                return;
+            for (int i = 0; i < values.length; ) {
+                ensure(Double.BYTES);
+                int n = Math.min(buffer.remaining() / Double.BYTES, values.length - i);
+                buffer.asDoubleBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                i += n;
+            }
+        }
+
+        private void putHeader(byte section, byte kind, String name, int length) throws IOException {
+            ensure(2);
+            buffer.put(section).put(kind);
+            putString(name);
+            putInt(length);
+
+            int padding = (int) (-(written + buffer.position()) & 7);
+            ensure(padding);
+            for (int i = 0; i < padding; i++)
+                buffer.put((byte) 0);
+        }
+
+        /**
+         * Flushes the buffer if fewer than {@code bytes} bytes are free in it.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                written += channel.write(buffer);
+            buffer.clear();
+        }
+    }
+}
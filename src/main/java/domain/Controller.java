@@ -1,19 +1,50 @@
 package domain;
 
+import data.BatchedModel;
+import data.IncrementalModel;
 import data.Model;
+import data.ScenarioBatch;
+import data.Series;
 import data.annotations.Bind;
 import data.exceptions.NoFieldException;
+import data.exceptions.ScriptBudgetExceededException;
+import data.exceptions.ScriptCompilationException;
+import domain.metricsLogic.CountingWriter;
+import domain.metricsLogic.Phase;
+import domain.metricsLogic.PhaseTimer;
+import domain.vectorLogic.VectorCompiler;
+import domain.vectorLogic.VectorScript;
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
-
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.lang.reflect.Field;
-import java.text.DecimalFormat;
+import groovy.lang.Script;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * The {@code Controller} class is responsible for managing and executing various modeling and scripting operations
@@ -23,38 +54,107 @@ import java.util.Map;
  * <p>This class supports features like:
  * <ul>
  *   <li>Loading data from files into the model</li>
- *   <li>Running custom Groovy scripts</li>
+ *   <li>Running custom Groovy scripts, element-wise ones as compiled bytecode through the {@link VectorCompiler}</li>
  *   <li>Executing the predefined logic of the model</li>
- *   <li>Exporting the results as tab-separated values (TSV)</li>
+ *   <li>Exporting the results as tab-separated values (TSV), either as a string or streamed</li>
+ *   <li>Recomputing only what changed through {@link #update()}</li>
+ *   <li>Serving repeated runs from the {@link ResultCache} through {@link #runPipeline(String, String...)}</li>
  * </ul>
  *
- * <p>It leverages reflection to bind data to fields annotated with {@link Bind}, enabling dynamic interaction
- * with the model and custom scripts.
+ * <p>It binds data to fields annotated with {@link Bind} through the model's {@link BindingPlan}, enabling dynamic
+ * interaction with the model and custom scripts.
+ *
+ * <p>Every phase of the pipeline is timed with a {@link PhaseTimer}, which records it in
+ * {@link domain.metricsLogic.Metrics} and as a Flight Recorder event when either is enabled.
  */
 public class Controller {
+    /**
+     * Matches the identifiers of a script; used to find the variables a script may read.
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * Digests of the class files of the model classes, part of the keys of the {@link ResultCache}.
+     */
+    private static final ClassValue<byte[]> CLASS_DIGESTS = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+                return in == null ? new byte[0] : sha256().digest(in.readAllBytes());
+            } catch (IOException e) {
+                return new byte[0];
+            }
+        }
+    };
+
     /**
      * The {@link Model} instance managed by this controller.
      */
     private final Model model;
 
+    /**
+     * The name of the {@link Model} class in {@code data.models}.
+     */
+    private final String modelName;
+
+    /**
+     * The {@link BindingPlan} describing the {@link Bind} fields of the model class.
+     */
+    private final BindingPlan plan;
+
     /**
      * A map storing variables created in Groovy scripts.
      * The key represents the variable name, and the value is an array of double values associated with the variable.
      */
     private Map<String, double[]> scriptVariables = new LinkedHashMap<>();
 
+    /**
+     * The inputs changed since the last model run, with the index of the first changed year.
+     */
+    private final Map<String, Integer> changes = new HashMap<>();
+
+    /**
+     * Whether the model fields hold the results of a run of the current data, so that {@link #update()} can
+     * recompute incrementally.
+     */
+    private boolean upToDate;
+
+    /**
+     * The scripts run since the script variables were last reset, in order; replayed by {@link #update()}.
+     */
+    private List<RecordedScript> scripts = new ArrayList<>();
+
+    /**
+     * The limits every Groovy script run by this controller must stay within.
+     */
+    private ScriptBudget scriptBudget = ScriptBudget.UNLIMITED;
+
+    /**
+     * A script run through this controller.
+     *
+     * @param source   the text of the script, or {@code null} for a script file.
+     * @param fileName the script file, or {@code null} for a script given as text.
+     * @param mode     the way the script is compiled.
+     * @param reads    every identifier of the script, a superset of the variables it reads.
+     * @param creates  the script variables the script assigned when it last ran.
+     */
+    private record RecordedScript(String source, String fileName, ScriptMode mode, Set<String> reads,
+                                  Set<String> creates) { }
+
     /**
      * Constructs a {@code Controller} with the specified model name.
      *
-     * @param modelName the name of the {@link Model} class to instantiate.
+     * @param modelName the name of the {@link Model} class to instantiate, as listed by {@link ModelRegistry}.
      * @throws RuntimeException if the {@link Model} cannot be created or initialized.
      */
     public Controller(String modelName) {
         try {
-            this.model = (Model) Class.forName("data.models." + modelName).newInstance();
+            this.model = ModelRegistry.create(modelName);
+            this.modelName = modelName;
         } catch (Exception e) {
-            throw new RuntimeException();
+            throw new RuntimeException("Cannot create model " + modelName + ". " + e);
         }
+        this.plan = BindingPlan.of(model.getClass());
     }
 
     /**
@@ -67,91 +167,291 @@ public class Controller {
      * VAR1   1.0  2.0  3.0
      * VAR2   4.0  5.0  6.0
      * </pre>
+     * The file is parsed by {@link DataFileParser}.
      *
      * @param fname the name of the input file from which data is read.
      * @return the current {@code Controller} instance for method chaining.
      * @throws RuntimeException if any error occurs while reading the file or binding data to the {@link Model}.
      */
     public Controller readDataFrom(String fname) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(fname))) { //to close bf automatically
-            Map<String, double[]> data = new HashMap<>();
-            String line;
-            int LL = 0;
-            int[] years = null;
-
+        try {
             //READING DATA INTO VARIABLES
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-
-                if (line.startsWith("YEARS")) {
-                    String[] parts = line.split("\\s+");
-                    LL = parts.length - 1;
-                    years = new int[LL];
-
-                    for (int i = 1; i < parts.length; i++) {
-                        years[i - 1] = Integer.parseInt(parts[i]);
-                    }
-
-                    data.put("LL", new double[]{LL});
-                } else {
-                    String[] parts = line.split("\\s+");
-                    String varName = parts[0];
-                    double[] values = new double[parts.length - 1];
-
-                    for (int i = 1; i < parts.length; i++) {
-                        values[i - 1] = Double.parseDouble(parts[i]);
-                    }
-
-                    data.put(varName, values);
-                }
-            }
+            PhaseTimer timer = PhaseTimer.start(Phase.READ);
+            Path path = Path.of(fname);
+            ParsedData data = DataFileParser.parse(path);
+            if (timer.isActive())
+                timer.stop(modelName, data.getLL(), data.getRows().size(), Files.size(path));
 
             //ASSIGNING DATA TO FIELDS
-            for (Field field : model.getClass().getDeclaredFields()) {
-
-                if (field.isAnnotationPresent(Bind.class)) {
-                    field.setAccessible(true);
-
-                    if (field.getName().equals("LL")) {
-                        field.set(model, (int) data.get("LL")[0]);
-                    } else if (field.getName().equals("YEARS")) {
-                        field.set(model, years);
-                    } else if (field.getType().isArray() && field.getType().getComponentType() == double.class) {
-
-                        double[] values = data.get(field.getName());
-                        if (values == null) {
-                            //throw new NoFieldException("Data for field '" + field.getName() + "' is not present in the input data.");
-                            values = new double[LL];
-                            //if row is not full we extend it with the last value in values array
-                        } else if (values.length < LL) {
-                            double[] extended = new double[LL];
-                            System.arraycopy(values, 0, extended, 0, values.length);
-                            for (int i = values.length; i < LL; i++) {
-                                extended[i] = values[values.length - 1];
-                            }
-                            values = extended;
-                        }
-                        field.set(model, values);
-                    }
-                }
-            }
+            load(data);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
         }
         return this;
     }
 
+    /**
+     * Populates the fields in the associated {@link Model} from data that has already been parsed.
+     *
+     * <p>The model receives its own copies of the rows, so the same {@link ParsedData} can be loaded into any
+     * number of controllers.
+     *
+     * @param data the parsed content of a data file.
+     * @return the current {@code Controller} instance for method chaining.
+     */
+    public Controller readData(ParsedData data) {
+        load(data);
+        return this;
+    }
+
+    /**
+     * Loads new data into the model; the next {@link #update()} runs the whole model, since none of its results
+     * belong to the new data.
+     */
+    private void load(ParsedData data) {
+        PhaseTimer timer = PhaseTimer.start(Phase.BIND);
+        plan.load(model, data);
+        timer.stop(modelName, data.getLL(), plan.fields().size(), 0);
+        changes.clear();
+        upToDate = false;
+    }
+
     /**
      * Runs the logic encapsulated within the current {@link Model}.
      *
      * <p>This method invokes the {@link Model#run()} method, which processes the loaded data based on the model's
-     * predefined computation logic.
+     * predefined computation logic. The whole horizon is recomputed; see {@link #update()} for recomputing only
+     * what changed.
      *
      * @return the current {@code Controller} instance for method chaining.
      */
     public Controller runModel() {
+        PhaseTimer timer = PhaseTimer.start(Phase.RUN);
         model.run();
         //model.getClass().getDeclaredMethod("run").invoke(model);
+        if (timer.isActive())
+            timer.stop(modelName, years(), plan.fields().size(), 0);
+        upToDate = true;
+        changes.clear();
+        return this;
+    }
+
+    /**
+     * Reads a data file, runs the model on it and then runs the given script files in order, serving the results
+     * from the shared {@link ResultCache} if an identical run was made before.
+     *
+     * <p>The data file is taken from the shared {@link DataCache}, so it is read and parsed only if it has changed
+     * since it was last used. The cache key is a SHA-256 hash over the model class file, the hash of the data file
+     * and the texts of the scripts, in order. On a hit, the model run and the scripts are skipped and the cached
+     * results are restored; the scripts are still recorded, so that {@link #update()} re-runs them after a change.
+     * On a miss, the run is made from the parsed data that was hashed and its results are added to the cache.
+     * Either way, the
+     * results equal those of {@link #readDataFrom(String)}, {@link #runModel()} and
+     * {@link #runScriptFromFile(String)} for every script.
+     *
+     * @param dataFile    the name of the data file.
+     * @param scriptFiles the names of the script files to run after the model.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if a file cannot be read or a script fails.
+     */
+    public Controller runPipeline(String dataFile, String... scriptFiles) {
+        DataCache.Entry data;
+        List<String> sources = new ArrayList<>();
+        try {
+            PhaseTimer timer = PhaseTimer.start(Phase.READ);
+            data = DataCache.shared().load(Path.of(dataFile));
+            if (timer.isActive())
+                timer.stop(modelName, data.data().getLL(), data.data().getRows().size(), data.key().size());
+            for (String scriptFile : scriptFiles)
+                sources.add(Files.readString(Path.of(scriptFile)));
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading pipeline input. " + e.getMessage());
+        }
+
+        String key = pipelineKey(data.sha256(), sources);
+        Checkpoint cached = ResultCache.shared().lookup(key);
+        if (cached != null) {
+            restore(cached.copy());
+            for (int i = 0; i < scriptFiles.length; i++)
+                scripts.add(new RecordedScript(null, scriptFiles[i], ScriptMode.DYNAMIC, identifiersOf(sources.get(i)),
+                        Set.of()));
+            return this;
+        }
+
+        scriptVariables = new LinkedHashMap<>();
+        scripts = new ArrayList<>();
+        readData(data.data()).runModel();
+        for (int i = 0; i < scriptFiles.length; i++) {
+            Set<String> creates = run(sources.get(i), null, ScriptMode.DYNAMIC);
+            scripts.add(new RecordedScript(null, scriptFiles[i], ScriptMode.DYNAMIC, identifiersOf(sources.get(i)),
+                    creates));
+        }
+        ResultCache.shared().store(key, modelName, model, plan, scriptVariables);
+        return this;
+    }
+
+    /**
+     * Computes the {@link ResultCache} key of a pipeline run. Every part is prefixed with its length, so that
+     * different splits of the same bytes give different keys.
+     */
+    private String pipelineKey(byte[] dataHash, List<String> sources) {
+        MessageDigest digest = sha256();
+        update(digest, modelName.getBytes(StandardCharsets.UTF_8));
+        update(digest, CLASS_DIGESTS.get(model.getClass()));
+        update(digest, dataHash);
+        for (String source : sources)
+            update(digest, source.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes) {
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, bytes.length));
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Brings the results up to date with the inputs changed through {@link #setVariable(String, double[])} and
+     * {@link #setValues(String, int, double[])} since the last run, and re-runs the scripts that read affected
+     * variables.
+     *
+     * <p>If the model is an {@link IncrementalModel} and has run since its data was loaded, only the computed fields
+     * that depend on a changed input, directly or through other fields as declared by
+     * {@link data.annotations.DependsOn}, are recomputed, and only from the first changed year onwards. Otherwise the
+     * model runs in full and every script is re-run. Either way, the results equal those of {@link #runModel()}
+     * followed by all scripts, as long as scripts do not modify model fields in place.
+     *
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if a script fails.
+     */
+    public Controller update() {
+        if (!upToDate || !(model instanceof IncrementalModel incremental)) {
+            runModel();
+            replayScripts(null);
+            return this;
+        }
+        if (changes.isEmpty())
+            return this;
+
+        Map<String, Integer> affected = plan.affectedBy(changes);
+        changes.clear();
+
+        Set<String> recompute = new HashSet<>();
+        int from = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : affected.entrySet()) {
+            BindingPlan.BoundField field = plan.field(entry.getKey());
+            if (field != null && !field.dependencies().isEmpty()) {
+                recompute.add(field.name());
+                from = Math.min(from, entry.getValue());
+            }
+        }
+        if (!recompute.isEmpty()) {
+            PhaseTimer timer = PhaseTimer.start(Phase.RUN);
+            incremental.runFrom(from, recompute);
+            if (timer.isActive())
+                timer.stop(modelName, years() - from, recompute.size(), 0);
+        }
+
+        replayScripts(affected.keySet());
+        return this;
+    }
+
+    /**
+     * Re-runs the recorded scripts that read one of the affected variables, or all of them. Variables created by a
+     * re-run script count as affected for the scripts after it.
+     *
+     * @param affected the affected variables, or {@code null} to re-run every script.
+     */
+    private void replayScripts(Set<String> affected) {
+        Set<String> dirty = affected == null ? null : new HashSet<>(affected);
+        for (int i = 0; i < scripts.size(); i++) {
+            RecordedScript recorded = scripts.get(i);
+            if (dirty != null && Collections.disjoint(recorded.reads(), dirty))
+                continue;
+
+            String source = recorded.source() == null ? readScript(recorded.fileName()) : recorded.source();
+            Set<String> creates = run(source, recorded.fileName(), recorded.mode());
+            scripts.set(i, new RecordedScript(recorded.source(), recorded.fileName(), recorded.mode(),
+                    recorded.reads(), creates));
+            if (dirty != null)
+                dirty.addAll(creates);
+        }
+    }
+
+    /**
+     * Checks whether the model can run many scenarios at once through {@link #runBatch(ScenarioBatch)}.
+     *
+     * @return {@code true} if the model is a {@link BatchedModel}.
+     */
+    public boolean supportsBatches() {
+        return model instanceof BatchedModel;
+    }
+
+    /**
+     * Creates a batch of identical scenarios from parsed data.
+     *
+     * <p>Every {@code double[]} and {@link Series} field annotated with {@link Bind} becomes a variable of the batch,
+     * filled as
+     * {@link #readData(ParsedData)} would fill the field, in every scenario. The scenarios can then be changed one
+     * by one before {@link #runBatch(ScenarioBatch)}.
+     *
+     * @param data          the parsed content of a data file.
+     * @param scenarioCount the number of scenarios.
+     * @return a new batch in the layout expected by the model.
+     */
+    public ScenarioBatch newBatch(ParsedData data, int scenarioCount) {
+        ScenarioBatch batch = new ScenarioBatch(scenarioCount, data.getYears());
+        for (BindingPlan.BoundField field : plan.fields()) {
+            if (field.kind().isSeries())
+                batch.put(field.name(), BindingPlan.copyRow(data, field.name()));
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a batch with one scenario per parsed data set, e.g. one per region of panel data.
+     *
+     * <p>Every {@code double[]} and {@link Series} field annotated with {@link Bind} becomes a variable of the batch,
+     * filled in each
+     * scenario as {@link #readData(ParsedData)} would fill the field from the corresponding data set.
+     *
+     * @param scenarios the parsed data of every scenario; all must have the same years.
+     * @return a new batch in the layout expected by the model.
+     */
+    public ScenarioBatch newBatch(List<ParsedData> scenarios) {
+        ScenarioBatch batch = new ScenarioBatch(scenarios.size(), scenarios.get(0).getYears());
+        for (BindingPlan.BoundField field : plan.fields()) {
+            if (!field.kind().isSeries())
+                continue;
+
+            batch.output(field.name());
+            for (int s = 0; s < scenarios.size(); s++)
+                batch.set(field.name(), s, BindingPlan.copyRow(scenarios.get(s), field.name()));
+        }
+        return batch;
+    }
+
+    /**
+     * Runs the model for every scenario of a batch. The fields of the model are not used or changed.
+     *
+     * @param batch the inputs of all scenarios; receives the outputs.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if the model does not support batched runs.
+     */
+    public Controller runBatch(ScenarioBatch batch) {
+        if (!(model instanceof BatchedModel batchedModel))
+            throw new RuntimeException("Model " + modelName + " does not support batched runs");
+
+        PhaseTimer timer = PhaseTimer.start(Phase.RUN);
+        batchedModel.runBatch(batch);
+        timer.stop(modelName, batch.getLL(), batch.getScenarioCount(), 0);
         return this;
     }
 
@@ -160,44 +460,244 @@ public class Controller {
      *
      * <p>The script has access to all fields annotated with {@link Bind} within the {@link Model}.
      * Additionally, variables created or updated during script execution are stored in {@code scriptVariables}.
+     * The compiled script is kept in the shared {@link ScriptCache}, so running the same text again skips compilation.
+     * A script made only of element-wise loops and series formulas is instead compiled to bytecode by the shared
+     * {@link VectorCompiler}, with the same results.
      *
      * @param script the Groovy script to execute.
      * @return the current {@code Controller} instance for method chaining.
-     * @throws RuntimeException if there is any error while executing the script.
+     * @throws ScriptBudgetExceededException if the script exceeds the {@link #setScriptBudget(ScriptBudget) budget}.
+     * @throws RuntimeException              if there is any error while executing the script.
      */
     public Controller runScript(String script) {
-        // Create a Groovy Binding
+        return runScript(script, ScriptMode.DYNAMIC);
+    }
+
+    /**
+     * Executes a Groovy script provided as a string, compiled in the given mode.
+     *
+     * <p>In {@link ScriptMode#STATIC} the bound fields and the script variables are declared with their real types
+     * ({@code int LL}, {@code double[] EXP}) and the script is compiled with {@code @CompileStatic}, so that numeric
+     * loops run on primitives instead of through dynamic dispatch. Variables the script creates are typed from
+     * their first top-level assignment, e.g. {@code ZDEKS = new double[LL]}.
+     *
+     * @param script the Groovy script to execute.
+     * @param mode   the way the script is compiled.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws ScriptCompilationException if the script cannot be compiled statically.
+     * @throws RuntimeException           if there is any error while executing the script.
+     */
+    public Controller runScript(String script, ScriptMode mode) {
+        Set<String> creates = run(script, null, mode);
+        record(new RecordedScript(script, null, mode, identifiersOf(script), creates));
+        return this;
+    }
+
+    /**
+     * Reads a Groovy script from a file and executes it.
+     *
+     * <p>The compiled script is kept in the shared {@link ScriptCache} until the file is modified.
+     *
+     * @param fname the name of the file containing the Groovy script.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if any error occurs while reading the file or executing the script.
+     */
+    public Controller runScriptFromFile(String fname) {
+        return runScriptFromFile(fname, ScriptMode.DYNAMIC);
+    }
+
+    /**
+     * Reads a Groovy script from a file and executes it, compiled in the given mode.
+     *
+     * @param fname the name of the file containing the Groovy script.
+     * @param mode  the way the script is compiled.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws ScriptCompilationException if the script cannot be compiled statically.
+     * @throws RuntimeException           if any error occurs while reading the file or executing the script.
+     * @see #runScript(String, ScriptMode)
+     */
+    public Controller runScriptFromFile(String fname, ScriptMode mode) {
+        String source = readScript(fname);
+        Set<String> creates = run(source, fname, mode);
+        record(new RecordedScript(null, fname, mode, identifiersOf(source), creates));
+        return this;
+    }
+
+    /**
+     * Records a script for {@link #update()}. A script that was run before is moved to the end instead of being
+     * recorded again, so that a controller running the same scripts over and over keeps a bounded list.
+     */
+    private void record(RecordedScript script) {
+        scripts.removeIf(recorded -> Objects.equals(recorded.source(), script.source())
+                && Objects.equals(recorded.fileName(), script.fileName()) && recorded.mode() == script.mode());
+        scripts.add(script);
+    }
+
+    private static String readScript(String fname) {
+        try {
+            return Files.readString(Path.of(fname));
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading script file: " + fname + ". " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a script, as a {@link VectorScript} if the {@link VectorCompiler} accepts it and in Groovy otherwise.
+     * Only dynamic scripts take the fast path, since a static compilation may reject what the vector compiler accepts.
+     *
+     * @param source the text of the script.
+     * @param fname  the file the script was read from, or {@code null}; Groovy caches file scripts by file.
+     * @param mode   the way the script is compiled by Groovy.
+     * @return the names of the script variables the script assigned.
+     */
+    private Set<String> run(String source, String fname, ScriptMode mode) {
+        Set<String> creates = mode == ScriptMode.DYNAMIC ? runVector(source) : null;
+        if (creates != null)
+            return creates;
+
+        Binding binding = new Binding();
+        Script script = fname == null ? compile(source, mode, binding) : compileFile(fname, mode, binding);
+        return execute(script, binding);
+    }
+
+    /**
+     * Runs a script through the {@link VectorCompiler} on the bound fields and script variables.
+     *
+     * @return the names of the script variables the script created, or {@code null} if the script is not a vector
+     * script or reads a series that is missing or too short, leaving it to Groovy.
+     */
+    private Set<String> runVector(String source) {
+        PhaseTimer timer = PhaseTimer.start(Phase.SCRIPT_COMPILE);
+        VectorScript script = VectorCompiler.shared().compile(source, fieldTypes(), scriptVariables.keySet());
+        if (script == null)
+            return null;
+        timer.stop(modelName, 0, 0, source.length());
+
+        String[] names = script.getSeries();
+        double[][] series = new double[names.length][];
+        for (int slot = 0; slot < names.length; slot++) {
+            BindingPlan.BoundField field = plan.field(names[slot]);
+            series[slot] = field != null ? (double[]) plan.get(model, field) : scriptVariables.get(names[slot]);
+        }
+        String[] scalarNames = script.getScalars();
+        double[] scalars = new double[scalarNames.length];
+        for (int slot = 0; slot < scalarNames.length; slot++)
+            scalars[slot] = (Integer) plan.get(model, plan.field(scalarNames[slot]));
+
+        int LL = years();
+        if (!script.fits(series, LL))
+            return null;
+
+        timer = PhaseTimer.start(Phase.SCRIPT_EXECUTE);
+        script.run(series, scalars, LL);
+
+        Set<String> creates = new HashSet<>();
+        for (int slot : script.getCreates()) {
+            scriptVariables.put(names[slot], series[slot]);
+            creates.add(names[slot]);
+        }
+        timer.stop(modelName, LL, creates.size(), 0);
+        return creates;
+    }
+
+    private Script compile(String source, ScriptMode mode, Binding binding) {
+        PhaseTimer timer = PhaseTimer.start(Phase.SCRIPT_COMPILE);
+        Script script = mode == ScriptMode.STATIC
+                ? ScriptCache.shared().createStatic(source, binding, variableTypes())
+                : ScriptCache.shared().create(source, binding);
+        timer.stop(modelName, 0, 0, source.length());
+        return script;
+    }
+
+    private Script compileFile(String fname, ScriptMode mode, Binding binding) {
+        try {
+            PhaseTimer timer = PhaseTimer.start(Phase.SCRIPT_COMPILE);
+            Script script = mode == ScriptMode.STATIC
+                    ? ScriptCache.shared().createStaticFromFile(fname, binding, variableTypes())
+                    : ScriptCache.shared().createFromFile(fname, binding);
+            if (timer.isActive())
+                timer.stop(modelName, 0, 0, Files.size(Path.of(fname)));
+            return script;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading script file: " + fname + ". " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of years of the loaded data, or 0 if the model has no {@code LL} field.
+     */
+    private int years() {
+        BindingPlan.BoundField field = plan.field("LL");
+        return field == null ? 0 : (Integer) plan.get(model, field);
+    }
+
+    /**
+     * Returns the types of all variables a script is given: the bound fields and the script variables.
+     */
+    private Map<String, Class<?>> variableTypes() {
+        Map<String, Class<?>> types = fieldTypes();
+        for (String name : scriptVariables.keySet())
+            types.put(name, double[].class);
+        return types;
+    }
+
+    /**
+     * Returns the names and types of the fields annotated with {@link Bind}.
+     */
+    private Map<String, Class<?>> fieldTypes() {
+        Map<String, Class<?>> types = new HashMap<>();
+        for (BindingPlan.BoundField field : plan.fields()) {
+            types.put(field.name(), switch (field.kind()) {
+                case INT -> int.class;
+                case INT_ARRAY -> int[].class;
+                case DOUBLE_ARRAY -> double[].class;
+                case SERIES -> Series.class;
+            });
+        }
+        return types;
+    }
+
+    private static Set<String> identifiersOf(String source) {
+        Set<String> identifiers = new HashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(source);
+        while (matcher.find())
+            identifiers.add(matcher.group());
+        return identifiers;
+    }
 
-        // The `Binding` object is used in the GroovyShell class
+    /**
+     * Binds the model and script variables to {@code binding}, runs the script and collects the variables it created.
+     *
+     * @param script  the compiled script instance, already attached to {@code binding}.
+     * @param binding the binding of the script.
+     * @return the names of the script variables the script assigned.
+     */
+    private Set<String> execute(Script script, Binding binding) {
+        // The `Binding` object is used by the script
         // to pass variables and their values into the Groovy script context.
         // It is a container of named variables that are accessible
         // within the script.
-        Binding binding = new Binding();
 
         // Bind all fields annotated with @Bind to the Groovy script
-        Field[] fields = model.getClass().getDeclaredFields();
-        ArrayList<String> bindedFieldNames = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Bind.class)) {
-                field.setAccessible(true);
-                try {
-                    binding.setVariable(field.getName(), field.get(model));
-                    bindedFieldNames.add(field.getName());
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        }
+        plan.bindTo(model, binding);
 
         // Bind fields created in scripts
         for (Map.Entry<String, double[]> entry : scriptVariables.entrySet()) {
             binding.setVariable(entry.getKey(), entry.getValue());
         }
 
-        // Create and run the Groovy script
-        GroovyShell shell = new GroovyShell(binding);
-        shell.evaluate(script);
+        // Run the Groovy script
+        PhaseTimer timer = PhaseTimer.start(Phase.SCRIPT_EXECUTE);
+        ScriptGuard guard = ScriptGuard.start(scriptBudget);
+        try {
+            script.run();
+        } catch (Throwable e) {
+            throw guard.failure(e);
+        } finally {
+            guard.close();
+        }
 
+        Set<String> creates = new HashSet<>();
         //Variables created or modified in the script are retrieved from `binding`.
         for (var obj : binding.getVariables().entrySet()) {
             Map.Entry<String, Object> entry = (Map.Entry<String, Object>) obj;
@@ -207,34 +707,17 @@ public class Controller {
             if (entry.getKey().length() < 2 && entry.getKey().matches("[a-z]"))
                 continue;
 
-            if (bindedFieldNames.contains(entry.getKey()))
+            if (plan.isBound(entry.getKey()))
                 continue;
                                                 //*here
-            scriptVariables.put(entry.getKey(), (double[]) entry.getValue());
+            double[] previous = scriptVariables.put(entry.getKey(), (double[]) entry.getValue());
+            if (previous != entry.getValue())
+                creates.add(entry.getKey());
         }
 
-        return this;
-    }
-
-    /**
-     * Reads a Groovy script from a file and executes it.
-     *
-     * @param fname the name of the file containing the Groovy script.
-     * @return the current {@code Controller} instance for method chaining.
-     * @throws RuntimeException if any error occurs while reading the file or executing the script.
-     */
-    public Controller runScriptFromFile(String fname) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(fname))) {
-            StringBuilder scriptBuilder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                scriptBuilder.append(line).append(System.lineSeparator());
-            }
-            //executes the script code specified as a string
-            return this.runScript(scriptBuilder.toString());
-        } catch (Exception e) {
-            throw new RuntimeException("Error reading script file: " + fname + ". " + e.getMessage());
-        }
+        if (timer.isActive())
+            timer.stop(modelName, years(), creates.size(), 0);
+        return creates;
     }
 
     /**
@@ -247,70 +730,279 @@ public class Controller {
      * VAR1    1.0   2.0   3.0
      * VAR2    4.0   5.0   6.0
      * </pre>
+     * Large results are better streamed with {@link #writeResults(Writer, ResultFormat)}.
      *
      * @return the results in tab-separated values (TSV) format.
      * @throws RuntimeException if there is any error while formatting the results.
      */
     public String getResultsAsTsv() {
-        StringBuilder sb = new StringBuilder();
+        StringWriter out = new StringWriter();
+        writeResults(out, ResultFormat.TSV);
+        return out.toString();
+    }
+
+    /**
+     * Returns a view of the results of the {@link Model} and variables created during script execution.
+     *
+     * <p>The view lists the same rows as {@link #getResultsAsTsv()} but refers to the result arrays directly and
+     * formats values only on request.
+     *
+     * @return the current results.
+     */
+    public Results getResults() {
+        Results results = new Results();
+        plan.exportTo(model, results);
+
+        // Form rows from scriptVariables
+        for (Map.Entry<String, double[]> entry : scriptVariables.entrySet())
+            results.addRow(entry.getKey(), entry.getValue(), true);
+
+        return results;
+    }
 
+    /**
+     * Streams the results of the {@link Model} and variables created during script execution to a writer.
+     *
+     * <p>The rows are the same as in {@link #getResultsAsTsv()}: every array field annotated with {@link Bind} in
+     * declaration order, followed by the script variables. The writer is flushed but not closed.
+     *
+     * @param out    the target of the rows.
+     * @param format the number format of the values.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if writing fails.
+     */
+    public Controller writeResults(Writer out, ResultFormat format) {
         try {
-            for (Field field : model.getClass().getDeclaredFields()) {
-
-                if (field.isAnnotationPresent(Bind.class)) {
-
-                    if (field.getType().isArray()) {
-                        field.setAccessible(true);
-
-                        String fieldName = field.getName();
-
-                        if (field.getType().getComponentType() == double.class) {
-                            double[] values = (double[]) field.get(model);
-                            sb.append(fieldName).append("\t");
-                            for (double value : values) {
-                                //FORMATING VALUES
-
-                                //String formatted = String.format("%.2f", value);
-                                //formatted = formatted.replace(",", ".");
-
-                                DecimalFormat formatter = new DecimalFormat("#,###.##");
-                                String formatted = formatter.format(value);
-                                sb.append(formatted).append("\t");
-                            }
-                        } else if (field.getType().getComponentType() == int.class) {
-                            int[] intValues = (int[]) field.get(model);
-                            sb.append(fieldName).append("\t");
-                            for (int value : intValues) {
-                                sb.append(value).append("\t");
-                            }
-                        }
-
-                        sb.append("\n");
-                    }
-                }
-            }
+            PhaseTimer timer = PhaseTimer.start(Phase.EXPORT);
+            CountingWriter counter = timer.isActive() ? new CountingWriter(out) : null;
+            ResultWriter writer = new ResultWriter(counter != null ? counter : out, format);
+            Results results = getResults();
+            results.writeTo(writer);
+            writer.flush();
+            if (counter != null)
+                timer.stop(modelName, years(), results.getRowCount(), counter.getCount());
+        } catch (Exception e) {
+            throw new RuntimeException("Error writing results: " + e.getMessage());
+        }
+        return this;
+    }
 
-            // Form TSV from scriptVariables
-            for (Map.Entry<String, double[]> entry : scriptVariables.entrySet()) {
-                sb.append(entry.getKey()).append("\t");
-                for (double value : entry.getValue()) {
+    /**
+     * Streams the results to an output stream as UTF-8 text. The stream is flushed but not closed.
+     *
+     * @param out    the target of the rows.
+     * @param format the number format of the values.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if writing fails.
+     * @see #writeResults(Writer, ResultFormat)
+     */
+    public Controller writeResults(OutputStream out, ResultFormat format) {
+        return writeResults(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), format);
+    }
+
+    /**
+     * Streams the results to a channel as UTF-8 text. The channel is not closed.
+     *
+     * @param out    the target of the rows.
+     * @param format the number format of the values.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if writing fails.
+     * @see #writeResults(Writer, ResultFormat)
+     */
+    public Controller writeResults(WritableByteChannel out, ResultFormat format) {
+        return writeResults(new BufferedWriter(Channels.newWriter(out, StandardCharsets.UTF_8)), format);
+    }
 
-                    DecimalFormat formatter = new DecimalFormat("#,###.##");
-                    String formatted =  formatter.format(value).replace(",", ".");
+    /**
+     * Returns the current values of a variable, either a {@code double[]} or {@link Series} field annotated with
+     * {@link Bind} or a variable created by a script.
+     *
+     * @param name the name of the variable.
+     * @return the values of the variable; the returned array is not a copy, except for a {@code Series} field.
+     * @throws NoFieldException if there is no such variable.
+     */
+    public double[] getVariable(String name) {
+        BindingPlan.BoundField field = plan.field(name);
+        if (field != null && field.kind() == BindingPlan.Kind.DOUBLE_ARRAY)
+            return (double[]) plan.get(model, field);
+        if (field != null && field.kind() == BindingPlan.Kind.SERIES)
+            return ((Series) plan.get(model, field)).toArray();
+
+        double[] values = scriptVariables.get(name);
+        if (values == null)
+            throw new NoFieldException("Variable '" + name + "' is not present in the model or scripts.");
+        return values;
+    }
 
-                    sb.append(formatted).append("\t");
-                }
-                sb.append("\n");
-            }
+    /**
+     * Replaces the values of a {@code double[]} or {@link Series} field annotated with {@link Bind}.
+     *
+     * <p>The change is recorded from the first year in which the new values differ from the current ones, for the
+     * next {@link #update()}. Passing the current array itself counts as a change of every year.
+     *
+     * @param name   the name of the field.
+     * @param values the new values; the array is used as is, not copied.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws NoFieldException if the model has no bound {@code double[]} or {@code Series} field with this name.
+     */
+    public Controller setVariable(String name, double[] values) {
+        BindingPlan.BoundField field = boundArray(name);
+        boolean series = field.kind() == BindingPlan.Kind.SERIES;
+        Object value = plan.get(model, field);
+        double[] current = series && value != null ? ((Series) value).toArray() : (double[]) value;
+
+        int from;
+        if (current == values || current == null || values == null || current.length != values.length)
+            from = 0;
+        else
+            from = Arrays.mismatch(current, values);
+
+        plan.set(model, field, series && values != null ? Series.of(values) : values);
+        if (from >= 0)
+            recordChange(name, from);
+        return this;
+    }
+
+    /**
+     * Overwrites the values of a {@code double[]} or {@link Series} field annotated with {@link Bind} from a given
+     * year onwards, and records the change for the next {@link #update()}.
+     *
+     * @param name   the name of the field.
+     * @param from   the index of the first year to overwrite.
+     * @param values the new values, copied into the field starting at {@code from}.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws NoFieldException          if the model has no bound {@code double[]} or {@code Series} field with
+     *                                   this name.
+     * @throws IndexOutOfBoundsException if the values do not fit into the field.
+     */
+    public Controller setValues(String name, int from, double[] values) {
+        BindingPlan.BoundField field = boundArray(name);
+        if (plan.get(model, field) instanceof Series series) {
+            Objects.checkFromIndexSize(from, values.length, series.length());
+            for (int i = 0; i < values.length; i++)
+                series.set(from + i, values[i]);
+        } else {
+            System.arraycopy(values, 0, (double[]) plan.get(model, field), from, values.length);
+        }
+        recordChange(name, from);
+        return this;
+    }
+
+    private BindingPlan.BoundField boundArray(String name) {
+        BindingPlan.BoundField field = plan.field(name);
+        if (field == null || !field.kind().isSeries())
+            throw new NoFieldException("Field '" + name + "' is not a bound double[] or Series field of the model.");
+        return field;
+    }
+
+    private void recordChange(String name, int from) {
+        changes.merge(name, from, Math::min);
+    }
 
+    /**
+     * Saves the complete state of this controller, i.e. every field annotated with {@link Bind} and every script
+     * variable, to a binary checkpoint file.
+     *
+     * @param fname the name of the checkpoint file; an existing file is replaced.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if the file cannot be written.
+     */
+    public Controller saveCheckpoint(String fname) {
+        try {
+            Checkpoint.write(Path.of(fname), modelName, model, plan, scriptVariables);
         } catch (Exception e) {
-            throw new RuntimeException("Error formatting TSV: " + e.getMessage());
+            throw new RuntimeException("Error writing checkpoint: " + fname + ". " + e.getMessage());
         }
+        return this;
+    }
+
+    /**
+     * Restores the state saved by {@link #saveCheckpoint(String)}, replacing the model fields and script variables.
+     *
+     * @param fname the name of the checkpoint file.
+     * @return the current {@code Controller} instance for method chaining.
+     * @throws RuntimeException if the file cannot be read or was saved for a different model.
+     */
+    public Controller restoreCheckpoint(String fname) {
+        Checkpoint checkpoint = readCheckpoint(fname);
+        if (!checkpoint.getModelName().equals(modelName))
+            throw new RuntimeException("Checkpoint " + fname + " belongs to model " + checkpoint.getModelName()
+                    + ", not " + modelName);
+
+        restore(checkpoint);
+        return this;
+    }
 
-        return sb.toString();
+    /**
+     * Replaces the model fields and script variables with the state of a checkpoint, using its arrays, and forgets
+     * the recorded scripts.
+     */
+    private void restore(Checkpoint checkpoint) {
+        for (Map.Entry<String, Object> entry : checkpoint.getFields().entrySet()) {
+            BindingPlan.BoundField field = plan.field(entry.getKey());
+            if (field == null)
+                continue;
+
+            Object value = entry.getValue();
+            if (field.kind() == BindingPlan.Kind.SERIES && value instanceof double[] values)
+                value = Series.of(values);
+            plan.set(model, field, value);
+        }
+        scriptVariables = checkpoint.getScriptVariables();
+        scripts = new ArrayList<>();
+        changes.clear();
+        upToDate = false;
+    }
+
+    /**
+     * Creates a controller for the model a checkpoint was saved from and restores its state.
+     *
+     * @param fname the name of the checkpoint file.
+     * @return a new {@code Controller} in the saved state.
+     * @throws RuntimeException if the file cannot be read or its model cannot be created.
+     */
+    public static Controller fromCheckpoint(String fname) {
+        return new Controller(readCheckpoint(fname).getModelName()).restoreCheckpoint(fname);
     }
 
+    private static Checkpoint readCheckpoint(String fname) {
+        try {
+            return Checkpoint.read(Path.of(fname));
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading checkpoint: " + fname + ". " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the limits every Groovy script run by this controller must stay within, from the next script on. Each
+     * script gets the whole budget. A script that runs longer or allocates more than allowed is stopped and fails with
+     * a {@link ScriptBudgetExceededException}; the fields and variables it modified keep the values it left. Scripts
+     * taking the {@link VectorCompiler} fast path are not limited, since they only loop over the years and allocate
+     * one series per variable they create.
+     *
+     * @param scriptBudget the limits, or {@link ScriptBudget#UNLIMITED}.
+     * @return the current {@code Controller} instance for method chaining.
+     */
+    public Controller setScriptBudget(ScriptBudget scriptBudget) {
+        this.scriptBudget = scriptBudget;
+        return this;
+    }
+
+    /**
+     * Returns the limits of the Groovy scripts run by this controller.
+     *
+     * @return the script budget.
+     */
+    public ScriptBudget getScriptBudget() {
+        return scriptBudget;
+    }
+
+    /**
+     * Removes all script variables and forgets the scripts that created them, so that {@link #update()} no longer
+     * re-runs them.
+     */
     public void resetScriptVariables() {
         scriptVariables = new HashMap<>();
+        scripts = new ArrayList<>();
     }
 }
@@ -0,0 +1,328 @@
+package domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code DataCache} class keeps parsed data files, so that running models on the same file again skips reading
+ * and parsing it.
+ *
+ * <p>Entries are keyed by the absolute path of the file, its size and its last-modified time; a file whose size or
+ * time has changed is parsed again and replaces its old entry. The cache is bounded by the estimated size of the
+ * parsed values and evicts the least recently used entry. It is thread-safe: a file requested by several threads at
+ * once is parsed by one of them while the others wait for its result.
+ *
+ * <p>The cached {@link ParsedData} is shared by every caller and must not be modified. Loading it into a model copies
+ * the rows, see {@link Controller#readData(ParsedData)}. Besides the parsed data, every entry holds the SHA-256
+ * hash of the file, which {@link Controller#runPipeline(String, String...)} uses for its {@link ResultCache} key.
+ *
+ * <p>{@link #preload(Collection)} parses a set of files in parallel in the background, e.g. all data files listed
+ * in the user interface, so that the first run on each of them finds it parsed.
+ */
+public class DataCache {
+    /**
+     * The default memory budget of {@link #shared()}, in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    /**
+     * The cache shared by all {@link Controller} instances.
+     */
+    private static final DataCache SHARED = new DataCache(DEFAULT_MAX_BYTES);
+
+    /**
+     * Identifies a data file in a particular version.
+     */
+    record FileKey(Path path, long size, FileTime lastModified) { }
+
+    /**
+     * A parsed data file.
+     *
+     * @param key    the file and version the data was read from.
+     * @param data   the parsed content; must not be modified.
+     * @param sha256 the SHA-256 hash of the file content; must not be modified.
+     * @param bytes  the estimated memory held by the parsed values.
+     */
+    record Entry(FileKey key, ParsedData data, byte[] sha256, long bytes) { }
+
+    /**
+     * The memory budget in bytes.
+     */
+    private final long maxBytes;
+
+    /**
+     * Parsed files in access order, keyed by absolute path.
+     */
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Files being parsed right now, completed with their entry by the thread parsing them.
+     */
+    private final Map<FileKey, CompletableFuture<Entry>> loading = new HashMap<>();
+
+    /**
+     * The estimated size of all cached entries.
+     */
+    private long bytes;
+
+    /**
+     * Number of lookups served from the cache, including those that waited for another thread to parse the file.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of lookups that parsed the file.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs an empty {@code DataCache}.
+     *
+     * @param maxBytes the memory budget in bytes; a single larger file is parsed but not kept.
+     * @throws IllegalArgumentException if {@code maxBytes} is negative.
+     */
+    public DataCache(long maxBytes) {
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative: " + maxBytes);
+
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache shared by all controllers.
+     *
+     * @return the shared {@code DataCache}.
+     */
+    public static DataCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the parsed content of a data file, parsing it unless the cache holds the current version.
+     *
+     * @param path the path of the data file.
+     * @return the parsed content, shared with other callers; it must not be modified.
+     * @throws IOException           if the file cannot be read.
+     * @throws NumberFormatException if a value is not a valid number.
+     */
+    public ParsedData get(Path path) throws IOException {
+        return load(path).data();
+    }
+
+    /**
+     * Returns the entry of a data file, parsing the file unless the cache holds its current version.
+     *
+     * @param path the path of the data file.
+     * @return the entry of the file.
+     * @throws IOException           if the file cannot be read.
+     * @throws NumberFormatException if a value is not a valid number.
+     */
+    Entry load(Path path) throws IOException {
+        Path file = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        FileKey key = new FileKey(file, attributes.size(), attributes.lastModifiedTime());
+
+        CompletableFuture<Entry> pending;
+        boolean parsing = false;
+        synchronized (this) {
+            Entry entry = entries.get(file);
+            if (entry != null && entry.key().equals(key)) {
+                hits.incrementAndGet();
+                return entry;
+            }
+            pending = loading.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                loading.put(key, pending);
+                parsing = true;
+            }
+        }
+
+        if (!parsing) {
+            hits.incrementAndGet();
+            return await(pending);
+        }
+
+        misses.incrementAndGet();
+        try {
+            Entry entry = parse(key);
+            put(entry);
+            pending.complete(entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                loading.remove(key);
+            }
+        }
+    }
+
+    private static Entry parse(FileKey key) throws IOException {
+        // large files are mapped, not copied; parsing leaves the position for the digest to read the same buffer
+        ByteBuffer content = DataFileParser.read(key.path());
+        ParsedData data = DataFileParser.parse(content);
+        MessageDigest digest = sha256();
+        digest.update(content);
+
+        long bytes = data.getLL() * (long) Integer.BYTES;
+        for (double[] row : data.getRows().values())
+            bytes += (long) row.length * Double.BYTES + 64;
+        return new Entry(key, data, digest.digest(), bytes);
+    }
+
+    private static Entry await(CompletableFuture<Entry> pending) throws IOException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause)
+                throw new IOException(cause.getMessage(), cause);
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry previous = entries.remove(entry.key().path());
+        if (previous != null)
+            bytes -= previous.bytes();
+        if (entry.bytes() > maxBytes)
+            return;
+
+        entries.put(entry.key().path(), entry);
+        bytes += entry.bytes();
+
+        var eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Parses data files in the background, in parallel on the common fork-join pool, and keeps them in the cache.
+     *
+     * @param paths the data files.
+     * @return a future completed when every file has been parsed or has failed; a file that fails is skipped, since
+     * it is reported when a run reads it.
+     * @see #preload(Collection, Executor)
+     */
+    public CompletableFuture<Void> preload(Collection<Path> paths) {
+        return preload(paths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses data files in the background, in parallel on the given executor, and keeps them in the cache.
+     *
+     * @param paths    the data files.
+     * @param executor the executor parsing the files, one task per file.
+     * @return a future completed when every file has been parsed or has failed; a file that fails is skipped, since
+     * it is reported when a run reads it.
+     */
+    public CompletableFuture<Void> preload(Collection<Path> paths, Executor executor) {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    load(path);
+                } catch (IOException | RuntimeException e) {
+                    // a file that cannot be parsed now is reported by the run that reads it
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Removes the entry of a data file, e.g. after it was changed or deleted.
+     *
+     * @param path the path of the data file.
+     */
+    public synchronized void invalidate(Path path) {
+        Entry entry = entries.remove(path.toAbsolutePath().normalize());
+        if (entry != null)
+            bytes -= entry.bytes();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that parsed the file.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of parsed files held.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory held by the entries.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes every entry. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns a one-line summary of the counters, e.g. for printing after a batch.
+     *
+     * @return the summary, terminated by a line separator.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "data cache: %d hits, %d misses, %d entries, %.1f MiB%n", getHits(),
+                getMisses(), size(), getBytes() / 1048576.0);
+    }
+}
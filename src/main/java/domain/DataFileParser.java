@@ -0,0 +1,320 @@
+package domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code DataFileParser} class reads model data files into {@link ParsedData}.
+ *
+ * <p>The parser works directly on the bytes of the file. Small files are read into memory, larger ones are
+ * memory-mapped. Numbers are parsed in place from the buffer, without splitting lines into {@code String}
+ * tokens; only variable names become strings. The accepted format is the one {@link Controller#readDataFrom}
+ * has always read:
+ * <pre>
+ * YEARS  2020 2021 2022
+ * VAR1   1.0  2.0  3.0
+ * VAR2   4.0
+ * </pre>
+ * A line whose first token starts with {@code YEARS} is the header; every other non-empty line is a variable
+ * name followed by its values. Tokens are separated by any whitespace. Names of the form {@code VAR@REGION}
+ * hold panel data, see {@link ParsedData#getRegions()}.
+ */
+public class DataFileParser {
+    /**
+     * Files larger than this many bytes are memory-mapped instead of read into a heap buffer.
+     */
+    private static final long MAPPING_THRESHOLD = 1 << 20;
+
+    /**
+     * The largest mantissa that is exactly representable as a {@code double}.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Powers of ten that are exactly representable as a {@code double}.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The buffer being parsed.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The end of the content in {@link #buffer}.
+     */
+    private final int limit;
+
+    /**
+     * The current read position in {@link #buffer}.
+     */
+    private int pos;
+
+    /**
+     * Values of the row being parsed; reused for every row.
+     */
+    private double[] rowValues = new double[16];
+
+    private DataFileParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.pos = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Parses the data file at the given path.
+     *
+     * @param path the path of the data file.
+     * @return the parsed content of the file.
+     * @throws IOException           if the file cannot be read.
+     * @throws NumberFormatException if a value is not a valid number.
+     */
+    public static ParsedData parse(Path path) throws IOException {
+        return parse(read(path));
+    }
+
+    /**
+     * Reads the content of a file into a buffer, memory-mapping it if it is larger than {@link #MAPPING_THRESHOLD}.
+     *
+     * @param path the path of the file.
+     * @return the content, from position 0 to the limit.
+     * @throws IOException if the file cannot be read.
+     */
+    static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAPPING_THRESHOLD)
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    /**
+     * Parses data file content held in a buffer, from its position to its limit. The buffer's position is not changed.
+     *
+     * @param buffer the content of a data file.
+     * @return the parsed content.
+     * @throws NumberFormatException if a value is not a valid number.
+     */
+    public static ParsedData parse(ByteBuffer buffer) {
+        return new DataFileParser(buffer).parse();
+    }
+
+    private ParsedData parse() {
+        Map<String, double[]> rows = new LinkedHashMap<>();
+        int[] years = null;
+
+        while (skipToToken()) {
+            String name = readName();
+
+            if (name.startsWith("YEARS")) {
+                years = readYears();
+            } else {
+                rows.put(name, readValues());
+            }
+        }
+        return new ParsedData(years, rows);
+    }
+
+    /**
+     * Skips blank lines and leading whitespace.
+     *
+     * @return {@code false} if the end of the buffer was reached.
+     */
+    private boolean skipToToken() {
+        while (pos < limit && isWhitespace(buffer.get(pos)))
+            pos++;
+        return pos < limit;
+    }
+
+    /**
+     * Skips whitespace within the current line.
+     *
+     * @return {@code false} if the end of the line or of the buffer was reached.
+     */
+    private boolean skipToTokenInLine() {
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == '\n' || b == '\r')
+                return false;
+            if (!isWhitespace(b))
+                return true;
+            pos++;
+        }
+        return false;
+    }
+
+    private String readName() {
+        int start = pos;
+        int end = tokenEnd();
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        pos = end;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int[] readYears() {
+        int count = readRow(true);
+        int[] years = new int[count];
+        for (int i = 0; i < count; i++)
+            years[i] = (int) rowValues[i];
+        return years;
+    }
+
+    private double[] readValues() {
+        return Arrays.copyOf(rowValues, readRow(false));
+    }
+
+    /**
+     * Reads the values of the current line into {@link #rowValues}.
+     *
+     * @param integers whether the values must be integers, as in the header row.
+     * @return the number of values read.
+     */
+    private int readRow(boolean integers) {
+        int count = 0;
+        while (skipToTokenInLine()) {
+            int end = tokenEnd();
+            if (count == rowValues.length)
+                rowValues = Arrays.copyOf(rowValues, count * 2);
+            rowValues[count++] = integers ? parseInt(pos, end) : parseDouble(pos, end);
+            pos = end;
+        }
+        return count;
+    }
+
+    private int tokenEnd() {
+        int end = pos;
+        while (end < limit && !isWhitespace(buffer.get(end)))
+            end++;
+        return end;
+    }
+
+    /**
+     * Parses an {@code int} token, delegating to {@link Integer#parseInt} for anything but plain decimal digits.
+     */
+    private int parseInt(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+            negative = buffer.get(i++) == '-';
+
+        long value = 0;
+        int digits = 0;
+        for (; i < end; i++, digits++) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9 || digits >= 10)
+                return Integer.parseInt(token(start, end));
+            value = value * 10 + d;
+        }
+        if (digits == 0)
+            return Integer.parseInt(token(start, end));
+
+        value = negative ? -value : value;
+        if (value != (int) value)
+            return Integer.parseInt(token(start, end));
+        return (int) value;
+    }
+
+    /**
+     * Parses a {@code double} token.
+     *
+     * <p>Decimal numbers whose digits fit in 53 bits and whose exponent is small are converted exactly with a single
+     * multiplication or division by a power of ten. Anything else, including {@code NaN}, {@code Infinity} and
+     * hexadecimal notation, is passed to {@link Double#parseDouble}, so the result is always identical to it.
+     */
+    private double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+            negative = buffer.get(i++) == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean any = false;
+
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (mantissa == 0 && b == '0') {
+                    if (fraction)
+                        scale--;
+                    continue;
+                }
+                if (++digits > 18)
+                    return Double.parseDouble(token(start, end));
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction)
+                    scale--;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!any)
+            return Double.parseDouble(token(start, end));
+
+        if (i < end) {
+            byte b = buffer.get(i);
+            if (b != 'e' && b != 'E')
+                return Double.parseDouble(token(start, end));
+            i++;
+
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+                negativeExponent = buffer.get(i++) == '-';
+
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; i < end; i++, exponentDigits++) {
+                int d = buffer.get(i) - '0';
+                if (d < 0 || d > 9 || exponentDigits >= 4)
+                    return Double.parseDouble(token(start, end));
+                exponent = exponent * 10 + d;
+            }
+            if (exponentDigits == 0)
+                return Double.parseDouble(token(start, end));
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        if (mantissa > MAX_EXACT_MANTISSA || scale < -22 || scale > 22) {
+            if (mantissa != 0)
+                return Double.parseDouble(token(start, end));
+            scale = 0;
+        }
+
+        double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Copies a token out of the buffer; used only on the slow paths.
+     */
+    private String token(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Matches the characters of the {@code \s} regular expression class.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
@@ -0,0 +1,118 @@
+package domain;
+
+import data.Model;
+import data.ModelBinder;
+import data.ModelProvider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+
+/**
+ * The {@code ModelRegistry} class lists the available models and creates their instances from the model index
+ * generated at build time, see {@link data.processors.ModelIndexProcessor}.
+ *
+ * <p>The index is loaded through {@link ServiceLoader} once, when the registry is first used; afterwards listing
+ * and creating models are map lookups and constructor calls, and work the same from a directory or a jar. A model
+ * compiled without the processor, and therefore missing from the index, is still found by its class name in
+ * {@code data.models}.
+ */
+public final class ModelRegistry {
+    /**
+     * The indexed models by name, sorted by name.
+     */
+    private static final Map<String, ModelProvider> PROVIDERS = load();
+
+    /**
+     * The generated binders of the indexed models by model class.
+     */
+    private static final Map<Class<?>, ModelBinder> BINDERS = bindersOf(PROVIDERS);
+
+    private ModelRegistry() { }
+
+    private static Map<String, ModelProvider> load() {
+        Map<String, ModelProvider> providers = new TreeMap<>();
+        for (ModelProvider provider : ServiceLoader.load(ModelProvider.class, ModelRegistry.class.getClassLoader()))
+            providers.put(provider.name(), provider);
+        return Collections.unmodifiableMap(providers);
+    }
+
+    private static Map<Class<?>, ModelBinder> bindersOf(Map<String, ModelProvider> providers) {
+        Map<Class<?>, ModelBinder> binders = new HashMap<>();
+        for (ModelProvider provider : providers.values()) {
+            ModelBinder binder = provider.binder();
+            if (binder != null)
+                binders.put(provider.type(), binder);
+        }
+        return Collections.unmodifiableMap(binders);
+    }
+
+    /**
+     * Returns the names of all indexed models, sorted.
+     *
+     * @return the model names.
+     */
+    public static String[] getModelNames() {
+        return PROVIDERS.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Returns the provider of an indexed model.
+     *
+     * @param name the model name.
+     * @return the provider, or {@code null} if the model is not indexed.
+     */
+    public static ModelProvider getProvider(String name) {
+        return PROVIDERS.get(name);
+    }
+
+    /**
+     * Returns the binder generated for a model class.
+     *
+     * @param type the model class.
+     * @return the binder, or {@code null} if the class is not indexed or has private bound fields.
+     */
+    public static ModelBinder getBinder(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Returns the class of a model without creating an instance, e.g. to inspect its bound fields.
+     *
+     * @param name the model name.
+     * @return the model class.
+     * @throws RuntimeException if there is no such model.
+     */
+    public static Class<? extends Model> getModelClass(String name) {
+        ModelProvider provider = PROVIDERS.get(name);
+        if (provider != null)
+            return provider.type();
+
+        try {
+            return Class.forName("data.models." + name).asSubclass(Model.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new RuntimeException("Unknown model: " + name);
+        }
+    }
+
+    /**
+     * Creates a new instance of a model.
+     *
+     * @param name the model name.
+     * @return the new model.
+     * @throws RuntimeException if there is no such model or it cannot be created.
+     */
+    public static Model create(String name) {
+        ModelProvider provider = PROVIDERS.get(name);
+        if (provider != null)
+            return provider.create();
+
+        try {
+            return (Model) Class.forName("data.models." + name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new RuntimeException("Unknown model: " + name);
+        }
+    }
+}
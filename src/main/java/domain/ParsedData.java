@@ -0,0 +1,136 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code ParsedData} class holds the content of a model data file: the years from the {@code YEARS} header
+ * and the rows of values by variable name, in the order they appear in the file.
+ *
+ * <p>Rows are stored exactly as read; rows shorter than the number of years are extended only when they are
+ * assigned to a model.
+ *
+ * <p>A file may hold panel data for several regions. A row named {@code VAR@REGION} holds the values of {@code VAR}
+ * in {@code REGION}; a row named just {@code VAR} applies to every region that has no row of its own:
+ * <pre>
+ * YEARS      2020 2021 2022
+ * grPRC      1.02
+ * PRC@north  100
+ * PRC@south  80
+ * </pre>
+ */
+public class ParsedData {
+    /**
+     * Separates the variable name from the region in the name of a regional row.
+     */
+    public static final char REGION_SEPARATOR = '@';
+
+    /**
+     * The years from the header row, or {@code null} if the file has no header.
+     */
+    private final int[] years;
+
+    /**
+     * The rows of values by variable name.
+     */
+    private final Map<String, double[]> rows;
+
+    /**
+     * The regions named by regional rows, in order of first appearance.
+     */
+    private final List<String> regions;
+
+    /**
+     * Constructs a {@code ParsedData} instance.
+     *
+     * @param years the years from the header row, or {@code null} if there is no header.
+     * @param rows  the rows of values by variable name.
+     */
+    public ParsedData(int[] years, Map<String, double[]> rows) {
+        this.years = years;
+        this.rows = Collections.unmodifiableMap(new LinkedHashMap<>(rows));
+
+        Set<String> regions = new LinkedHashSet<>();
+        for (String name : rows.keySet()) {
+            int separator = name.indexOf(REGION_SEPARATOR);
+            if (separator >= 0)
+                regions.add(name.substring(separator + 1));
+        }
+        this.regions = List.copyOf(regions);
+    }
+
+    /**
+     * Returns the number of years, i.e. the number of values in the header row.
+     *
+     * @return the number of years, or 0 if there is no header.
+     */
+    public int getLL() {
+        return years == null ? 0 : years.length;
+    }
+
+    /**
+     * Returns the years from the header row.
+     *
+     * @return the years, or {@code null} if there is no header.
+     */
+    public int[] getYears() {
+        return years;
+    }
+
+    /**
+     * Returns the row of the given variable.
+     *
+     * @param name the name of the variable.
+     * @return the values read for the variable, or {@code null} if the file has no such row.
+     */
+    public double[] getRow(String name) {
+        return rows.get(name);
+    }
+
+    /**
+     * Returns all rows by variable name.
+     *
+     * @return an unmodifiable map of rows in file order.
+     */
+    public Map<String, double[]> getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the regions of panel data.
+     *
+     * @return the regions named by {@code VAR@REGION} rows in order of first appearance; empty if the file holds
+     * data of a single region.
+     */
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the data of one region: the rows without a region, replaced by the rows of the region under their
+     * plain variable names. Rows of other regions are left out. No values are copied.
+     *
+     * @param region the name of the region.
+     * @return the data of the region.
+     */
+    public ParsedData forRegion(String region) {
+        Map<String, double[]> regionRows = new LinkedHashMap<>();
+        List<String> regional = new ArrayList<>();
+        for (Map.Entry<String, double[]> row : rows.entrySet()) {
+            String name = row.getKey();
+            int separator = name.indexOf(REGION_SEPARATOR);
+            if (separator < 0)
+                regionRows.put(name, row.getValue());
+            else if (name.substring(separator + 1).equals(region))
+                regional.add(name);
+        }
+        for (String name : regional)
+            regionRows.put(name.substring(0, name.indexOf(REGION_SEPARATOR)), rows.get(name));
+        return new ParsedData(years, regionRows);
+    }
+}
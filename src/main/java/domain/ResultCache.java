@@ -0,0 +1,275 @@
+package domain;
+
+import data.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ResultCache} class keeps the results of complete pipeline runs, a model run on a data file followed by
+ * scripts, so that repeating an identical run skips parsing, the model run and the scripts entirely.
+ *
+ * <p>Entries are keyed by a content hash computed by {@link Controller#runPipeline(String, String...)} over the model
+ * class, the data file bytes and the ordered script texts, so an edited file or model produces a new key. The memory
+ * tier is bounded by the estimated size of the cached values and evicts the least recently used entry. If a
+ * directory is set, every entry is also written there as a checkpoint file named after its key, so that later
+ * processes find it too; a file that is found is loaded into memory.
+ *
+ * <p>The shared cache writes to the directory given by the {@code modelsim.resultCache} system property, if any.
+ */
+public class ResultCache {
+    /**
+     * The default memory budget of {@link #shared()}, in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    /**
+     * The system property naming the directory of the shared cache.
+     */
+    public static final String DIRECTORY_PROPERTY = "modelsim.resultCache";
+
+    /**
+     * The extension of cache files.
+     */
+    private static final String EXTENSION = ".mshc";
+
+    /**
+     * The cache shared by all {@link Controller} instances.
+     */
+    private static final ResultCache SHARED = new ResultCache(DEFAULT_MAX_BYTES)
+            .directory(System.getProperty(DIRECTORY_PROPERTY) == null ? null
+                    : Path.of(System.getProperty(DIRECTORY_PROPERTY)));
+
+    /**
+     * The memory budget in bytes.
+     */
+    private final long maxBytes;
+
+    /**
+     * Cached snapshots in access order, keyed by content hash.
+     */
+    private final LinkedHashMap<String, Checkpoint> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated size of all cached snapshots.
+     */
+    private long bytes;
+
+    /**
+     * The directory of the disk tier, or {@code null} if there is none.
+     */
+    private volatile Path directory;
+
+    /**
+     * Number of lookups served from memory.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of lookups served from the directory.
+     */
+    private final AtomicLong diskHits = new AtomicLong();
+
+    /**
+     * Number of lookups that found nothing.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs an empty {@code ResultCache} without a directory.
+     *
+     * @param maxBytes the memory budget in bytes; a single larger entry is not kept in memory.
+     * @throws IllegalArgumentException if {@code maxBytes} is negative.
+     */
+    public ResultCache(long maxBytes) {
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative: " + maxBytes);
+
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache shared by all controllers.
+     *
+     * @return the shared {@code ResultCache}.
+     */
+    public static ResultCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sets the directory entries are written to and looked up in. The directory is created when the first entry is
+     * written.
+     *
+     * @param directory the directory, or {@code null} to keep entries in memory only.
+     * @return the current {@code ResultCache} instance for method chaining.
+     */
+    public ResultCache directory(Path directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * Returns the directory of the disk tier.
+     *
+     * @return the directory, or {@code null} if entries are kept in memory only.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Looks up the results stored under a key, in memory first and then in the directory.
+     *
+     * @param key the content hash of the run.
+     * @return the cached snapshot, which must not be modified, or {@code null} on a miss.
+     */
+    Checkpoint lookup(String key) {
+        synchronized (this) {
+            Checkpoint checkpoint = entries.get(key);
+            if (checkpoint != null) {
+                hits.incrementAndGet();
+                return checkpoint;
+            }
+        }
+
+        Path dir = directory;
+        if (dir != null) {
+            Path file = dir.resolve(key + EXTENSION);
+            if (Files.isRegularFile(file)) {
+                try {
+                    Checkpoint checkpoint = Checkpoint.read(file);
+                    diskHits.incrementAndGet();
+                    put(key, checkpoint);
+                    return checkpoint;
+                } catch (IOException e) {
+                    // a damaged or half-written file is treated as missing and replaced by the next store
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the current results of a controller under a key. An entry that cannot be written to the directory is
+     * kept in memory only.
+     *
+     * @param key             the content hash of the run.
+     * @param modelName       the name of the model class.
+     * @param model           the model holding the results.
+     * @param plan            the binding plan of the model class.
+     * @param scriptVariables the variables created by the scripts of the run.
+     */
+    void store(String key, String modelName, Model model, BindingPlan plan, Map<String, double[]> scriptVariables) {
+        put(key, Checkpoint.capture(modelName, model, plan, scriptVariables));
+
+        Path dir = directory;
+        if (dir == null)
+            return;
+        try {
+            Files.createDirectories(dir);
+            // written through a temporary file, so that concurrent readers never see a partial entry
+            Checkpoint.write(dir.resolve(key + EXTENSION), modelName, model, plan, scriptVariables);
+        } catch (IOException e) {
+            // a read-only or full directory only costs the disk tier this entry; the results are in memory
+        }
+    }
+
+    private synchronized void put(String key, Checkpoint checkpoint) {
+        long size = checkpoint.sizeInBytes();
+        if (size > maxBytes)
+            return;
+
+        Checkpoint previous = entries.put(key, checkpoint);
+        if (previous != null)
+            bytes -= previous.sizeInBytes();
+        bytes += size;
+
+        var eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().getValue().sizeInBytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Returns the number of lookups served from memory.
+     *
+     * @return the memory hit count.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups served from the directory.
+     *
+     * @return the disk hit count.
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Returns the number of lookups that found nothing.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the share of lookups served from memory or the directory.
+     *
+     * @return the hit rate between 0 and 1, or 0 if nothing was looked up.
+     */
+    public double getHitRate() {
+        long found = getHits() + getDiskHits();
+        long total = found + getMisses();
+        return total == 0 ? 0 : (double) found / total;
+    }
+
+    /**
+     * Returns the number of entries held in memory.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory held by the entries.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes every entry from memory. Files in the directory and the counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns a one-line summary of the counters, e.g. for printing after a batch.
+     *
+     * @return the summary, terminated by a line separator.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "result cache: %d memory hits, %d disk hits, %d misses, hit rate %.1f%%,"
+                        + " %d entries, %.1f MiB%n", getHits(), getDiskHits(), getMisses(), getHitRate() * 100,
+                size(), getBytes() / 1048576.0);
+    }
+}
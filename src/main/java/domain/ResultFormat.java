@@ -0,0 +1,17 @@
+package domain;
+
+/**
+ * The number formats available when exporting results with a {@link ResultWriter}.
+ */
+public enum ResultFormat {
+    /**
+     * Values rounded to two decimal places with grouped thousands, as in {@code #,###.##}; the format shown in the
+     * results table.
+     */
+    TSV,
+
+    /**
+     * Values written with all the digits needed to read them back exactly, as produced by {@link Double#toString}.
+     */
+    FULL_PRECISION
+}
@@ -0,0 +1,92 @@
+package domain;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The {@code ResultWriter} class streams result rows to a {@link Writer}.
+ *
+ * <p>Each row is a variable name followed by its values, every item terminated by a tab and every row by a newline.
+ * Values are formatted by a reusable formatter, so that writing a value in the {@link ResultFormat#TSV} format
+ * allocates nothing.
+ *
+ * <p>The writer does not buffer on its own; wrap unbuffered targets in a {@link java.io.BufferedWriter}.
+ */
+public class ResultWriter {
+    private final Writer out;
+    private final ValueFormatter formatter;
+
+    /**
+     * Constructs a writer of result rows.
+     *
+     * @param out    the target of the rows.
+     * @param format the number format of the values.
+     */
+    public ResultWriter(Writer out, ResultFormat format) {
+        this.out = out;
+        this.formatter = new ValueFormatter(format);
+    }
+
+    /**
+     * Writes a row of {@code double} values.
+     *
+     * <p>In the {@link ResultFormat#TSV} format, rows of script variables have every comma replaced by a dot, as the
+     * results table has always shown them.
+     *
+     * @param name         the name of the variable.
+     * @param values       the values of the variable, or {@code null} for a row without values.
+     * @param scriptResult whether the variable was created by a script.
+     * @throws IOException if writing fails.
+     */
+    public void writeRow(String name, double[] values, boolean scriptResult) throws IOException {
+        writeRow(name, values, 0, values == null ? 0 : values.length, scriptResult);
+    }
+
+    /**
+     * Writes a row of the {@code double} values in a range of an array.
+     *
+     * @param name         the name of the variable.
+     * @param values       the array holding the values.
+     * @param from         the index of the first value, inclusive.
+     * @param to           the index of the last value, exclusive.
+     * @param scriptResult whether the variable was created by a script.
+     * @throws IOException if writing fails.
+     */
+    public void writeRow(String name, double[] values, int from, int to, boolean scriptResult) throws IOException {
+        out.write(name);
+        out.write('\t');
+        for (int i = from; i < to; i++) {
+            formatter.write(values[i], scriptResult, out);
+            out.write('\t');
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Writes a row of {@code int} values.
+     *
+     * @param name   the name of the variable.
+     * @param values the values of the variable, or {@code null} for a row without values.
+     * @throws IOException if writing fails.
+     */
+    public void writeRow(String name, int[] values) throws IOException {
+        out.write(name);
+        out.write('\t');
+        if (values != null) {
+            for (int value : values) {
+                formatter.write(value, out);
+                out.write('\t');
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if flushing fails.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
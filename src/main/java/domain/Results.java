@@ -0,0 +1,181 @@
+package domain;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code Results} class is a view of the result rows of a {@link Controller}: every array field annotated with
+ * {@link data.annotations.Bind} in declaration order, followed by the variables created by scripts.
+ *
+ * <p>The rows refer to the arrays of the model and scripts; nothing is copied or formatted when the view is created.
+ * Values are formatted only when {@link #getText(int, int)} is called, so a table showing the results formats only
+ * the cells it actually paints. Changes made to the arrays after the view was created, for example by a script
+ * writing to a bound field, are visible through it.
+ *
+ * <p>Formatting is not thread-safe; call {@link #getText(int, int)} from a single thread, e.g. the event dispatch
+ * thread.
+ */
+public class Results {
+    /**
+     * The names of the rows.
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The values of the rows; every element is a {@code double[]}, an {@code int[]} or {@code null}.
+     */
+    private final List<Object> values = new ArrayList<>();
+
+    /**
+     * Whether each row holds a script variable.
+     */
+    private final List<Boolean> scriptResults = new ArrayList<>();
+
+    /**
+     * Formats values in the results table format.
+     */
+    private final ValueFormatter formatter = new ValueFormatter(ResultFormat.TSV);
+
+    Results() { }
+
+    void addRow(String name, double[] rowValues, boolean scriptResult) {
+        names.add(name);
+        values.add(rowValues);
+        scriptResults.add(scriptResult);
+    }
+
+    void addRow(String name, int[] rowValues) {
+        names.add(name);
+        values.add(rowValues);
+        scriptResults.add(false);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return names.size();
+    }
+
+    /**
+     * Returns the name of a row.
+     *
+     * @param row the index of the row.
+     * @return the variable name.
+     */
+    public String getName(int row) {
+        return names.get(row);
+    }
+
+    /**
+     * Returns the number of values in a row.
+     *
+     * @param row the index of the row.
+     * @return the number of values, 0 for a row without values.
+     */
+    public int getLength(int row) {
+        Object rowValues = values.get(row);
+        if (rowValues instanceof double[] doubles)
+            return doubles.length;
+        if (rowValues instanceof int[] ints)
+            return ints.length;
+        return 0;
+    }
+
+    /**
+     * Checks whether a row holds {@code int} values, such as the years.
+     *
+     * @param row the index of the row.
+     * @return {@code true} for a row of {@code int} values.
+     */
+    public boolean isIntRow(int row) {
+        return values.get(row) instanceof int[];
+    }
+
+    /**
+     * Checks whether a row holds a variable created by a script.
+     *
+     * @param row the index of the row.
+     * @return {@code true} for a script variable.
+     */
+    public boolean isScriptResult(int row) {
+        return scriptResults.get(row);
+    }
+
+    /**
+     * Copies the values of a row into an array, converting {@code int} values to {@code double}.
+     *
+     * @param row    the index of the row.
+     * @param target the array to copy into; it must have room for {@link #getLength(int)} values.
+     * @param offset the index in the target of the first value.
+     */
+    public void copyRow(int row, double[] target, int offset) {
+        Object rowValues = values.get(row);
+        if (rowValues instanceof double[] doubles) {
+            System.arraycopy(doubles, 0, target, offset, doubles.length);
+        } else if (rowValues instanceof int[] ints) {
+            for (int i = 0; i < ints.length; i++)
+                target[offset + i] = ints[i];
+        }
+    }
+
+    /**
+     * Returns a value as a number.
+     *
+     * @param row   the index of the row.
+     * @param index the index of the value within the row.
+     * @return the value.
+     */
+    public double getValue(int row, int index) {
+        Object rowValues = values.get(row);
+        if (rowValues instanceof double[] doubles)
+            return doubles[index];
+        return ((int[]) rowValues)[index];
+    }
+
+    /**
+     * Returns a value formatted as in the results table, i.e. as {@link Controller#getResultsAsTsv()} shows it.
+     *
+     * @param row   the index of the row.
+     * @param index the index of the value within the row.
+     * @return the formatted value, or an empty string if the row has fewer values.
+     */
+    public String getText(int row, int index) {
+        if (index >= getLength(row))
+            return "";
+
+        Object rowValues = values.get(row);
+        if (rowValues instanceof double[] doubles)
+            return formatter.format(doubles[index], scriptResults.get(row));
+        return formatter.format(((int[]) rowValues)[index]);
+    }
+
+    /**
+     * Writes all rows.
+     *
+     * @param writer the target of the rows.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(ResultWriter writer) throws IOException {
+        for (int row = 0; row < names.size(); row++)
+            writeRow(row, writer);
+    }
+
+    /**
+     * Writes a single row.
+     *
+     * @param row    the index of the row.
+     * @param writer the target of the row.
+     * @throws IOException if writing fails.
+     */
+    public void writeRow(int row, ResultWriter writer) throws IOException {
+        Object rowValues = values.get(row);
+        if (rowValues instanceof int[] ints)
+            writer.writeRow(names.get(row), ints);
+        else
+            writer.writeRow(names.get(row), (double[]) rowValues, scriptResults.get(row));
+    }
+}
@@ -0,0 +1,65 @@
+package domain;
+
+import java.time.Duration;
+
+/**
+ * The limits a Groovy script must stay within, set with {@link Controller#setScriptBudget(ScriptBudget)}. A script
+ * exceeding either limit is stopped and fails with a {@link data.exceptions.ScriptBudgetExceededException}.
+ *
+ * @param timeout        the wall-clock time a script may run, or {@code null} for no limit.
+ * @param allocatedBytes the number of bytes a script may allocate, or 0 for no limit. This counts every allocation
+ *                       of the thread running the script, including objects that are garbage again by the time the
+ *                       limit is checked, so it bounds the work of a script as well as its memory.
+ */
+public record ScriptBudget(Duration timeout, long allocatedBytes) {
+    /**
+     * No limits, as for controllers whose budget was never set.
+     */
+    public static final ScriptBudget UNLIMITED = new ScriptBudget(null, 0);
+
+    /**
+     * The limits for scripts typed in by users: 30 seconds and 1 GiB of allocations.
+     */
+    public static final ScriptBudget DEFAULT = new ScriptBudget(Duration.ofSeconds(30), 1L << 30);
+
+    /**
+     * Validates the limits.
+     *
+     * @throws IllegalArgumentException if the timeout is not positive or the allocation limit is negative.
+     */
+    public ScriptBudget {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero()))
+            throw new IllegalArgumentException("Script timeout must be positive: " + timeout);
+        if (allocatedBytes < 0)
+            throw new IllegalArgumentException("Allocation limit must not be negative: " + allocatedBytes);
+    }
+
+    /**
+     * Returns a budget with the same allocation limit and the given timeout.
+     *
+     * @param timeout the wall-clock time a script may run, or {@code null} for no limit.
+     * @return the new budget.
+     */
+    public ScriptBudget withTimeout(Duration timeout) {
+        return new ScriptBudget(timeout, allocatedBytes);
+    }
+
+    /**
+     * Returns a budget with the same timeout and the given allocation limit.
+     *
+     * @param allocatedBytes the number of bytes a script may allocate, or 0 for no limit.
+     * @return the new budget.
+     */
+    public ScriptBudget withAllocatedBytes(long allocatedBytes) {
+        return new ScriptBudget(timeout, allocatedBytes);
+    }
+
+    /**
+     * Checks whether this budget sets no limit at all.
+     *
+     * @return {@code true} if neither a timeout nor an allocation limit is set.
+     */
+    public boolean isUnlimited() {
+        return timeout == null && allocatedBytes == 0;
+    }
+}
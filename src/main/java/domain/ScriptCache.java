@@ -0,0 +1,273 @@
+package domain;
+
+import data.exceptions.ScriptCompilationException;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.MultipleCompilationErrorsException;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ScriptCache} class keeps compiled Groovy script classes so that repeated runs of the same script
+ * skip parsing, compilation and class loading.
+ *
+ * <p>Scripts given as text are keyed by their source; scripts read from files are keyed by their path and
+ * last-modified time, so an edited file is compiled again. Every run gets a new {@link Script} instance bound
+ * to a fresh {@link Binding}, which keeps runs independent of each other.
+ *
+ * <p>The cache is bounded and evicts the least recently used entry. Each entry is compiled by its own
+ * {@link GroovyClassLoader}, so an evicted class can be unloaded together with its loader.
+ *
+ * <p>Scripts can also be compiled in {@link ScriptMode#STATIC}, see {@link #createStatic(String, Binding, Map)}.
+ * A statically compiled class depends on the names and types of the variables it was compiled for, so these are
+ * part of its key.
+ */
+public class ScriptCache {
+    /**
+     * The default number of compiled scripts kept by {@link #shared()}.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The cache shared by all {@link Controller} instances.
+     */
+    private static final ScriptCache SHARED = new ScriptCache(DEFAULT_CAPACITY);
+
+    /**
+     * The maximum number of compiled scripts kept in the cache.
+     */
+    private final int capacity;
+
+    /**
+     * Compiled script classes in access order, keyed by script text or by {@link FileKey}.
+     */
+    private final Map<Object, Class<?>> classes;
+
+    /**
+     * Number of lookups served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of lookups that required a compilation.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Counter used to give every compiled script a unique class name.
+     */
+    private final AtomicLong scriptCounter = new AtomicLong();
+
+    /**
+     * Identifies a script file in a particular version.
+     */
+    private record FileKey(String path, long lastModified) { }
+
+    /**
+     * Identifies a statically compiled script: its text or {@link FileKey} and the variables it was compiled for.
+     */
+    private record StaticKey(Object source, Map<String, Class<?>> variables) { }
+
+    /**
+     * Constructs an empty {@code ScriptCache}.
+     *
+     * @param capacity the maximum number of compiled scripts to keep.
+     * @throws IllegalArgumentException if {@code capacity} is not positive.
+     */
+    public ScriptCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        this.classes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Class<?>> eldest) {
+                return size() > ScriptCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by all controllers.
+     *
+     * @return the shared {@code ScriptCache}.
+     */
+    public static ScriptCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a script instance for the given source, compiling it only if it is not cached yet.
+     *
+     * @param script  the Groovy source code.
+     * @param binding the binding the new script instance will use.
+     * @return a new {@link Script} ready to be run.
+     */
+    public Script create(String script, Binding binding) {
+        return InvokerHelper.createScript(classFor(script, script, null), binding);
+    }
+
+    /**
+     * Creates a script instance for the given source compiled in {@link ScriptMode#STATIC}, compiling it only if it
+     * is not cached yet for the same variables.
+     *
+     * @param script    the Groovy source code.
+     * @param binding   the binding the new script instance will use; it must hold the given variables.
+     * @param variables the variables the script may use without declaring them, with their types.
+     * @return a new {@link Script} ready to be run.
+     * @throws ScriptCompilationException if the script cannot be compiled statically.
+     */
+    public Script createStatic(String script, Binding binding, Map<String, Class<?>> variables) {
+        Map<String, Class<?>> copy = Map.copyOf(variables);
+        return InvokerHelper.createScript(classFor(new StaticKey(script, copy), script, copy), binding);
+    }
+
+    /**
+     * Creates a script instance for the given file, compiling it only if this version of the file is not cached yet.
+     *
+     * @param fname   the path of the Groovy script file.
+     * @param binding the binding the new script instance will use.
+     * @return a new {@link Script} ready to be run.
+     * @throws IOException if the file cannot be read.
+     */
+    public Script createFromFile(String fname, Binding binding) throws IOException {
+        File file = new File(fname).getAbsoluteFile();
+        FileKey key = new FileKey(file.getPath(), file.lastModified());
+
+        Class<?> scriptClass = lookup(key);
+        if (scriptClass == null) {
+            scriptClass = compile(Files.readString(file.toPath()), null);
+            store(key, scriptClass);
+        }
+        return InvokerHelper.createScript(scriptClass, binding);
+    }
+
+    /**
+     * Creates a script instance for the given file compiled in {@link ScriptMode#STATIC}, compiling it only if this
+     * version of the file is not cached yet for the same variables.
+     *
+     * @param fname     the path of the Groovy script file.
+     * @param binding   the binding the new script instance will use; it must hold the given variables.
+     * @param variables the variables the script may use without declaring them, with their types.
+     * @return a new {@link Script} ready to be run.
+     * @throws IOException                if the file cannot be read.
+     * @throws ScriptCompilationException if the script cannot be compiled statically.
+     */
+    public Script createStaticFromFile(String fname, Binding binding, Map<String, Class<?>> variables)
+            throws IOException {
+        File file = new File(fname).getAbsoluteFile();
+        Map<String, Class<?>> copy = Map.copyOf(variables);
+        StaticKey key = new StaticKey(new FileKey(file.getPath(), file.lastModified()), copy);
+
+        Class<?> scriptClass = lookup(key);
+        if (scriptClass == null) {
+            scriptClass = compile(Files.readString(file.toPath()), copy);
+            store(key, scriptClass);
+        }
+        return InvokerHelper.createScript(scriptClass, binding);
+    }
+
+    /**
+     * Returns the number of lookups served without compiling.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to compile the script.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of compiled scripts currently held.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return classes.size();
+    }
+
+    /**
+     * Removes every compiled script from the cache. The hit and miss counters are kept.
+     */
+    public synchronized void clear() {
+        classes.clear();
+    }
+
+    /**
+     * Returns the compiled class stored under {@code key}, compiling {@code source} on a miss.
+     */
+    private Class<?> classFor(Object key, String source, Map<String, Class<?>> staticVariables) {
+        Class<?> scriptClass = lookup(key);
+        if (scriptClass == null) {
+            scriptClass = compile(source, staticVariables);
+            store(key, scriptClass);
+        }
+        return scriptClass;
+    }
+
+    private synchronized Class<?> lookup(Object key) {
+        Class<?> scriptClass = classes.get(key);
+        if (scriptClass != null)
+            hits.incrementAndGet();
+        else
+            misses.incrementAndGet();
+        return scriptClass;
+    }
+
+    private synchronized void store(Object key, Class<?> scriptClass) {
+        classes.put(key, scriptClass);
+    }
+
+    /**
+     * Compiles a script with a dedicated class loader, so the class can be unloaded once it is evicted. Every script
+     * checks for interruption in its loops and routes its array lengths through {@link ScriptGuard}, so that a
+     * {@link ScriptBudget} can stop it.
+     * Compilation happens outside the cache lock; two threads missing on the same script may both compile it.
+     *
+     * @param staticVariables the variables of a {@link ScriptMode#STATIC} script, or {@code null} for a dynamic one.
+     */
+    private Class<?> compile(String source, Map<String, Class<?>> staticVariables) {
+        String name = "Script" + scriptCounter.incrementAndGet() + ".groovy";
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        // call-site caching of the classic compilation keeps the argument types of the first run, so a cached class
+        // storing an Integer where it stored a Double before fails; invokedynamic call sites check their types
+        configuration.getOptimizationOptions().put(CompilerConfiguration.INVOKEDYNAMIC, true);
+        configuration.addCompilationCustomizers(
+                new ASTTransformationCustomizer(ThreadInterrupt.class),
+                new ScriptGuardCustomizer());
+        if (staticVariables == null) {
+            GroovyClassLoader loader = new GroovyClassLoader(ScriptCache.class.getClassLoader(), configuration);
+            return loader.parseClass(source, name);
+        }
+
+        configuration.addCompilationCustomizers(
+                new StaticScriptCustomizer(staticVariables),
+                new ASTTransformationCustomizer(CompileStatic.class));
+        GroovyClassLoader loader = new GroovyClassLoader(ScriptCache.class.getClassLoader(), configuration);
+        try {
+            return loader.parseClass(source, name);
+        } catch (MultipleCompilationErrorsException e) {
+            throw new ScriptCompilationException("Script cannot be compiled statically; declare the types of the"
+                    + " variables it creates or run it in dynamic mode.\n" + e.getMessage());
+        }
+    }
+}
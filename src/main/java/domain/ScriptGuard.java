@@ -0,0 +1,240 @@
+package domain;
+
+import data.exceptions.ScriptBudgetExceededException;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ScriptGuard} class enforces a {@link ScriptBudget} on one run of a Groovy script.
+ *
+ * <p>Every script compiled by the {@link ScriptCache} checks the interrupt flag of its thread at the start of each
+ * loop iteration, method and closure, and passes the length of every array it creates to
+ * {@link #arrayLength(int, int)}. While a guard is active, a shared watchdog thread interrupts the script when its
+ * time is up or when its thread has allocated more than the budget allows, which it polls every
+ * {@value #POLL_MILLIS} ms; an array that would exceed the allocation limit is refused before it is allocated. The
+ * script then fails and {@link #failure(Throwable)} turns the failure into a
+ * {@link ScriptBudgetExceededException}. For example:
+ * <pre>
+ * ScriptGuard guard = ScriptGuard.start(budget);
+ * try {
+ *     script.run();
+ * } catch (Throwable e) {
+ *     throw guard.failure(e);
+ * } finally {
+ *     guard.close();
+ * }
+ * </pre>
+ * The allocations of a thread are measured through {@link com.sun.management.ThreadMXBean}; where that is not
+ * supported, as for virtual threads, only the array lengths are checked.
+ */
+public final class ScriptGuard {
+    /**
+     * How often the watchdog checks the allocations of a script, in milliseconds.
+     */
+    static final long POLL_MILLIS = 10;
+
+    /**
+     * The size assumed for an array header, in bytes.
+     */
+    private static final long ARRAY_HEADER = 16;
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "script-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    /**
+     * The guard of the script running on the current thread, if any.
+     */
+    private static final ThreadLocal<ScriptGuard> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The guard of runs without limits; it does nothing.
+     */
+    private static final ScriptGuard UNLIMITED = new ScriptGuard(ScriptBudget.UNLIMITED, null, -1);
+
+    private final ScriptBudget budget;
+    private final Thread thread;
+
+    /**
+     * The bytes the thread had allocated when the script started, or -1 if they cannot be measured.
+     */
+    private final long startBytes;
+
+    private final List<ScheduledFuture<?>> checks = new ArrayList<>();
+
+    /**
+     * Why the script was stopped, or {@code null} while it is within its budget.
+     */
+    private String exceeded;
+
+    /**
+     * Whether the watchdog interrupted the script.
+     */
+    private boolean interrupted;
+
+    private boolean closed;
+
+    private ScriptGuard(ScriptBudget budget, Thread thread, long startBytes) {
+        this.budget = budget;
+        this.thread = thread;
+        this.startBytes = startBytes;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * Starts guarding a script about to run on the current thread.
+     *
+     * @param budget the limits of the script.
+     * @return the guard, to be closed when the script ends.
+     */
+    public static ScriptGuard start(ScriptBudget budget) {
+        if (budget.isUnlimited())
+            return UNLIMITED;
+
+        Thread thread = Thread.currentThread();
+        ScriptGuard guard = new ScriptGuard(budget, thread, budget.allocatedBytes() > 0 ? allocatedBytes() : -1);
+        synchronized (guard) {
+            if (budget.timeout() != null) {
+                guard.checks.add(WATCHDOG.schedule(() -> guard.stop("Script exceeded its time budget of "
+                        + budget.timeout().toMillis() + " ms"), budget.timeout().toNanos(), TimeUnit.NANOSECONDS));
+            }
+            if (guard.startBytes >= 0) {
+                long threadId = thread.threadId();
+                guard.checks.add(WATCHDOG.scheduleAtFixedRate(() -> {
+                    if (THREADS.getThreadAllocatedBytes(threadId) - guard.startBytes > budget.allocatedBytes())
+                        guard.stop(guard.allocationMessage());
+                }, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS));
+            }
+        }
+        CURRENT.set(guard);
+        return guard;
+    }
+
+    /**
+     * Checks the length of an array a script is about to create. Called by the scripts compiled by the
+     * {@link ScriptCache} for every array creation.
+     *
+     * @param length       the requested length.
+     * @param elementBytes the size of an element, in bytes.
+     * @return the length, unchanged.
+     * @throws ScriptBudgetExceededException if the array would exceed the allocation limit of the running script.
+     */
+    public static int arrayLength(int length, int elementBytes) {
+        ScriptGuard guard = CURRENT.get();
+        if (guard != null && guard.budget.allocatedBytes() > 0 && length > 0) {
+            long used = guard.startBytes >= 0 ? allocatedBytes() - guard.startBytes : 0;
+            if (used + ARRAY_HEADER + (long) length * elementBytes > guard.budget.allocatedBytes()) {
+                String message = guard.allocationMessage();
+                guard.stop(message);
+                throw new ScriptBudgetExceededException(message);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Checks the length of an array a dynamic script is about to create, given as any number.
+     *
+     * @param length       the requested length, converted as Groovy converts array lengths.
+     * @param elementBytes the size of an element, in bytes.
+     * @return the length as an {@code int}.
+     * @throws ScriptBudgetExceededException if the array would exceed the allocation limit of the running script.
+     */
+    public static int arrayLength(Object length, int elementBytes) {
+        return arrayLength(DefaultTypeTransformation.intUnbox(length), elementBytes);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private String allocationMessage() {
+        long limit = budget.allocatedBytes();
+        return "Script exceeded its allocation budget of "
+                + (limit >= 1 << 20 ? (limit >> 20) + " MiB" : limit + " bytes");
+    }
+
+    /**
+     * Records why the script is stopped and interrupts it, unless it has already ended.
+     */
+    private synchronized void stop(String reason) {
+        if (closed || exceeded != null)
+            return;
+
+        exceeded = reason;
+        if (thread != Thread.currentThread()) {
+            interrupted = true;
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Turns the failure of a guarded script into the exception to report: a
+     * {@link ScriptBudgetExceededException} if the script exceeded its budget or ran out of memory or stack, and
+     * otherwise the failure itself, wrapped in a {@link RuntimeException} unless it is one. Any other
+     * {@link VirtualMachineError} is rethrown as is.
+     *
+     * @param failure what the script threw.
+     * @return the exception to throw.
+     */
+    public RuntimeException failure(Throwable failure) {
+        String reason;
+        synchronized (this) {
+            reason = exceeded;
+        }
+        if (reason != null)
+            return failure instanceof ScriptBudgetExceededException e ? e : new ScriptBudgetExceededException(reason);
+        if (failure instanceof OutOfMemoryError)
+            return new ScriptBudgetExceededException("Script ran out of memory: " + failure.getMessage());
+        if (failure instanceof StackOverflowError)
+            return new ScriptBudgetExceededException("Script ran out of stack, e.g. in a too deep recursion");
+        if (failure instanceof InterruptedException) {
+            // interrupted from outside, e.g. a cancelled run; keep the flag for the caller
+            Thread.currentThread().interrupt();
+            return new RuntimeException("Script interrupted");
+        }
+        if (failure instanceof VirtualMachineError error)
+            throw error;
+        if (failure instanceof RuntimeException e)
+            return e;
+        // e.g. the AssertionError of a failing assert: it ends the script, not the thread running it
+        return new RuntimeException(failure.getMessage(), failure);
+    }
+
+    /**
+     * Ends the guard: the watchdog no longer watches the script, and an interrupt the guard caused is cleared so that
+     * it does not leak into whatever the thread does next.
+     */
+    public void close() {
+        if (this == UNLIMITED)
+            return;
+
+        CURRENT.remove();
+        boolean clear;
+        synchronized (this) {
+            closed = true;
+            clear = interrupted;
+            checks.forEach(check -> check.cancel(false));
+        }
+        if (clear)
+            Thread.interrupted();
+    }
+}
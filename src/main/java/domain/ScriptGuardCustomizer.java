@@ -0,0 +1,80 @@
+package domain;
+
+import org.codehaus.groovy.ast.ClassCodeExpressionTransformer;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.args;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.constX;
+
+/**
+ * The {@code ScriptGuardCustomizer} class routes the length of every array a script creates through
+ * {@link ScriptGuard#arrayLength(int, int)}, so that an array exceeding the allocation limit of a
+ * {@link ScriptBudget} is refused before it is allocated. For example, {@code new double[LL]} becomes
+ * {@code new double[ScriptGuard.arrayLength(LL, 8)]}.
+ *
+ * <p>The customizer runs before type checking, so it works for dynamic and static scripts alike.
+ */
+final class ScriptGuardCustomizer extends CompilationCustomizer {
+    private static final ClassNode GUARD = ClassHelper.make(ScriptGuard.class);
+
+    ScriptGuardCustomizer() {
+        super(CompilePhase.CONVERSION);
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        new ClassCodeExpressionTransformer() {
+            @Override
+            protected SourceUnit getSourceUnit() {
+                return source;
+            }
+
+            @Override
+            public Expression transform(Expression expression) {
+                if (expression instanceof ClosureExpression closure) {
+                    closure.getCode().visit(this);
+                    return closure;
+                }
+                if (expression instanceof ArrayExpression array && array.getSizeExpression() != null)
+                    return guarded(array, this);
+                return super.transform(expression);
+            }
+        }.visitClass(classNode);
+    }
+
+    private static Expression guarded(ArrayExpression array, ClassCodeExpressionTransformer transformer) {
+        List<Expression> sizes = array.getSizeExpression();
+        List<Expression> checked = new ArrayList<>(sizes.size());
+        for (int i = 0; i < sizes.size(); i++) {
+            // the outer dimensions of a multi-dimensional array hold references
+            int elementBytes = i == sizes.size() - 1 ? bytesOf(array.getElementType()) : Integer.BYTES;
+            checked.add(callX(GUARD, "arrayLength",
+                    args(transformer.transform(sizes.get(i)), constX(elementBytes, true))));
+        }
+        ArrayExpression result = new ArrayExpression(array.getElementType(), null, checked);
+        result.setSourcePosition(array);
+        return result;
+    }
+
+    private static int bytesOf(ClassNode type) {
+        if (type.equals(ClassHelper.double_TYPE) || type.equals(ClassHelper.long_TYPE))
+            return Long.BYTES;
+        if (type.equals(ClassHelper.byte_TYPE) || type.equals(ClassHelper.boolean_TYPE))
+            return Byte.BYTES;
+        if (type.equals(ClassHelper.short_TYPE) || type.equals(ClassHelper.char_TYPE))
+            return Short.BYTES;
+        return Integer.BYTES;
+    }
+}
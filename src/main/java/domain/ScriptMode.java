@@ -0,0 +1,18 @@
+package domain;
+
+/**
+ * The ways a Groovy script can be compiled by the {@link ScriptCache}.
+ */
+public enum ScriptMode {
+    /**
+     * Plain Groovy: every variable lives in the script binding and every operation is dispatched dynamically.
+     */
+    DYNAMIC,
+
+    /**
+     * Statically compiled Groovy: model fields and script variables become typed local variables, so that numeric
+     * loops compile to primitive bytecode. Scripts that cannot be type-checked are rejected with a
+     * {@link data.exceptions.ScriptCompilationException}.
+     */
+    STATIC
+}
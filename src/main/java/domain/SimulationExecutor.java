@@ -0,0 +1,172 @@
+package domain;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The {@code SimulationExecutor} class runs model and script tasks away from the Swing event dispatch thread.
+ *
+ * <p>Tasks run on a bounded pool of daemon threads, so several runs can be in flight at once while the GUI stays
+ * responsive. A task reports its progress through {@link Progress}; progress messages, the result and any failure are
+ * delivered to the callbacks on the event dispatch thread. Cancelling a task interrupts it, and the next call to
+ * {@link Progress#report(String)} stops it.
+ */
+public class SimulationExecutor {
+
+    /**
+     * Work submitted to the executor.
+     *
+     * @param <T> the type of the result.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        /**
+         * Performs the work off the event dispatch thread.
+         *
+         * @param progress the channel for progress messages and cancellation checks.
+         * @return the result handed to the success callback.
+         * @throws Exception if the work fails.
+         */
+        T run(Progress progress) throws Exception;
+    }
+
+    /**
+     * Passed to a running {@link Task} to publish progress and observe cancellation.
+     */
+    public interface Progress {
+        /**
+         * Publishes a progress message to the event dispatch thread.
+         *
+         * @param message the message to show.
+         * @throws CancellationException if the task has been cancelled.
+         */
+        void report(String message);
+    }
+
+    /**
+     * A submitted task that can be cancelled.
+     */
+    public static final class RunHandle {
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        /**
+         * The thread running the task, or {@code null} while the task is queued or after it finished.
+         */
+        private Thread runner;
+
+        private RunHandle() { }
+
+        /**
+         * Cancels the task. A task that already finished is not affected.
+         */
+        public synchronized void cancel() {
+            cancelled = true;
+            if (runner != null)
+                runner.interrupt();
+        }
+
+        /**
+         * Checks whether the task has finished, successfully or not.
+         *
+         * @return {@code true} if the task is no longer running.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        private synchronized void start() {
+            runner = Thread.currentThread();
+        }
+
+        private synchronized void finish() {
+            runner = null;
+            done = true;
+            // do not leak a cancellation into the next task of this pool thread
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * The pool running the tasks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs an executor with one thread per available processor.
+     */
+    public SimulationExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an executor with the given number of threads.
+     *
+     * @param threads the maximum number of tasks running at once.
+     */
+    public SimulationExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulation-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a task.
+     *
+     * <p>Exactly one of {@code onSuccess} and {@code onFailure} is called when the task ends; a cancelled task ends
+     * with a {@link CancellationException}, and a task that throws an {@link Error} ends with an
+     * {@link ExecutionException} caused by it. All callbacks run on the event dispatch thread.
+     *
+     * @param task       the work to perform.
+     * @param onProgress receives progress messages.
+     * @param onSuccess  receives the result.
+     * @param onFailure  receives the exception that ended the task.
+     * @param <T>        the type of the result.
+     * @return a handle for cancelling the task.
+     */
+    public <T> RunHandle submit(Task<T> task, Consumer<String> onProgress,
+                                Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        RunHandle handle = new RunHandle();
+
+        Progress progress = message -> {
+            if (handle.cancelled || Thread.currentThread().isInterrupted())
+                throw new CancellationException("Run cancelled");
+            SwingUtilities.invokeLater(() -> onProgress.accept(message));
+        };
+
+        executor.execute(() -> {
+            handle.start();
+            try {
+                if (handle.cancelled)
+                    throw new CancellationException("Run cancelled");
+                T result = task.run(progress);
+                if (handle.cancelled)
+                    throw new CancellationException("Run cancelled");
+                SwingUtilities.invokeLater(() -> onSuccess.accept(result));
+            } catch (Exception | Error e) {
+                // an Error, e.g. the StackOverflowError of a deeply recursive script, must still end the task
+                Exception failure = handle.cancelled ? new CancellationException("Run cancelled")
+                        : e instanceof Exception exception ? exception : new ExecutionException(e);
+                SwingUtilities.invokeLater(() -> onFailure.accept(failure));
+            } finally {
+                handle.finish();
+            }
+        });
+        return handle;
+    }
+
+    /**
+     * Stops accepting tasks and interrupts the running ones.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
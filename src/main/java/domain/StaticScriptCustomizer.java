@@ -0,0 +1,202 @@
+package domain;
+
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.CodeVisitorSupport;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClosureListExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ForStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.stmt.TryCatchStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.args;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callThisX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.castX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.constX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.declS;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.stmt;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.varX;
+
+/**
+ * The {@code StaticScriptCustomizer} class prepares a script for static compilation in {@link ScriptMode#STATIC}.
+ *
+ * <p>Plain scripts use model fields and create variables without declaring them, which static type checking
+ * rejects. Before the script is type-checked, this customizer rewrites its body:
+ * <ul>
+ *   <li>every known variable the script refers to is declared as a typed local variable read from the binding,
+ *   e.g. {@code double[] EXP = (double[]) getBinding().getVariable("EXP")};</li>
+ *   <li>a top-level assignment to an undeclared variable becomes a declaration if the type of the value is evident,
+ *   e.g. {@code ZDEKS = new double[LL]} becomes {@code double[] ZDEKS = new double[LL]};</li>
+ *   <li>an undeclared loop counter, as in {@code for (i = 0; i < LL; i++)}, is declared in the loop;</li>
+ *   <li>when the script ends, all these variables are written back to the binding, where the {@link Controller}
+ *   collects them.</li>
+ * </ul>
+ * The source text itself is not changed, so error messages refer to the lines the user wrote. Assignments the
+ * customizer cannot type are left alone and reported by the type checker as undeclared variables.
+ */
+final class StaticScriptCustomizer extends CompilationCustomizer {
+    /**
+     * The variables available in the binding, with their types.
+     */
+    private final Map<String, Class<?>> variables;
+
+    /**
+     * Constructs a customizer for scripts run with the given variables.
+     *
+     * @param variables the variables available in the binding, with their types.
+     */
+    StaticScriptCustomizer(Map<String, Class<?>> variables) {
+        super(CompilePhase.CONVERSION);
+        this.variables = variables;
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (!classNode.isScript())
+            return;
+        MethodNode run = classNode.getMethod("run", Parameter.EMPTY_ARRAY);
+        if (run == null || !(run.getCode() instanceof BlockStatement body))
+            return;
+
+        Set<String> referenced = new HashSet<>();
+        Set<String> declaredByScript = new HashSet<>();
+        body.visit(new CodeVisitorSupport() {
+            @Override
+            public void visitVariableExpression(VariableExpression expression) {
+                referenced.add(expression.getName());
+            }
+
+            @Override
+            public void visitDeclarationExpression(DeclarationExpression expression) {
+                if (expression.getLeftExpression() instanceof VariableExpression variable)
+                    declaredByScript.add(variable.getName());
+                super.visitDeclarationExpression(expression);
+            }
+        });
+
+        // typed locals for the known variables the script uses
+        Map<String, ClassNode> locals = new LinkedHashMap<>();
+        List<Statement> statements = new ArrayList<>();
+        for (Map.Entry<String, Class<?>> variable : variables.entrySet()) {
+            String name = variable.getKey();
+            if (!referenced.contains(name) || declaredByScript.contains(name))
+                continue;
+
+            ClassNode type = ClassHelper.make(variable.getValue());
+            statements.add(declS(varX(name, type),
+                    castX(type, callX(callThisX("getBinding"), "getVariable", constX(name)))));
+            locals.put(name, type);
+        }
+
+        // declarations for variables created by the script
+        Map<String, ClassNode> known = new HashMap<>(locals);
+        for (Statement statement : body.getStatements()) {
+            if (statement instanceof ExpressionStatement expressionStatement
+                    && expressionStatement.getExpression() instanceof DeclarationExpression declaration
+                    && declaration.getLeftExpression() instanceof VariableExpression variable) {
+                known.put(variable.getName(), variable.getOriginType());
+            } else if (statement instanceof ExpressionStatement expressionStatement
+                    && isAssignmentToUndeclared(expressionStatement.getExpression(), known)) {
+                BinaryExpression assignment = (BinaryExpression) expressionStatement.getExpression();
+                String name = ((VariableExpression) assignment.getLeftExpression()).getName();
+                ClassNode type = typeOf(assignment.getRightExpression(), known);
+                if (type != null) {
+                    expressionStatement.setExpression(declaration(name, type, assignment));
+                    known.put(name, type);
+                    locals.put(name, type);
+                }
+            }
+            declareLoopCounters(statement, known);
+        }
+
+        BlockStatement export = new BlockStatement();
+        for (String name : locals.keySet())
+            export.addStatement(stmt(callX(callThisX("getBinding"), "setVariable", args(constX(name), varX(name)))));
+
+        BlockStatement original = new BlockStatement(body.getStatements(), body.getVariableScope());
+        statements.add(new TryCatchStatement(original, export));
+        run.setCode(new BlockStatement(statements, body.getVariableScope()));
+    }
+
+    /**
+     * Declares the undeclared counters initialised by classic {@code for} loops anywhere in the statement.
+     */
+    private static void declareLoopCounters(Statement statement, Map<String, ClassNode> known) {
+        statement.visit(new CodeVisitorSupport() {
+            @Override
+            public void visitForLoop(ForStatement loop) {
+                if (loop.getCollectionExpression() instanceof ClosureListExpression parts
+                        && !parts.getExpressions().isEmpty()
+                        && isAssignmentToUndeclared(parts.getExpression(0), known)) {
+                    BinaryExpression assignment = (BinaryExpression) parts.getExpression(0);
+                    ClassNode type = typeOf(assignment.getRightExpression(), known);
+                    if (type != null) {
+                        String name = ((VariableExpression) assignment.getLeftExpression()).getName();
+                        parts.getExpressions().set(0, declaration(name, type, assignment));
+                    }
+                }
+                super.visitForLoop(loop);
+            }
+        });
+    }
+
+    private static boolean isAssignmentToUndeclared(Expression expression, Map<String, ClassNode> known) {
+        return expression instanceof BinaryExpression assignment
+                && !(expression instanceof DeclarationExpression)
+                && assignment.getOperation().getText().equals("=")
+                && assignment.getLeftExpression() instanceof VariableExpression variable
+                && !known.containsKey(variable.getName());
+    }
+
+    private static DeclarationExpression declaration(String name, ClassNode type, BinaryExpression assignment) {
+        DeclarationExpression declaration = new DeclarationExpression(varX(name, type), assignment.getOperation(),
+                assignment.getRightExpression());
+        declaration.setSourcePosition(assignment);
+        return declaration;
+    }
+
+    /**
+     * Returns the evident type of an assigned value, or {@code null} if it is not evident.
+     */
+    private static ClassNode typeOf(Expression value, Map<String, ClassNode> known) {
+        if (value instanceof ArrayExpression || value instanceof ConstructorCallExpression
+                || value instanceof CastExpression)
+            return value.getType();
+        if (value instanceof ConstantExpression constant) {
+            Object number = constant.getValue();
+            if (number instanceof Integer)
+                return ClassHelper.int_TYPE;
+            if (number instanceof BigDecimal || number instanceof Double)
+                return ClassHelper.double_TYPE;
+            return null;
+        }
+        if (value instanceof VariableExpression variable)
+            return known.get(variable.getName());
+        return null;
+    }
+}
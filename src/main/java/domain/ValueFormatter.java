@@ -0,0 +1,175 @@
+package domain;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * The {@code ValueFormatter} class formats result values in a {@link ResultFormat}.
+ *
+ * <p>In the {@link ResultFormat#TSV} format a value is formatted exactly as {@code new DecimalFormat("#,###.##")}
+ * would format it in the default locale, but into a reusable character buffer, so that writing a value allocates
+ * nothing. Values too large for exact rounding with {@code long} arithmetic, and non-finite values, are passed to a
+ * single cached {@link DecimalFormat}. Values of script variables have every comma replaced by a dot, as the results
+ * table has always shown them.
+ *
+ * <p>Instances are not thread-safe.
+ */
+final class ValueFormatter {
+    /**
+     * Values whose hundredfold is at least this large take the {@link DecimalFormat} path.
+     */
+    private static final double EXACT_LIMIT = 0x1p52;
+
+    private final ResultFormat format;
+
+    /**
+     * Formatter for values outside the fast path; created on first use.
+     */
+    private DecimalFormat fallbackFormat;
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char minusSign;
+
+    /**
+     * Scratch space for a single formatted value.
+     */
+    private final char[] chars = new char[32];
+
+    ValueFormatter(ResultFormat format) {
+        this.format = format;
+
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+    }
+
+    /**
+     * Writes a formatted {@code double} value.
+     */
+    void write(double value, boolean scriptResult, Writer out) throws IOException {
+        int pos = formatFast(value, scriptResult);
+        if (pos < 0)
+            out.write(formatSlow(value, scriptResult));
+        else
+            out.write(chars, pos, chars.length - pos);
+    }
+
+    /**
+     * Writes a formatted {@code int} value.
+     */
+    void write(int value, Writer out) throws IOException {
+        int pos = formatInt(value);
+        out.write(chars, pos, chars.length - pos);
+    }
+
+    /**
+     * Formats a {@code double} value as a string.
+     */
+    String format(double value, boolean scriptResult) {
+        int pos = formatFast(value, scriptResult);
+        return pos < 0 ? formatSlow(value, scriptResult) : new String(chars, pos, chars.length - pos);
+    }
+
+    /**
+     * Formats an {@code int} value as a string.
+     */
+    String format(int value) {
+        int pos = formatInt(value);
+        return new String(chars, pos, chars.length - pos);
+    }
+
+    /**
+     * Formats a value into {@link #chars}, ending at the last character.
+     *
+     * @return the index of the first character, or -1 if the value needs {@link #formatSlow}.
+     */
+    private int formatFast(double value, boolean scriptResult) {
+        if (format == ResultFormat.FULL_PRECISION)
+            return -1;
+
+        double magnitude = Math.abs(value);
+        double scaled = magnitude * 100;
+        if (!(scaled < EXACT_LIMIT))
+            return -1;
+
+        long hundredths = roundHalfEven(magnitude, scaled);
+        boolean negative = value < 0 || (value == 0 && Double.doubleToRawLongBits(value) != 0);
+
+        char grouping = scriptResult && groupingSeparator == ',' ? '.' : groupingSeparator;
+        char decimal = scriptResult && decimalSeparator == ',' ? '.' : decimalSeparator;
+
+        // digits are produced right to left
+        int pos = chars.length;
+        long integer = hundredths / 100;
+        int fraction = (int) (hundredths % 100);
+
+        if (fraction != 0) {
+            if (fraction % 10 != 0)
+                chars[--pos] = (char) ('0' + fraction % 10);
+            chars[--pos] = (char) ('0' + fraction / 10);
+            chars[--pos] = decimal;
+        }
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0)
+                chars[--pos] = grouping;
+            chars[--pos] = (char) ('0' + integer % 10);
+            integer /= 10;
+            digits++;
+        } while (integer != 0);
+        if (negative)
+            chars[--pos] = minusSign;
+
+        return pos;
+    }
+
+    private String formatSlow(double value, boolean scriptResult) {
+        if (format == ResultFormat.FULL_PRECISION)
+            return Double.toString(value);
+
+        if (fallbackFormat == null)
+            fallbackFormat = new DecimalFormat("#,###.##");
+
+        String formatted = fallbackFormat.format(value);
+        return scriptResult ? formatted.replace(",", ".") : formatted;
+    }
+
+    /**
+     * Rounds {@code magnitude * 100} to the nearest integer, ties to even, using the exact product rather than the
+     * rounded {@code scaled}.
+     */
+    private static long roundHalfEven(double magnitude, double scaled) {
+        long floor = (long) scaled;
+        // the rounded product may sit on the other side of an integer than the exact one
+        if (Math.fma(magnitude, 100, -floor) < 0)
+            floor--;
+        else if (Math.fma(magnitude, 100, -(floor + 1)) >= 0)
+            floor++;
+
+        double aboveHalf = Math.fma(magnitude, 100, -(floor + 0.5));
+        if (aboveHalf > 0 || (aboveHalf == 0 && (floor & 1) != 0))
+            return floor + 1;
+        return floor;
+    }
+
+    /**
+     * Writes the digits of {@code value} at the end of {@link #chars}.
+     *
+     * @return the index of the first character.
+     */
+    private int formatInt(int value) {
+        int pos = chars.length;
+        boolean negative = value < 0;
+        do {
+            chars[--pos] = (char) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        if (negative)
+            chars[--pos] = '-';
+        return pos;
+    }
+}
@@ -0,0 +1,15 @@
+package domain.batchLogic;
+
+import java.util.List;
+
+/**
+ * A single job of a batch: one model run on one data file, optionally followed by scripts, with the results written
+ * to a file.
+ *
+ * @param modelName the name of the {@link data.Model} class in {@code data.models}.
+ * @param dataFile  the path of the data file.
+ * @param output    the path of the results file; an existing file is replaced.
+ * @param scripts   the paths of the script files run after the model, in order.
+ */
+public record BatchJob(String modelName, String dataFile, String output, List<String> scripts) {
+}
@@ -0,0 +1,121 @@
+package domain.batchLogic;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code BatchReport} class holds the outcome of a {@link BatchRunner} run: how many jobs succeeded, the
+ * failures, the throughput and the distribution of job latencies.
+ */
+public class BatchReport {
+    /**
+     * The number of failures listed by {@link #print(PrintStream)}.
+     */
+    private static final int PRINTED_FAILURES = 20;
+
+    /**
+     * A job that failed.
+     *
+     * @param index   the position of the job in the batch.
+     * @param job     the job.
+     * @param message the description of the failure.
+     */
+    public record Failure(int index, BatchJob job, String message) { }
+
+    private final int jobCount;
+    private final int workers;
+    private final long wallNanos;
+    private final long[] sortedLatencies;
+    private final List<Failure> failures;
+
+    BatchReport(int jobCount, int workers, long wallNanos, long[] latencies, List<Failure> failures) {
+        this.jobCount = jobCount;
+        this.workers = workers;
+        this.wallNanos = wallNanos;
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(this.sortedLatencies);
+        this.failures = List.copyOf(failures);
+    }
+
+    /**
+     * Returns the number of jobs in the batch.
+     *
+     * @return the number of jobs.
+     */
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    /**
+     * Returns the jobs that failed.
+     *
+     * @return the failures in job order.
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the time from the start of the first job to the end of the last one.
+     *
+     * @return the wall-clock time in nanoseconds.
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Returns the number of jobs finished per second of wall-clock time.
+     *
+     * @return the throughput.
+     */
+    public double getThroughput() {
+        return wallNanos == 0 ? 0 : jobCount / (wallNanos / 1e9);
+    }
+
+    /**
+     * Returns a percentile of the job latencies, each measured from the start to the end of one job.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency in nanoseconds, or 0 if the batch was empty.
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (sortedLatencies.length == 0)
+            return 0;
+        int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+    /**
+     * Returns the mean job latency.
+     *
+     * @return the mean latency in nanoseconds, or 0 if the batch was empty.
+     */
+    public double getMeanLatency() {
+        return Arrays.stream(sortedLatencies).average().orElse(0);
+    }
+
+    /**
+     * Prints the statistics and the first failures.
+     *
+     * @param out the target of the report.
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Jobs: %d (%d succeeded, %d failed) on %d workers%n",
+                jobCount, jobCount - failures.size(), failures.size(), workers);
+        out.printf(Locale.ROOT, "Wall time: %.3f s, throughput: %.1f jobs/s%n", wallNanos / 1e9, getThroughput());
+        out.printf(Locale.ROOT, "Latency (ms): mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n",
+                getMeanLatency() / 1e6, getLatencyPercentile(50) / 1e6, getLatencyPercentile(90) / 1e6,
+                getLatencyPercentile(99) / 1e6, getLatencyPercentile(100) / 1e6);
+
+        for (int i = 0; i < Math.min(PRINTED_FAILURES, failures.size()); i++) {
+            Failure failure = failures.get(i);
+            out.println("Job " + (failure.index() + 1) + " (" + failure.job().modelName() + ", "
+                    + failure.job().dataFile() + ") failed: " + failure.message());
+        }
+        if (failures.size() > PRINTED_FAILURES)
+            out.println("... and " + (failures.size() - PRINTED_FAILURES) + " more failures");
+    }
+}
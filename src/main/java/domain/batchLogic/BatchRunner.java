@@ -0,0 +1,135 @@
+package domain.batchLogic;
+
+import domain.Controller;
+import domain.ResultFormat;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code BatchRunner} class runs many {@link BatchJob}s without the GUI.
+ *
+ * <p>Jobs are queued on a fixed pool of worker threads. Every job runs in its own {@link Controller}: it reads the
+ * data file, runs the model and the scripts and streams the results to its output file; jobs repeating an earlier
+ * combination of model, data and scripts are served from the {@link domain.ResultCache}. A failing job is recorded
+ * in the {@link BatchReport} and does not stop the others. For example:
+ * <pre>
+ * BatchReport report = new BatchRunner()
+ *         .workers(8)
+ *         .run(JobManifest.parse(Path.of("nightly.jobs")));
+ * report.print(System.out);
+ * </pre>
+ */
+public class BatchRunner {
+    /**
+     * The number of jobs run concurrently.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number format of the results files.
+     */
+    private ResultFormat format = ResultFormat.TSV;
+
+    /**
+     * Sets the number of jobs run concurrently. Defaults to the number of available processors.
+     *
+     * @param workers the number of worker threads.
+     * @return the current {@code BatchRunner} instance for method chaining.
+     */
+    public BatchRunner workers(int workers) {
+        if (workers <= 0)
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Sets the number format of the results files. Defaults to {@link ResultFormat#TSV}.
+     *
+     * @param format the number format.
+     * @return the current {@code BatchRunner} instance for method chaining.
+     */
+    public BatchRunner format(ResultFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Runs all jobs and waits for them to finish.
+     *
+     * @param jobs the jobs to run.
+     * @return the statistics and failures of the batch.
+     * @throws RuntimeException if the batch is interrupted.
+     */
+    public BatchReport run(List<BatchJob> jobs) {
+        long[] latencies = new long[jobs.size()];
+        ConcurrentLinkedQueue<BatchReport.Failure> failures = new ConcurrentLinkedQueue<>();
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < jobs.size(); i++) {
+                int index = i;
+                pool.execute(() -> {
+                    long jobStart = System.nanoTime();
+                    try {
+                        runJob(jobs.get(index));
+                    } catch (VirtualMachineError e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        // an Error such as a failing assert ends only this job
+                        failures.add(new BatchReport.Failure(index, jobs.get(index), String.valueOf(e.getMessage())));
+                    } finally {
+                        // every job writes its own slot; the pool's termination publishes them
+                        latencies[index] = System.nanoTime() - jobStart;
+                    }
+                });
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting; long batches are expected
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch interrupted");
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        List<BatchReport.Failure> sortedFailures = new ArrayList<>(failures);
+        sortedFailures.sort(Comparator.comparingInt(BatchReport.Failure::index));
+        return new BatchReport(jobs.size(), workers, wallNanos, latencies, sortedFailures);
+    }
+
+    /**
+     * Runs one job in its own controller and streams its results to the output file.
+     */
+    private void runJob(BatchJob job) throws Exception {
+        Controller controller = new Controller(job.modelName())
+                .runPipeline(job.dataFile(), job.scripts().toArray(new String[0]));
+
+        Path output = Path.of(job.output());
+        if (output.getParent() != null)
+            Files.createDirectories(output.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(output)) {
+            controller.writeResults(out, format);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package domain.batchLogic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code JobManifest} class reads the list of jobs run by a {@link BatchRunner}.
+ *
+ * <p>A manifest is a text file with one job per line. Each line holds the model name, the data file, the output file
+ * and optionally a comma-separated list of script files, separated by whitespace:
+ * <pre>
+ * # model        data file                          output               scripts
+ * EconomyModel   data/economyData.txt               out/economy.tsv      scripts/zdeks_script.groovy
+ * ClimateModel   data/climateData.txt               out/climate.tsv
+ * </pre>
+ * Empty lines and lines starting with {@code #} are ignored. Relative paths are resolved against the working
+ * directory.
+ */
+public class JobManifest {
+
+    private JobManifest() { }
+
+    /**
+     * Reads a manifest file.
+     *
+     * @param path the path of the manifest.
+     * @return the jobs in file order.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a line does not describe a job.
+     */
+    public static List<BatchJob> parse(Path path) throws IOException {
+        List<BatchJob> jobs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                String[] parts = line.split("\\s+");
+                if (parts.length < 3 || parts.length > 4)
+                    throw new IllegalArgumentException("Line " + lineNumber + " of " + path
+                            + ": expected model, data file, output and optional scripts, found: " + line);
+
+                List<String> scripts = parts.length == 4 ? Arrays.asList(parts[3].split(",")) : List.of();
+                jobs.add(new BatchJob(parts[0], parts[1], parts[2], List.copyOf(scripts)));
+            }
+        }
+        return jobs;
+    }
+}
@@ -0,0 +1,291 @@
+package domain.compareLogic;
+
+import domain.ResultWriter;
+import domain.Results;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code ComparisonResult} class holds the results of several scenarios of a {@link ScenarioComparison} side by
+ * side, with their differences from the baseline scenario.
+ *
+ * <p>Every compared variable is stored as three scenarios-by-years matrices in single {@code double[]} arrays, as in
+ * {@link domain.sweepLogic.SweepResult}: the values of scenario {@code s} occupy the range {@code [s * L, (s + 1) * L)}
+ * where {@code L} is the length of the variable. The matrices hold the values, the absolute deltas {@code x - b} and
+ * the relative deltas {@code (x - b) / |b|} in percent, where {@code b} is the baseline value of the same year. All
+ * three are filled in one pass over the values of each variable when the result is created.
+ *
+ * <p>Variables are listed in the order of the baseline results, followed by variables that only some other scenarios
+ * produce; values a scenario does not produce are {@code NaN}. The {@code int} rows, such as the years, are not
+ * compared; they must be equal in every scenario.
+ */
+public class ComparisonResult {
+    /**
+     * The labels of the scenarios, in the order they were added.
+     */
+    private final String[] scenarios;
+
+    /**
+     * The index of the baseline scenario.
+     */
+    private final int baseline;
+
+    /**
+     * The results of the baseline scenario, providing the {@code int} rows.
+     */
+    private final Results baselineResults;
+
+    /**
+     * The names of the compared variables.
+     */
+    private final String[] variables;
+
+    /**
+     * The number of values of each variable.
+     */
+    private final int[] lengths;
+
+    /**
+     * Whether each variable was created by a script.
+     */
+    private final boolean[] scriptResults;
+
+    /**
+     * The values, absolute deltas and relative deltas of each variable, one matrix per variable.
+     */
+    private final double[][] values, deltas, relativeDeltas;
+
+    ComparisonResult(String[] scenarios, int baseline, Results[] results) {
+        this.scenarios = scenarios;
+        this.baseline = baseline;
+        this.baselineResults = results[baseline];
+
+        // index the variables, baseline first, and check that every scenario has the same shape
+        Map<String, Integer> index = new LinkedHashMap<>();
+        Map<String, Integer> lengthOf = new LinkedHashMap<>();
+        Map<String, Boolean> scriptResultOf = new LinkedHashMap<>();
+        for (int s : scenarioOrder(results.length, baseline)) {
+            Results scenario = results[s];
+            for (int row = 0; row < scenario.getRowCount(); row++) {
+                String name = scenario.getName(row);
+                if (scenario.isIntRow(row)) {
+                    checkSameIntRow(scenarios[s], scenario, row);
+                    continue;
+                }
+                Integer length = lengthOf.putIfAbsent(name, scenario.getLength(row));
+                if (length != null && length != scenario.getLength(row))
+                    throw new RuntimeException("Scenario " + scenarios[s] + " has " + scenario.getLength(row)
+                            + " values for " + name + ", expected " + length);
+                index.putIfAbsent(name, index.size());
+                scriptResultOf.putIfAbsent(name, scenario.isScriptResult(row));
+            }
+        }
+
+        int variableCount = index.size();
+        this.variables = index.keySet().toArray(new String[0]);
+        this.lengths = new int[variableCount];
+        this.scriptResults = new boolean[variableCount];
+        this.values = new double[variableCount][];
+        this.deltas = new double[variableCount][];
+        this.relativeDeltas = new double[variableCount][];
+        for (int v = 0; v < variableCount; v++) {
+            lengths[v] = lengthOf.get(variables[v]);
+            scriptResults[v] = scriptResultOf.get(variables[v]);
+            values[v] = new double[Math.multiplyExact(scenarios.length, lengths[v])];
+            Arrays.fill(values[v], Double.NaN);
+        }
+
+        for (int s = 0; s < results.length; s++) {
+            Results scenario = results[s];
+            for (int row = 0; row < scenario.getRowCount(); row++) {
+                if (!scenario.isIntRow(row)) {
+                    int v = index.get(scenario.getName(row));
+                    scenario.copyRow(row, values[v], s * lengths[v]);
+                }
+            }
+        }
+
+        for (int v = 0; v < variableCount; v++)
+            computeDeltas(v);
+    }
+
+    /**
+     * Fills the delta matrices of a variable in one pass over its values.
+     */
+    private void computeDeltas(int v) {
+        int L = lengths[v];
+        double[] x = values[v];
+        double[] delta = deltas[v] = new double[x.length];
+        double[] relative = relativeDeltas[v] = new double[x.length];
+
+        int base = baseline * L;
+        for (int from = 0; from < x.length; from += L) {
+            for (int t = 0; t < L; t++) {
+                double b = x[base + t];
+                double d = x[from + t] - b;
+                delta[from + t] = d;
+                // a zero baseline has no relative change unless the value is zero as well
+                relative[from + t] = b != 0 ? d / Math.abs(b) * 100 : d == 0 ? 0 : Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Returns the baseline first, followed by the other scenarios in order.
+     */
+    private static int[] scenarioOrder(int count, int baseline) {
+        int[] order = new int[count];
+        order[0] = baseline;
+        for (int s = 0, i = 1; s < count; s++) {
+            if (s != baseline)
+                order[i++] = s;
+        }
+        return order;
+    }
+
+    /**
+     * Checks that an {@code int} row of a scenario, such as the years, equals the row of the baseline.
+     */
+    private void checkSameIntRow(String scenario, Results results, int row) {
+        String name = results.getName(row);
+        for (int baseRow = 0; baseRow < baselineResults.getRowCount(); baseRow++) {
+            if (baselineResults.getName(baseRow).equals(name)) {
+                double[] expected = new double[baselineResults.getLength(baseRow)];
+                double[] actual = new double[results.getLength(row)];
+                baselineResults.copyRow(baseRow, expected, 0);
+                results.copyRow(row, actual, 0);
+                if (!Arrays.equals(expected, actual))
+                    throw new RuntimeException("Scenario " + scenario + " has different " + name + " than the baseline");
+                return;
+            }
+        }
+        throw new RuntimeException("Scenario " + scenario + " has " + name + " but the baseline has not");
+    }
+
+    /**
+     * Returns the labels of the scenarios.
+     *
+     * @return the scenario labels, in the order the scenarios were added.
+     */
+    public String[] getScenarios() {
+        return scenarios.clone();
+    }
+
+    /**
+     * Returns the index of the baseline scenario.
+     *
+     * @return the index of the baseline in {@link #getScenarios()}.
+     */
+    public int getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Returns the names of the compared variables.
+     *
+     * @return the variable names.
+     */
+    public String[] getVariables() {
+        return variables.clone();
+    }
+
+    /**
+     * Returns the number of values of a variable in every scenario.
+     *
+     * @param variable the name of the variable.
+     * @return the number of values, usually the number of years.
+     */
+    public int getLength(String variable) {
+        return lengths[indexOf(variable)];
+    }
+
+    /**
+     * Returns the value of a variable in a scenario.
+     *
+     * @param variable the name of the variable.
+     * @param scenario the index of the scenario.
+     * @param t        the year index.
+     * @return the value, or {@code NaN} if the scenario does not produce the variable.
+     */
+    public double get(String variable, int scenario, int t) {
+        int v = indexOf(variable);
+        return values[v][scenario * lengths[v] + t];
+    }
+
+    /**
+     * Returns the difference between the value of a variable in a scenario and in the baseline.
+     *
+     * @param variable the name of the variable.
+     * @param scenario the index of the scenario.
+     * @param t        the year index.
+     * @return the absolute delta.
+     */
+    public double getDelta(String variable, int scenario, int t) {
+        int v = indexOf(variable);
+        return deltas[v][scenario * lengths[v] + t];
+    }
+
+    /**
+     * Returns the difference between the value of a variable in a scenario and in the baseline, relative to the
+     * magnitude of the baseline value.
+     *
+     * @param variable the name of the variable.
+     * @param scenario the index of the scenario.
+     * @param t        the year index.
+     * @return the relative delta in percent, or {@code NaN} if the baseline value is zero and the value is not.
+     */
+    public double getRelativeDelta(String variable, int scenario, int t) {
+        int v = indexOf(variable);
+        return relativeDeltas[v][scenario * lengths[v] + t];
+    }
+
+    /**
+     * Writes the comparison as result rows: first the {@code int} rows of the baseline, then for every variable its
+     * baseline values and, for every other scenario, its values, absolute deltas and relative deltas, e.g.
+     * <pre>
+     * YEARS                        2015     2016 ...
+     * GDP [economyData.txt]        1,714,273.4 ...
+     * GDP [economyData2.txt]       ...
+     * GDP delta [economyData2.txt] ...
+     * GDP delta% [economyData2.txt] ...
+     * </pre>
+     * The rows are written straight from the matrices; nothing is formatted ahead of time.
+     *
+     * @param writer the target of the rows.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(ResultWriter writer) throws IOException {
+        for (int row = 0; row < baselineResults.getRowCount(); row++) {
+            if (baselineResults.isIntRow(row))
+                baselineResults.writeRow(row, writer);
+        }
+
+        for (int v = 0; v < variables.length; v++) {
+            int L = lengths[v];
+            int base = baseline * L;
+            writer.writeRow(variables[v] + " [" + scenarios[baseline] + "]", values[v], base, base + L, scriptResults[v]);
+
+            for (int s = 0; s < scenarios.length; s++) {
+                if (s == baseline)
+                    continue;
+                int from = s * L;
+                String label = " [" + scenarios[s] + "]";
+                writer.writeRow(variables[v] + label, values[v], from, from + L, scriptResults[v]);
+                writer.writeRow(variables[v] + " delta" + label, deltas[v], from, from + L, scriptResults[v]);
+                writer.writeRow(variables[v] + " delta%" + label, relativeDeltas[v], from, from + L, scriptResults[v]);
+            }
+        }
+        writer.flush();
+    }
+
+    private int indexOf(String variable) {
+        for (int v = 0; v < variables.length; v++) {
+            if (variables[v].equals(variable))
+                return v;
+        }
+        throw new IllegalArgumentException("Variable '" + variable + "' was not compared.");
+    }
+}
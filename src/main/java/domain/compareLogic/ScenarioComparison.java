@@ -0,0 +1,173 @@
+package domain.compareLogic;
+
+import domain.Controller;
+import domain.Results;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code ScenarioComparison} class runs one model with the same scripts over several data files and compares
+ * the results against a baseline.
+ *
+ * <p>Every scenario is read and run in its own {@link Controller} on a {@link ForkJoinPool}, through
+ * {@link Controller#runPipeline(String, String...)} so that scenarios run before are served from the result cache.
+ * The results of all scenarios are then gathered into a {@link ComparisonResult}, straight from the result arrays.
+ * For example:
+ * <pre>
+ * ComparisonResult result = new ScenarioComparison("EconomyModel")
+ *         .scenarios("./src/main/resources/data/economyData.txt", "./src/main/resources/data/economyData2.txt")
+ *         .scripts("./src/main/resources/scripts/economy_script.groovy")
+ *         .run();
+ * </pre>
+ * The first scenario is the baseline unless another one is chosen with {@link #baseline(String)}.
+ */
+public class ScenarioComparison {
+    /**
+     * The name of the model class in {@code data.models}.
+     */
+    private final String modelName;
+
+    /**
+     * The paths of the data files of the scenarios.
+     */
+    private final List<String> dataFiles = new ArrayList<>();
+
+    /**
+     * The paths of the scripts run after the model in every scenario.
+     */
+    private final List<String> scriptFiles = new ArrayList<>();
+
+    /**
+     * The data file of the baseline scenario, or {@code null} for the first scenario.
+     */
+    private String baseline;
+
+    /**
+     * The number of scenarios run concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a comparison of scenarios of the given model.
+     *
+     * @param modelName the name of the {@link data.Model} class to run.
+     */
+    public ScenarioComparison(String modelName) {
+        this.modelName = modelName;
+    }
+
+    /**
+     * Adds scenarios, one per data file.
+     *
+     * @param dataFiles the paths of the data files.
+     * @return the current {@code ScenarioComparison} instance for method chaining.
+     */
+    public ScenarioComparison scenarios(String... dataFiles) {
+        this.dataFiles.addAll(Arrays.asList(dataFiles));
+        return this;
+    }
+
+    /**
+     * Selects the scenario the others are compared against. Defaults to the first scenario.
+     *
+     * @param dataFile the path of the data file of the baseline, as passed to {@link #scenarios(String...)}.
+     * @return the current {@code ScenarioComparison} instance for method chaining.
+     */
+    public ScenarioComparison baseline(String dataFile) {
+        this.baseline = dataFile;
+        return this;
+    }
+
+    /**
+     * Adds scripts run after the model in every scenario, in order.
+     *
+     * @param scriptFiles the paths of the scripts.
+     * @return the current {@code ScenarioComparison} instance for method chaining.
+     */
+    public ScenarioComparison scripts(String... scriptFiles) {
+        this.scriptFiles.addAll(Arrays.asList(scriptFiles));
+        return this;
+    }
+
+    /**
+     * Sets the number of scenarios run concurrently. Defaults to the number of available processors.
+     *
+     * @param parallelism the number of worker threads.
+     * @return the current {@code ScenarioComparison} instance for method chaining.
+     */
+    public ScenarioComparison parallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Runs every scenario and compares the results.
+     *
+     * @return the results of all scenarios with their deltas against the baseline.
+     * @throws IllegalArgumentException if no scenario was added or the baseline is not one of them.
+     * @throws RuntimeException         if a scenario fails or the scenarios cover different years.
+     */
+    public ComparisonResult run() {
+        if (dataFiles.isEmpty())
+            throw new IllegalArgumentException("No scenarios to compare");
+
+        int baselineIndex = baseline == null ? 0 : dataFiles.indexOf(baseline);
+        if (baselineIndex < 0)
+            throw new IllegalArgumentException("The baseline " + baseline + " is not one of the scenarios");
+
+        String[] scripts = scriptFiles.toArray(new String[0]);
+        Results[] results = new Results[dataFiles.size()];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, results.length)
+                    .parallel()
+                    .forEach(s -> results[s] = runScenario(dataFiles.get(s), scripts)))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Comparison interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Comparison failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new ComparisonResult(labels(), baselineIndex, results);
+    }
+
+    /**
+     * Runs one scenario in its own controller.
+     */
+    private Results runScenario(String dataFile, String[] scripts) {
+        try {
+            return new Controller(modelName).runPipeline(dataFile, scripts).getResults();
+        } catch (RuntimeException e) {
+            throw new RuntimeException(dataFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Labels every scenario by the name of its data file, or by the full path if two data files share a name.
+     */
+    private String[] labels() {
+        String[] labels = new String[dataFiles.size()];
+        Set<String> names = new HashSet<>();
+        boolean unique = true;
+        for (int s = 0; s < labels.length; s++) {
+            labels[s] = Path.of(dataFiles.get(s)).getFileName().toString();
+            unique &= names.add(labels[s]);
+        }
+        return unique ? labels : dataFiles.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,49 @@
+package domain.metricsLogic;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The {@code CountingWriter} class passes characters through to another writer and counts them, to report the size
+ * of exported results.
+ */
+public final class CountingWriter extends FilterWriter {
+    private long count;
+
+    /**
+     * Constructs a counting writer.
+     *
+     * @param out the writer receiving the characters.
+     */
+    public CountingWriter(Writer out) {
+        super(out);
+    }
+
+    /**
+     * Returns the number of characters written so far.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+        count++;
+    }
+
+    @Override
+    public void write(char[] buffer, int off, int len) throws IOException {
+        out.write(buffer, off, len);
+        count += len;
+    }
+
+    @Override
+    public void write(String text, int off, int len) throws IOException {
+        out.write(text, off, len);
+        count += len;
+    }
+}
@@ -0,0 +1,136 @@
+package domain.metricsLogic;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Metrics} class aggregates the phase timings of all controllers in the process: for every {@link Phase}
+ * a {@link Histogram} of durations in nanoseconds and the total size processed.
+ *
+ * <p>Collection is off unless the {@code modelsim.metrics} system property is {@code true} or
+ * {@link #setEnabled(boolean)} turns it on; while it is off, timing a phase costs a single check. The summary can be
+ * printed at any time, e.g. after a headless run or from the GUI.
+ */
+public final class Metrics {
+    /**
+     * The system property that enables collection at startup.
+     */
+    public static final String ENABLED_PROPERTY = "modelsim.metrics";
+
+    private static final Metrics SHARED = new Metrics();
+
+    private final Map<Phase, Histogram> durations = new EnumMap<>(Phase.class);
+    private final Map<Phase, LongAdder> sizes = new EnumMap<>(Phase.class);
+
+    private volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private Metrics() {
+        for (Phase phase : Phase.values()) {
+            durations.put(phase, new Histogram());
+            sizes.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the registry shared by the whole process.
+     *
+     * @return the shared registry.
+     */
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Checks whether phase timings are collected.
+     *
+     * @return {@code true} if collection is on.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns collection on or off. Timings already collected are kept.
+     *
+     * @param enabled whether to collect phase timings.
+     * @return the current {@code Metrics} instance for method chaining.
+     */
+    public Metrics setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Records a finished phase.
+     *
+     * @param phase the phase.
+     * @param nanos the duration in nanoseconds.
+     * @param bytes the size processed, or 0 if not known.
+     */
+    public void record(Phase phase, long nanos, long bytes) {
+        durations.get(phase).record(nanos);
+        sizes.get(phase).add(bytes);
+    }
+
+    /**
+     * Returns the durations of a phase in nanoseconds.
+     *
+     * @param phase the phase.
+     * @return the live histogram of the phase.
+     */
+    public Histogram getDurations(Phase phase) {
+        return durations.get(phase);
+    }
+
+    /**
+     * Returns the total size processed in a phase.
+     *
+     * @param phase the phase.
+     * @return the size in bytes.
+     */
+    public long getBytes(Phase phase) {
+        return sizes.get(phase).sum();
+    }
+
+    /**
+     * Forgets all collected timings.
+     */
+    public void reset() {
+        for (Phase phase : Phase.values()) {
+            durations.get(phase).reset();
+            sizes.get(phase).reset();
+        }
+    }
+
+    /**
+     * Prints a table of the collected timings, one line per phase that has run, with durations in microseconds.
+     *
+     * @param out the target of the table.
+     */
+    public void print(PrintStream out) {
+        out.print(summary());
+    }
+
+    /**
+     * Returns the table printed by {@link #print(PrintStream)}.
+     *
+     * @return the summary, one line per phase.
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-15s %8s %10s %10s %10s %10s %10s %12s%n",
+                "phase", "count", "mean us", "p50 us", "p90 us", "p99 us", "max us", "bytes"));
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = durations.get(phase);
+            if (histogram.getCount() == 0)
+                continue;
+            text.append(String.format(Locale.ROOT, "%-15s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %12d%n",
+                    phase, histogram.getCount(), histogram.getMean() / 1e3,
+                    histogram.getPercentile(50) / 1e3, histogram.getPercentile(90) / 1e3,
+                    histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3, getBytes(phase)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package domain.metricsLogic;
+
+/**
+ * The phases of the simulation pipeline timed by {@link PhaseTimer}.
+ */
+public enum Phase {
+    /**
+     * Reading and parsing a data file.
+     */
+    READ,
+
+    /**
+     * Assigning parsed data to the fields of a model.
+     */
+    BIND,
+
+    /**
+     * Running a model, in full, incrementally or for a batch of scenarios.
+     */
+    RUN,
+
+    /**
+     * Compiling a script, or finding it in the script cache.
+     */
+    SCRIPT_COMPILE,
+
+    /**
+     * Executing a compiled script.
+     */
+    SCRIPT_EXECUTE,
+
+    /**
+     * Writing results.
+     */
+    EXPORT
+}
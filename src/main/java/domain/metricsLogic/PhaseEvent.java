@@ -0,0 +1,37 @@
+package domain.metricsLogic;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code PhaseEvent} class is the JDK Flight Recorder event emitted for every phase of the simulation pipeline.
+ *
+ * <p>The event is disabled unless a recording enables it, e.g. with
+ * {@code -XX:StartFlightRecording:settings=profile} or by enabling {@code modelsim.Phase} explicitly.
+ */
+@Name("modelsim.Phase")
+@Label("Simulation Phase")
+@Category("Model Simulation")
+@Description("A phase of reading, running or exporting a model")
+@StackTrace(false)
+final class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Model")
+    String model;
+
+    @Label("Years")
+    int years;
+
+    @Label("Variables")
+    int variables;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,88 @@
+package domain.metricsLogic;
+
+/**
+ * The {@code PhaseTimer} class times one run of a {@link Phase}, recording it in the shared {@link Metrics} and as a
+ * {@link PhaseEvent} for the JDK Flight Recorder, whichever is enabled.
+ *
+ * <p>When neither is enabled, {@link #start(Phase)} returns a shared inactive timer whose {@link #stop} does nothing,
+ * so instrumented code costs two checks per phase. Callers can test {@link #isActive()} to skip computing sizes
+ * that only the timer needs. For example:
+ * <pre>
+ * PhaseTimer timer = PhaseTimer.start(Phase.RUN);
+ * model.run();
+ * timer.stop(modelName, LL, 0, 0);
+ * </pre>
+ */
+public final class PhaseTimer {
+    /**
+     * Tells whether the event is enabled in a running recording; never committed.
+     */
+    private static final PhaseEvent PROBE = new PhaseEvent();
+
+    private static final PhaseTimer INACTIVE = new PhaseTimer(null, false, null);
+
+    private final Phase phase;
+    private final boolean collected;
+    private final PhaseEvent event;
+    private final long start;
+
+    private PhaseTimer(Phase phase, boolean collected, PhaseEvent event) {
+        this.phase = phase;
+        this.collected = collected;
+        this.event = event;
+        this.start = collected ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase the phase that begins.
+     * @return a timer to stop when the phase ends.
+     */
+    public static PhaseTimer start(Phase phase) {
+        boolean collected = Metrics.shared().isEnabled();
+        boolean recorded = PROBE.isEnabled();
+        if (!collected && !recorded)
+            return INACTIVE;
+
+        PhaseEvent event = null;
+        if (recorded) {
+            event = new PhaseEvent();
+            event.begin();
+        }
+        return new PhaseTimer(phase, collected, event);
+    }
+
+    /**
+     * Checks whether stopping this timer records anything.
+     *
+     * @return {@code false} for the timer returned while instrumentation is disabled.
+     */
+    public boolean isActive() {
+        return this != INACTIVE;
+    }
+
+    /**
+     * Stops the timer and records the phase.
+     *
+     * @param model     the name of the model, or {@code null} if not known.
+     * @param years     the number of years processed.
+     * @param variables the number of variables processed.
+     * @param bytes     the size processed, or 0 if not known.
+     */
+    public void stop(String model, int years, int variables, long bytes) {
+        if (collected)
+            Metrics.shared().record(phase, System.nanoTime() - start, bytes);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.model = model;
+                event.years = years;
+                event.variables = variables;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+}
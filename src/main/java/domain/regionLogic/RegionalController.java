@@ -0,0 +1,308 @@
+package domain.regionLogic;
+
+import data.ScenarioBatch;
+import data.exceptions.NoFieldException;
+import domain.BindingPlan;
+import domain.Controller;
+import domain.DataFileParser;
+import domain.ModelRegistry;
+import domain.ParsedData;
+import domain.ResultFormat;
+import domain.ResultWriter;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code RegionalController} class runs one model over panel data, i.e. the same variables for many regions.
+ *
+ * <p>The data of all regions is held in a single {@link ScenarioBatch} with one scenario per region: every variable
+ * is one contiguous block in which the values of all regions for one year are adjacent. Running the model splits the
+ * regions into one range per worker thread. Models that implement {@link data.BatchedModel} advance their range of
+ * the block in place; other models run once per region in their own {@link Controller}, and their results are
+ * written back into the block. For example:
+ * <pre>
+ * RegionalController regions = new RegionalController("EconomyModel")
+ *         .readDataFrom("regions.txt")
+ *         .runModel();
+ * double[] nationalGdp = regions.aggregate("GDP");
+ * </pre>
+ * Data files use {@code VAR@REGION} rows as described in {@link ParsedData}. Scripts are not supported for panel
+ * data; run them on a single region through {@link Controller}.
+ */
+public class RegionalController {
+    /**
+     * The name of the model class in {@code data.models}.
+     */
+    private final String modelName;
+
+    /**
+     * The controller used to create and run batches of the model.
+     */
+    private final Controller controller;
+
+    /**
+     * The variables computed by the model, whose totals over all regions are written with the results.
+     */
+    private final Set<String> computed = new HashSet<>();
+
+    /**
+     * The data of every region, kept to run models that do not support batches.
+     */
+    private List<ParsedData> regionData = List.of();
+
+    /**
+     * The names of the regions, in file order.
+     */
+    private List<String> regions = List.of();
+
+    /**
+     * The values of all variables of all regions; one scenario per region.
+     */
+    private ScenarioBatch panel;
+
+    /**
+     * The number of regions run concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a {@code RegionalController} for the specified model.
+     *
+     * @param modelName the name of the {@link data.Model} class to run.
+     * @throws RuntimeException if the model cannot be created.
+     */
+    public RegionalController(String modelName) {
+        this.modelName = modelName;
+        this.controller = new Controller(modelName);
+
+        // inputs such as growth rates have no meaningful sum; a field depending only on itself is an input too
+        for (BindingPlan.BoundField field : BindingPlan.of(ModelRegistry.getModelClass(modelName)).fields()) {
+            if (field.dependencies().stream().anyMatch(dependency -> !dependency.equals(field.name())))
+                computed.add(field.name());
+        }
+    }
+
+    /**
+     * Sets the number of regions run concurrently. Defaults to the number of available processors.
+     *
+     * @param parallelism the number of worker threads.
+     * @return the current {@code RegionalController} instance for method chaining.
+     */
+    public RegionalController parallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Reads panel data from a file.
+     *
+     * @param fname the name of the input file.
+     * @return the current {@code RegionalController} instance for method chaining.
+     * @throws RuntimeException if the file cannot be read or holds no regional rows.
+     */
+    public RegionalController readDataFrom(String fname) {
+        ParsedData data;
+        try {
+            data = DataFileParser.parse(Path.of(fname));
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading data file: " + fname + ". " + e.getMessage());
+        }
+        return readData(data);
+    }
+
+    /**
+     * Loads panel data that has already been parsed.
+     *
+     * @param data the parsed content of a data file with {@code VAR@REGION} rows.
+     * @return the current {@code RegionalController} instance for method chaining.
+     * @throws RuntimeException if the data holds no regional rows.
+     */
+    public RegionalController readData(ParsedData data) {
+        if (data.getRegions().isEmpty())
+            throw new RuntimeException("Data has no regional rows; expected names of the form VAR"
+                    + ParsedData.REGION_SEPARATOR + "REGION");
+
+        regions = data.getRegions();
+        regionData = regions.stream().map(data::forRegion).toList();
+        panel = controller.newBatch(regionData);
+        return this;
+    }
+
+    /**
+     * Runs the model for every region, in parallel.
+     *
+     * @return the current {@code RegionalController} instance for method chaining.
+     * @throws RuntimeException if no data was loaded or a region fails.
+     */
+    public RegionalController runModel() {
+        loadedPanel();
+        int regionCount = regions.size();
+        int chunks = Math.min(parallelism, regionCount);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            if (controller.supportsBatches()) {
+                pool.submit(() -> IntStream.range(0, chunks)
+                        .parallel()
+                        .forEach(chunk -> controller.runBatch(panel.range(regionCount * chunk / chunks,
+                                regionCount * (chunk + 1) / chunks))))
+                        .get();
+            } else {
+                pool.submit(() -> IntStream.range(0, regionCount)
+                        .parallel()
+                        .forEach(this::runRegion))
+                        .get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Regional run interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Regional run failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return this;
+    }
+
+    /**
+     * Runs one region in its own controller and copies its results into the panel.
+     */
+    private void runRegion(int region) {
+        Controller regionController = new Controller(modelName).readData(regionData.get(region)).runModel();
+        for (String name : panel.getVariableNames())
+            panel.set(name, region, regionController.getVariable(name));
+    }
+
+    /**
+     * Returns the regions of the loaded data.
+     *
+     * @return the region names in file order.
+     */
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the values of a variable in all regions, in the layout described by {@link ScenarioBatch}: the value
+     * of region {@code r} in year {@code t} is at index {@code t * getRegions().size() + r}.
+     *
+     * @param name the name of the variable.
+     * @return the values; the returned array is not a copy.
+     * @throws NoFieldException if there is no such variable.
+     */
+    public double[] getBlock(String name) {
+        return loadedPanel().get(name);
+    }
+
+    /**
+     * Returns the series of a variable in one region.
+     *
+     * @param name   the name of the variable.
+     * @param region the name of the region.
+     * @return a copy of the series.
+     * @throws NoFieldException if there is no such variable or region.
+     */
+    public double[] getSeries(String name, String region) {
+        int index = regions.indexOf(region);
+        if (index < 0)
+            throw new NoFieldException("Region '" + region + "' is not present in the data.");
+        return loadedPanel().getSeries(name, index);
+    }
+
+    /**
+     * Sums a variable over all regions, reading the panel in place. The sum is meaningful for quantities computed by
+     * the model, such as {@code GDP}, but not for inputs such as growth rates.
+     *
+     * @param name the name of the variable.
+     * @return the total of every year.
+     * @throws NoFieldException if there is no such variable.
+     */
+    public double[] aggregate(String name) {
+        double[] totals = new double[loadedPanel().getLL()];
+        aggregate(name, totals);
+        return totals;
+    }
+
+    /**
+     * Sums a variable over all regions into the given array.
+     */
+    private void aggregate(String name, double[] totals) {
+        double[] block = panel.get(name);
+        int regionCount = regions.size();
+        for (int t = 0; t < totals.length; t++) {
+            int row = panel.index(t, 0);
+            double total = 0;
+            for (int r = 0; r < regionCount; r++)
+                total += block[row + r];
+            totals[t] = total;
+        }
+    }
+
+    /**
+     * Returns the results as tab-separated values.
+     *
+     * @return the results in the format described by {@link #writeResults(Writer, ResultFormat)}.
+     */
+    public String getResultsAsTsv() {
+        StringWriter out = new StringWriter();
+        writeResults(out, ResultFormat.TSV);
+        return out.toString();
+    }
+
+    /**
+     * Streams the results to a writer.
+     *
+     * <p>The first row holds the years. Every variable follows with one {@code VAR@REGION} row per region. A variable
+     * computed by the model, i.e. one with a {@link data.annotations.DependsOn} on some other field, is preceded by
+     * its total over all regions under the plain variable name; inputs such as growth rates have no total row. The
+     * writer is flushed but not closed.
+     *
+     * @param out    the target of the rows.
+     * @param format the number format of the values.
+     * @return the current {@code RegionalController} instance for method chaining.
+     * @throws RuntimeException if writing fails.
+     */
+    public RegionalController writeResults(Writer out, ResultFormat format) {
+        loadedPanel();
+        try {
+            ResultWriter writer = new ResultWriter(out, format);
+            writer.writeRow("YEARS", panel.getYears());
+
+            double[] row = new double[panel.getLL()];
+            for (String name : panel.getVariableNames()) {
+                if (computed.contains(name)) {
+                    aggregate(name, row);
+                    writer.writeRow(name, row, false);
+                }
+
+                double[] block = panel.get(name);
+                for (int r = 0; r < regions.size(); r++) {
+                    for (int t = 0; t < row.length; t++)
+                        row[t] = block[panel.index(t, r)];
+                    writer.writeRow(name + ParsedData.REGION_SEPARATOR + regions.get(r), row, false);
+                }
+            }
+            writer.flush();
+        } catch (Exception e) {
+            throw new RuntimeException("Error writing results: " + e.getMessage());
+        }
+        return this;
+    }
+
+    private ScenarioBatch loadedPanel() {
+        if (panel == null)
+            throw new RuntimeException("No data loaded for model " + modelName);
+        return panel;
+    }
+}
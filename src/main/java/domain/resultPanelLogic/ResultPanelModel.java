@@ -2,34 +2,19 @@ package domain.resultPanelLogic;
 
 import data.ResultPanelContract;
 import domain.Controller;
+import domain.ScriptBudget;
 
 /**
  * The {@code ResultPanelModel} class provides the core logic for handling data
  * and executing scripts based on the requirements of a result panel.
  * It implements the {@link ResultPanelContract.Model} interface to ensure compatibility
  * with other necessary modules.
+ *
+ * <p>Scripts run with the {@link ScriptBudget#DEFAULT} budget, so that a runaway script fails
+ * instead of occupying a worker thread and the heap of the whole application.
  */
 public class ResultPanelModel implements ResultPanelContract.Model {
 
-    /**
-     * Parses a string containing tab-separated values (TSV) data into a
-     * two-dimensional string array. Each row is split by a newline character
-     * and individual fields are split by tab characters.
-     *
-     * @param tsvData The input string in TSV format.
-     * @return A two-dimensional string array representing the parsed data.
-     */
-    @Override
-    public String[][] parseTSV(String tsvData) {
-        // Parsing a TSV string into a two-dimensional array
-        String[] rows = tsvData.split("\n");
-        String[][] result = new String[rows.length][];
-        for (int i = 0; i < rows.length; i++) {
-            result[i] = rows[i].split("\t");
-        }
-        return result;
-    }
-
     /**
      * Executes a script stored in a file. The provided {@link Controller} object
      * handles the actual execution of the file's contents.
@@ -39,7 +24,7 @@ public class ResultPanelModel implements ResultPanelContract.Model {
      */
     @Override
     public void executeScriptFromFile(String scriptPath, Controller controller) {
-        controller.runScriptFromFile(scriptPath);
+        controller.setScriptBudget(ScriptBudget.DEFAULT).runScriptFromFile(scriptPath);
     }
 
     /**
@@ -51,6 +36,6 @@ public class ResultPanelModel implements ResultPanelContract.Model {
      */
     @Override
     public void executeAdHocScript(String scriptCode, Controller controller) {
-        controller.runScript(scriptCode);
+        controller.setScriptBudget(ScriptBudget.DEFAULT).runScript(scriptCode);
     }
 }
\ No newline at end of file
@@ -2,6 +2,18 @@ package domain.resultPanelLogic;
 
 import data.ResultPanelContract;
 import domain.Controller;
+import domain.DataCache;
+import domain.ResultCache;
+import domain.Results;
+import domain.SimulationExecutor;
+import domain.metricsLogic.Metrics;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 /**
  * The ResultPanelPresenter class implements the presenter logic for the result panel.
@@ -20,21 +32,49 @@ public class ResultPanelPresenter implements ResultPanelContract.Presenter {
      */
     private final ResultPanelContract.Model model;
 
+    /**
+     * The executor running scripts away from the event dispatch thread.
+     */
+    private final SimulationExecutor executor;
+
+    /**
+     * The script runs started by this presenter that may still be in flight.
+     */
+    private final List<SimulationExecutor.RunHandle> runs = new ArrayList<>();
+
     /**
      * The controller instance for managing interactions with models via the result panel.
      * (Transmitted via ModelPanel)
      */
     private Controller controller; //Transmitted via SelectionPanelPresenter
 
+    /**
+     * The last script run on the current controller, run again when its inputs are reloaded, or {@code null}.
+     */
+    private Consumer<Controller> lastScript;
+
+    /**
+     * The absolute path of the last script if it was run from a file, or {@code null}.
+     */
+    private Path lastScriptFile;
+
+    /**
+     * The rerun of the last script after a reload, cancelled when a newer reload supersedes it.
+     */
+    private SimulationExecutor.RunHandle reloadRun;
+
     /**
      * Constructor for initializing the ResultPanelPresenter with the provided view and model.
      *
-     * @param view  the view interface for the result panel
-     * @param model the model interface for data processing and script execution
+     * @param view     the view interface for the result panel
+     * @param model    the model interface for data processing and script execution
+     * @param executor the executor running the scripts
      */
-    public ResultPanelPresenter(ResultPanelContract.View view, ResultPanelContract.Model model) {
+    public ResultPanelPresenter(ResultPanelContract.View view, ResultPanelContract.Model model,
+                                SimulationExecutor executor) {
         this.view = view;
         this.model = model;
+        this.executor = executor;
         this.view.setPresenter(this);
     }
 
@@ -46,58 +86,154 @@ public class ResultPanelPresenter implements ResultPanelContract.Presenter {
     @Override
     public void setController(Controller controller) {
         this.controller = controller;
+        this.lastScript = null;
+        this.lastScriptFile = null;
+    }
+
+    /**
+     * Replaces the current controller by one whose inputs were reloaded, keeping the last script. If a script was
+     * run, it is run again on the new controller and its results are shown; otherwise the given results are shown.
+     *
+     * @param controller the controller with the reloaded inputs
+     * @param results    the results of the reloaded model
+     */
+    @Override
+    public void reloadController(Controller controller, Results results) {
+        this.controller = controller;
+        if (lastScript == null) {
+            updateResultsTable(results);
+        } else {
+            rerunLastScript();
+        }
+    }
+
+    /**
+     * Runs the last script again if it was run from one of the changed files.
+     *
+     * @param scriptFiles the absolute, normalized paths of the script files that changed
+     */
+    @Override
+    public void onScriptFilesChanged(Set<Path> scriptFiles) {
+        if (lastScriptFile != null && scriptFiles.contains(lastScriptFile)) {
+            rerunLastScript();
+        }
     }
 
     /**
-     * Executes a script located at the specified file path using the current controller.
+     * Executes a script located at the specified file path using the current controller in the background.
      * Updates the results table and displays appropriate messages upon success or failure.
      *
      * @param scriptPath the file path to the script to execute
      */
     @Override
     public void onRunScript(String scriptPath) {
-        try {
-            model.executeScriptFromFile(scriptPath, controller);
-            view.notifyScriptExecution("Script executed successfully!");
-            updateResultsTable(controller.getResultsAsTsv());
-            controller.resetScriptVariables();
-        } catch (Exception e) {
-            view.showError("Failed to execute script: " + e.getMessage());
+        Consumer<Controller> script = controller -> model.executeScriptFromFile(scriptPath, controller);
+        if (runScript(script, "Script executed successfully!", "Failed to execute script: ") != null) {
+            lastScript = script;
+            lastScriptFile = Path.of(scriptPath).toAbsolutePath().normalize();
         }
     }
 
     /**
-     * Executes an ad-hoc script provided as a string using the current controller.
+     * Executes an ad-hoc script provided as a string using the current controller in the background.
      * Updates the results table and displays appropriate messages upon success or failure.
      *
      * @param scriptCode the code of the script to execute
      */
     @Override
     public void onCreateAndRunScript(String scriptCode) {
-        try {
-            model.executeAdHocScript(scriptCode, controller);
-            view.notifyScriptExecution("Ad-hoc script executed successfully!");
-            updateResultsTable(controller.getResultsAsTsv());
-            controller.resetScriptVariables();
-        } catch (Exception e) {
-            view.showError("Failed to execute ad-hoc script: " + e.getMessage());
+        Consumer<Controller> script = controller -> model.executeAdHocScript(scriptCode, controller);
+        if (runScript(script, "Ad-hoc script executed successfully!", "Failed to execute ad-hoc script: ") != null) {
+            lastScript = script;
+            lastScriptFile = null;
         }
     }
 
     /**
-     * Updates the results table in the view using data in TSV (Tab-Separated Values) format.
+     * Cancels every script run of this presenter that is still in flight.
+     */
+    @Override
+    public void onCancelClicked() {
+        runs.forEach(SimulationExecutor.RunHandle::cancel);
+        runs.clear();
+    }
+
+    /**
+     * Shows the phase timings collected so far by all controllers and the data and result cache counters.
+     */
+    @Override
+    public void onShowMetricsClicked() {
+        view.showMetrics(Metrics.shared().summary() + "\n" + DataCache.shared().summary()
+                + ResultCache.shared().summary());
+    }
+
+    /**
+     * Runs the last script again on the current controller without a success dialog; failures are shown in the
+     * status line only, since a script that is being edited is often briefly broken. A rerun still in flight is
+     * cancelled first, so a burst of reloads leads to a single rerun.
+     */
+    private void rerunLastScript() {
+        if (reloadRun != null) {
+            reloadRun.cancel();
+        }
+        reloadRun = runScript(lastScript, null, "Script reload failed: ");
+    }
+
+    /**
+     * Runs a script on the current controller in the background and shows its results when it finishes.
+     * Scripts on the same controller run one at a time.
+     *
+     * @param execution      runs the script on the controller
+     * @param successMessage the message shown after a successful run, or {@code null} for a quiet rerun
+     * @param failurePrefix  the prefix of the message shown after a failed run
+     * @return the submitted run, or {@code null} if no model has been run yet
+     */
+    private SimulationExecutor.RunHandle runScript(Consumer<Controller> execution, String successMessage, String failurePrefix) {
+        Controller target = controller;
+        if (target == null) {
+            view.showError("Please run a model first.");
+            return null;
+        }
+
+        runs.removeIf(SimulationExecutor.RunHandle::isDone);
+        SimulationExecutor.RunHandle run = executor.submit(progress -> {
+            synchronized (target) {
+                progress.report("Running script...");
+                execution.accept(target);
+
+                Results results = target.getResults();
+                target.resetScriptVariables();
+                return results;
+            }
+        }, view::showProgress, results -> {
+            view.showProgress("Script finished");
+            if (successMessage != null) {
+                view.notifyScriptExecution(successMessage);
+            }
+            updateResultsTable(results);
+        }, e -> {
+            if (e instanceof CancellationException) {
+                view.showProgress("Script cancelled");
+            } else if (successMessage == null) {
+                view.showProgress(failurePrefix + e.getMessage());
+            } else {
+                view.showProgress("Script failed");
+                view.showError(failurePrefix + e.getMessage());
+            }
+        });
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Updates the results table in the view. The first result row provides the column names.
      *
-     * @param tsvData the TSV data to process and display in the results table
+     * @param results the results to display in the results table
      */
     @Override
-    public void updateResultsTable(String tsvData) {
-        String[][] data = model.parseTSV(tsvData);
-        if (data.length > 0) {
-            String[] columnNames = data[0]; // Column names in the first row
-            String[][] rows = new String[data.length - 1][];
-            System.arraycopy(data, 1, rows, 0, data.length - 1);
-
-            view.displayResults(rows, columnNames);
+    public void updateResultsTable(Results results) {
+        if (results.getRowCount() > 0) {
+            view.displayResults(results);
         }
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package domain.selectionPanelLogic;
 
 import data.SelectionPanelContract;
 import domain.Controller;
+import domain.ModelRegistry;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -9,25 +10,20 @@ import java.util.List;
 
 /**
  * Implementation of the {@link SelectionPanelContract.Model} interface.
- * This class provides functionality for retrieving model and data files
- * from specified directories and creating a {@link Controller} instance.
+ * This class provides functionality for listing the models of the
+ * {@link ModelRegistry}, retrieving data files from a directory and
+ * creating a {@link Controller} instance.
  */
 public class SelectionPanelModel implements SelectionPanelContract.Model {
 
     /**
-     * Retrieves the list of model files from the specified directory.
+     * Retrieves the names of the models indexed at build time.
      *
-     * @param modelsPath The path to the directory containing model files.
-     * @return An array of file names found in the specified directory.
+     * @return An array of model names, sorted.
      */
     @Override
-    public String[] getModelFiles(String modelsPath) {
-        String[] modelFiles = getFilesFromDirectory(modelsPath);
-
-        for (int i = 0; i < modelFiles.length; i++)
-            modelFiles[i] = modelFiles[i].replace(".java", "");
-
-        return modelFiles;
+    public String[] getModelNames() {
+        return ModelRegistry.getModelNames();
     }
 
     /**
@@ -3,6 +3,19 @@ package domain.selectionPanelLogic;
 import data.SelectionPanelContract;
 import data.ResultPanelContract;
 import domain.Controller;
+import domain.DataCache;
+import domain.ModelRegistry;
+import domain.Results;
+import domain.SimulationExecutor;
+import domain.watchLogic.InputWatcher;
+
+import javax.swing.SwingUtilities;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 /**
  * Presenter for managing the logic between the ModelPanel view and its underlying data model.
@@ -20,6 +33,16 @@ public class SelectionPanelPresenter implements SelectionPanelContract.Presenter
      */
     private final SelectionPanelContract.Model model;
 
+    /**
+     * The executor running models away from the event dispatch thread.
+     */
+    private final SimulationExecutor executor;
+
+    /**
+     * The runs started by this presenter that may still be in flight.
+     */
+    private final List<SimulationExecutor.RunHandle> runs = new ArrayList<>();
+
     /**
      * The controller for the selected model, responsible for handling data and executing the model.
      */
@@ -40,22 +63,61 @@ public class SelectionPanelPresenter implements SelectionPanelContract.Presenter
      */
     private ResultPanelContract.Presenter resultPanelPresenter;
 
+    /**
+     * The watcher of the data and script directories, or {@code null} while the inputs are not watched.
+     */
+    private InputWatcher watcher;
+
+    /**
+     * The watched data directory, absolute and normalized.
+     */
+    private Path dataDirectory;
+
+    /**
+     * The watched script directory, absolute and normalized.
+     */
+    private Path scriptsDirectory;
+
+    /**
+     * The model of the run shown in the ResultPanel, or {@code null} before the first run.
+     */
+    private String shownModel;
+
+    /**
+     * The absolute data file of the run shown in the ResultPanel, or {@code null} before the first run.
+     */
+    private Path shownDataFile;
+
+    /**
+     * The rerun of the shown model after its data file changed, cancelled when a newer change supersedes it.
+     */
+    private SimulationExecutor.RunHandle reloadRun;
+
+    /**
+     * The number of runs and reruns started so far; only the results of the latest one are shown, since an older run
+     * may finish after a newer one.
+     */
+    private long latestRun;
+
     /**
      * Constructs a SelectionPanelPresenter with the specified view and model.
      *
-     * @param view  The view interface for handling UI operations.
-     * @param model The model interface for data-related operations.
+     * @param view     The view interface for handling UI operations.
+     * @param model    The model interface for data-related operations.
+     * @param executor The executor running the models.
      */
-    public SelectionPanelPresenter(SelectionPanelContract.View view, SelectionPanelContract.Model model) {
+    public SelectionPanelPresenter(SelectionPanelContract.View view, SelectionPanelContract.Model model,
+                                   SimulationExecutor executor) {
         this.view = view;
         this.model = model;
+        this.executor = executor;
         this.view.setPresenter(this);
     }
 
     /**
      * Handles the event when a model is selected by the user.
      *
-     * @param modelName The name of the model file selected by the user.
+     * @param modelName The name of the model selected by the user, as listed by {@link ModelRegistry}.
      */
     @Override
     public void onModelSelected(String modelName) {
@@ -74,7 +136,9 @@ public class SelectionPanelPresenter implements SelectionPanelContract.Presenter
 
     /**
      * Executes the selected model with the selected data file when the "Run Model" button is clicked.
-     * It validates user inputs, handles errors, and updates the ResultPanel with the model's outputs.
+     * It validates user inputs, then reads the data and runs the model in the background; once the run is
+     * finished it updates the ResultPanel with the model's outputs or reports the error. A run that finishes after a
+     * later run was started is not shown.
      */
     @Override
     public void onRunModelClicked() {
@@ -83,34 +147,81 @@ public class SelectionPanelPresenter implements SelectionPanelContract.Presenter
             return;
         }
 
-        try {
-            currentController = model.createController(selectedModel.replace(".java", ""));
-            currentController.readDataFrom("./src/main/resources/data/" + selectedData);
-            currentController.runModel();
-            String output = currentController.getResultsAsTsv(); // Model returns TSV line
+        String modelName = selectedModel;
+        String dataFile = selectedData;
 
-            // We pass the Controller and display the results in the second panel
-            if (resultPanelPresenter != null) {
-                resultPanelPresenter.setController(currentController);
-                resultPanelPresenter.updateResultsTable(output); // Update table with results
+        long run = ++latestRun;
+        runs.removeIf(SimulationExecutor.RunHandle::isDone);
+        runs.add(executor.submit(progress -> {
+            progress.report("Running " + modelName + " on " + dataFile + "...");
+            Controller controller = model.createController(modelName);
+            // the parsed file comes from the data cache, and repeated runs from the result cache
+            controller.runPipeline("./src/main/resources/data/" + dataFile);
+
+            return new ModelRun(modelName, Path.of("./src/main/resources/data/", dataFile), controller,
+                    controller.getResults());
+        }, view::showProgress, result -> {
+            if (run == latestRun) {
+                showModelRun(result);
             }
+        }, e -> {
+            if (e instanceof CancellationException) {
+                view.showProgress("Run cancelled");
+            } else {
+                view.showProgress("Run failed");
+                view.showError("Error running model: " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Cancels every model run of this presenter that is still in flight.
+     */
+    @Override
+    public void onCancelClicked() {
+        runs.forEach(SimulationExecutor.RunHandle::cancel);
+        runs.clear();
+    }
+
+    /**
+     * Loads the available models and the data file names from the specified path into the view, and starts parsing
+     * all data files in parallel in the background, so that a run finds its file already in the {@link DataCache}.
+     *
+     * @param dataPath The directory path to the available data files.
+     */
+    @Override
+    public void loadModelData(String dataPath) {
+        String[] dataFiles = model.getDataFiles(dataPath);
+        view.showModelsList(model.getModelNames());
+        view.showDataList(dataFiles);
 
-            view.showModelRunSuccessfully();
-        } catch (Exception e){
-            view.showError("Error running model: " + e.getMessage());
+        List<Path> paths = new ArrayList<>();
+        for (String dataFile : dataFiles) {
+            paths.add(Path.of(dataPath, dataFile));
         }
+        DataCache.shared().preload(paths);
     }
 
     /**
-     * Loads available models and data file names from the specified paths into the view.
+     * Watches the data and script directories. Data files appearing or disappearing are added to or removed from the
+     * data list; when the data file of the shown run changes, only that file is parsed again and the model and the
+     * last script are rerun; when the last script file changes, the script is rerun. Bursts of writes are coalesced
+     * by the watcher, and a rerun still in flight is cancelled by the next one.
      *
-     * @param modelsPath The directory path to the available model files.
-     * @param dataPath   The directory path to the available data files.
+     * @param dataPath    The directory path to the available data files.
+     * @param scriptsPath The directory path to the scripts.
      */
     @Override
-    public void loadModelData(String modelsPath, String dataPath) {
-        view.showModelsList(model.getModelFiles(modelsPath));
-        view.showDataList(model.getDataFiles(dataPath));
+    public void watchInputs(String dataPath, String scriptsPath) {
+        if (watcher != null) {
+            watcher.close();
+        }
+        dataDirectory = Path.of(dataPath).toAbsolutePath().normalize();
+        scriptsDirectory = Path.of(scriptsPath).toAbsolutePath().normalize();
+        watcher = new InputWatcher(changes -> SwingUtilities.invokeLater(() -> onInputsChanged(changes)))
+                .watch(dataDirectory)
+                .watch(scriptsDirectory)
+                .start();
     }
 
     /**
@@ -123,5 +234,121 @@ public class SelectionPanelPresenter implements SelectionPanelContract.Presenter
         this.resultPanelPresenter = resultPanelPresenter;
     }
 
+    /**
+     * Passes a finished run to the ResultPanel and informs the user. Called on the event dispatch thread.
+     *
+     * @param run The controller of the run and its results.
+     */
+    private void showModelRun(ModelRun run) {
+        currentController = run.controller();
+        shownModel = run.modelName();
+        shownDataFile = run.dataFile().toAbsolutePath().normalize();
+
+        // We pass the Controller and display the results in the second panel
+        if (resultPanelPresenter != null) {
+            resultPanelPresenter.setController(currentController);
+            resultPanelPresenter.updateResultsTable(run.results()); // Update table with results
+        }
+
+        view.showProgress("Model run finished");
+        view.showModelRunSuccessfully();
+    }
+
+    /**
+     * Applies a burst of changes to the watched directories. Called on the event dispatch thread.
+     *
+     * @param changes The coalesced changes.
+     */
+    private void onInputsChanged(InputWatcher.Changes changes) {
+        if (changes.overflowed()) {
+            view.showDataList(model.getDataFiles(dataDirectory.toString()));
+        }
+        for (Path file : changes.created()) {
+            if (file.getParent().equals(dataDirectory)) {
+                view.addDataFile(file.getFileName().toString());
+            }
+        }
+        for (Path file : changes.modified()) {
+            if (file.getParent().equals(dataDirectory)) {
+                DataCache.shared().invalidate(file);
+            }
+        }
+        for (Path file : changes.deleted()) {
+            if (file.getParent().equals(dataDirectory)) {
+                DataCache.shared().invalidate(file);
+                String name = file.getFileName().toString();
+                view.removeDataFile(name);
+                if (name.equals(selectedData)) {
+                    selectedData = null;
+                }
+            }
+        }
+
+        if (shownDataFile != null && (changes.overflowed() || changes.isChanged(shownDataFile))) {
+            // the reloaded model reruns the last script as well
+            reloadModel();
+        } else if (resultPanelPresenter != null) {
+            Set<Path> scriptFiles = new LinkedHashSet<>();
+            for (Path file : changes.created()) {
+                if (file.getParent().equals(scriptsDirectory)) scriptFiles.add(file);
+            }
+            for (Path file : changes.modified()) {
+                if (file.getParent().equals(scriptsDirectory)) scriptFiles.add(file);
+            }
+            if (!scriptFiles.isEmpty()) {
+                resultPanelPresenter.onScriptFilesChanged(scriptFiles);
+            }
+        }
+    }
+
+    /**
+     * Reruns the shown model on its data file, which is parsed again, and passes the new controller to the
+     * ResultPanel without a success dialog. An unchanged file is served from the result cache.
+     */
+    private void reloadModel() {
+        if (reloadRun != null) {
+            reloadRun.cancel();
+        }
+        String modelName = shownModel;
+        Path dataFile = shownDataFile;
+
+        long reload = ++latestRun;
+        runs.removeIf(SimulationExecutor.RunHandle::isDone);
+        reloadRun = executor.submit(progress -> {
+            progress.report("Reloading " + dataFile.getFileName() + "...");
+            Controller controller = model.createController(modelName);
+            controller.runPipeline(dataFile.toString());
+
+            return new ModelRun(modelName, dataFile, controller, controller.getResults());
+        }, view::showProgress, run -> {
+            if (reload != latestRun) {
+                return;
+            }
+            currentController = run.controller();
+            if (resultPanelPresenter != null) {
+                resultPanelPresenter.reloadController(currentController, run.results());
+            }
+            view.showProgress("Reloaded " + dataFile.getFileName());
+        }, e -> {
+            if (e instanceof CancellationException) {
+                view.showProgress("Reload cancelled");
+            } else {
+                // the file is often briefly invalid while it is being edited
+                view.showProgress("Reload failed: " + e.getMessage());
+            }
+        });
+        runs.add(reloadRun);
+    }
+
+    /**
+     * The outcome of a model run, handed from the background thread to the event dispatch thread.
+     *
+     * @param modelName  The name of the model.
+     * @param dataFile   The data file the model was run on.
+     * @param controller The controller holding the model state.
+     * @param results    The results of the model.
+     */
+    private record ModelRun(String modelName, Path dataFile, Controller controller, Results results) { }
+
 
 }
\ No newline at end of file
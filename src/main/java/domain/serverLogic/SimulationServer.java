@@ -0,0 +1,383 @@
+package domain.serverLogic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import data.Paths;
+import domain.Controller;
+import domain.DataFileParser;
+import domain.ParsedData;
+import domain.ResultCache;
+import domain.ResultFormat;
+import domain.ScriptBudget;
+import domain.metricsLogic.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code SimulationServer} class exposes model runs over HTTP, using the JDK's built-in {@link HttpServer}.
+ *
+ * <p>The server has a single endpoint:
+ * <pre>
+ * POST /run/{model}?scripts=a.groovy,b.groovy&amp;format=full
+ * </pre>
+ * The request body is the content of a data file. The model is run on it in a new {@link Controller}, followed by
+ * the named scripts from the scripts directory, and the results are streamed back as tab-separated values through
+ * {@link Controller#writeResults(OutputStream, ResultFormat)}; {@code format=full} selects
+ * {@link ResultFormat#FULL_PRECISION}. Only scripts installed on the server can be run. {@code GET /metrics} returns
+ * the {@link Metrics} summary and the {@link ResultCache} counters as plain text.
+ *
+ * <p>Every request runs on its own virtual thread. Admission control caps the number of requests being processed
+ * at once: a request that cannot get a slot within {@link #admissionTimeout(long)} is rejected with status 503 and
+ * a {@code Retry-After} header. Together with the limit on the request body size, this bounds the memory the server
+ * uses regardless of the request rate. Every script runs within a {@link #scriptBudget(ScriptBudget)}, so a runaway
+ * script fails its request instead of holding a slot forever. By default the server listens on the loopback address only.
+ *
+ * <p>The request streams of the JDK server are synchronized, so before JDK 24 a virtual thread reading the body of a
+ * slow client pins its carrier thread. Bodies are read only after admission, so at most
+ * {@link #maxConcurrentRuns(int)} carriers can be pinned at once; keep it below the number of processors when
+ * clients may be slow. In addition, unless the {@code sun.net.httpserver.maxReqTime} system property is set,
+ * connections that take longer than {@value #DEFAULT_MAX_REQUEST_SECONDS} seconds to send their request are closed.
+ * For example:
+ * <pre>
+ * SimulationServer server = new SimulationServer(8080).maxConcurrentRuns(8).start();
+ * </pre>
+ */
+public class SimulationServer {
+    /**
+     * The path prefix of the run endpoint.
+     */
+    private static final String RUN_PATH = "/run/";
+
+    /**
+     * The system property limiting the time a client may take to send its request, in seconds.
+     */
+    private static final String MAX_REQUEST_TIME = "sun.net.httpserver.maxReqTime";
+
+    private static final int DEFAULT_MAX_REQUEST_SECONDS = 30;
+
+    static {
+        if (System.getProperty(MAX_REQUEST_TIME) == null)
+            System.setProperty(MAX_REQUEST_TIME, String.valueOf(DEFAULT_MAX_REQUEST_SECONDS));
+    }
+
+    /**
+     * The address the server listens on.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * The number of requests processed at once.
+     */
+    private int maxConcurrentRuns = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The largest accepted request body, in bytes.
+     */
+    private int maxRequestBytes = 16 << 20;
+
+    /**
+     * How long a request waits for a slot before it is rejected, in milliseconds.
+     */
+    private long admissionTimeout = 100;
+
+    /**
+     * The directory the scripts named in requests are read from.
+     */
+    private Path scriptDirectory = Path.of(Paths.ToScripts.getPath());
+
+    /**
+     * The limits of every script run for a request.
+     */
+    private ScriptBudget scriptBudget = ScriptBudget.DEFAULT;
+
+    /**
+     * The slots of requests being processed.
+     */
+    private Semaphore admission;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a server listening on the given port of the loopback address.
+     *
+     * @param port the port, or 0 for any free port.
+     */
+    public SimulationServer(int port) {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Constructs a server listening on the given address.
+     *
+     * @param address the address and port to listen on.
+     */
+    public SimulationServer(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Sets the number of requests processed at once. Defaults to the number of available processors.
+     *
+     * @param maxConcurrentRuns the number of admission slots.
+     * @return the current {@code SimulationServer} instance for method chaining.
+     */
+    public SimulationServer maxConcurrentRuns(int maxConcurrentRuns) {
+        if (maxConcurrentRuns <= 0)
+            throw new IllegalArgumentException("Number of concurrent runs must be positive: " + maxConcurrentRuns);
+
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        return this;
+    }
+
+    /**
+     * Sets the largest accepted request body. Larger requests are rejected with status 413. Defaults to 16 MiB.
+     *
+     * @param maxRequestBytes the limit in bytes.
+     * @return the current {@code SimulationServer} instance for method chaining.
+     */
+    public SimulationServer maxRequestBytes(int maxRequestBytes) {
+        if (maxRequestBytes <= 0)
+            throw new IllegalArgumentException("Request size limit must be positive: " + maxRequestBytes);
+
+        this.maxRequestBytes = maxRequestBytes;
+        return this;
+    }
+
+    /**
+     * Sets how long a request waits for an admission slot before it is rejected with status 503. Defaults to 100 ms.
+     *
+     * @param millis the timeout in milliseconds; 0 rejects immediately when all slots are taken.
+     * @return the current {@code SimulationServer} instance for method chaining.
+     */
+    public SimulationServer admissionTimeout(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Admission timeout must not be negative: " + millis);
+
+        this.admissionTimeout = millis;
+        return this;
+    }
+
+    /**
+     * Sets the directory the scripts named in requests are read from. Defaults to the scripts resource directory.
+     *
+     * @param scriptDirectory the script directory.
+     * @return the current {@code SimulationServer} instance for method chaining.
+     */
+    public SimulationServer scriptDirectory(Path scriptDirectory) {
+        this.scriptDirectory = scriptDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the limits of every script run for a request. A request whose script exceeds them fails with status 400.
+     * Defaults to {@link ScriptBudget#DEFAULT}.
+     *
+     * @param scriptBudget the script limits.
+     * @return the current {@code SimulationServer} instance for method chaining.
+     */
+    public SimulationServer scriptBudget(ScriptBudget scriptBudget) {
+        this.scriptBudget = scriptBudget;
+        return this;
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @return the current {@code SimulationServer} instance for method chaining.
+     * @throws IOException if the server cannot bind to its address.
+     */
+    public SimulationServer start() throws IOException {
+        admission = new Semaphore(maxConcurrentRuns);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(address, 0);
+        server.createContext(RUN_PATH, this::handleRun);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Stops the server, waiting up to the given time for requests in progress to finish.
+     *
+     * @param delaySeconds the maximum time to wait, in seconds.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server listens on, which is useful when it was started on port 0.
+     *
+     * @return the bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleRun(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Use POST with the data file as the request body.");
+                return;
+            }
+
+            long length = contentLength(exchange);
+            if (length > maxRequestBytes) {
+                sendError(exchange, 413, "Request body exceeds " + maxRequestBytes + " bytes.");
+                return;
+            }
+
+            boolean admitted;
+            try {
+                admitted = admission.tryAcquire(admissionTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!admitted) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server is busy; retry later.");
+                return;
+            }
+
+            try {
+                run(exchange);
+            } finally {
+                admission.release();
+            }
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Use GET.");
+                return;
+            }
+            String summary = Metrics.shared().summary() + ResultCache.shared().summary();
+            byte[] bytes = summary.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    /**
+     * Runs the model of an admitted request and streams its results.
+     */
+    private void run(HttpExchange exchange) throws IOException {
+        String modelName = exchange.getRequestURI().getPath().substring(RUN_PATH.length());
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        byte[] body = readBody(exchange.getRequestBody());
+        if (body == null) {
+            sendError(exchange, 413, "Request body exceeds " + maxRequestBytes + " bytes.");
+            return;
+        }
+
+        Controller controller;
+        try {
+            controller = new Controller(modelName).setScriptBudget(scriptBudget);
+        } catch (RuntimeException e) {
+            sendError(exchange, 404, "Unknown model: " + modelName);
+            return;
+        }
+
+        List<String> scripts;
+        try {
+            ParsedData data = DataFileParser.parse(ByteBuffer.wrap(body));
+            controller.readData(data).runModel();
+            scripts = scriptPaths(query.get("scripts"));
+            for (String script : scripts)
+                controller.runScriptFromFile(script);
+        } catch (RuntimeException e) {
+            sendError(exchange, 400, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        ResultFormat format = "full".equals(query.get("format")) ? ResultFormat.FULL_PRECISION : ResultFormat.TSV;
+        exchange.getResponseHeaders().set("Content-Type", "text/tab-separated-values; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        controller.writeResults(out, format);
+    }
+
+    /**
+     * Resolves the comma-separated script names of a request against the script directory.
+     */
+    private List<String> scriptPaths(String names) {
+        List<String> paths = new ArrayList<>();
+        if (names == null || names.isEmpty())
+            return paths;
+
+        for (String name : names.split(",")) {
+            Path path = scriptDirectory.resolve(name).normalize();
+            if (!path.getParent().equals(scriptDirectory.normalize()) || !Files.isRegularFile(path))
+                throw new IllegalArgumentException("Unknown script: " + name);
+            paths.add(path.toString());
+        }
+        return paths;
+    }
+
+    /**
+     * Reads the request body, or returns {@code null} if it is longer than the limit.
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(maxRequestBytes);
+        if (in.read() != -1)
+            return null;
+        return body;
+    }
+
+    private static long contentLength(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            return header == null ? -1 : Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null)
+            return parameters;
+
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0)
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,245 @@
+package domain.sweepLogic;
+
+import data.BatchedModel;
+import data.Model;
+import data.ScenarioBatch;
+import data.exceptions.NoFieldException;
+import domain.BindingPlan;
+import domain.Controller;
+import domain.DataFileParser;
+import domain.ModelRegistry;
+import domain.ParsedData;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code ParameterSweep} class runs a model over a grid of parameter values.
+ *
+ * <p>A sweep starts from one data file. Every varied parameter is a {@code double[]} or {@link data.Series} field
+ * annotated with {@link data.annotations.Bind}, usually a growth rate, that is replaced by a constant series for each
+ * grid value.
+ * The grid is the cartesian product of all varied parameters. Every point runs in its own {@link Controller} on a
+ * {@link ForkJoinPool}, and the selected outputs are gathered into a {@link SweepResult}. For example:
+ * <pre>
+ * SweepResult result = new ParameterSweep("EconomyModel", "./src/main/resources/data/economyData.txt")
+ *         .vary("grINV", 1.08, 1.16, 0.01)
+ *         .vary("grEXP", 1.05, 1.20, 0.01)
+ *         .collect("GDP")
+ *         .run();
+ * </pre>
+ * The data file is parsed once. If the model is a {@link data.BatchedModel}, the grid is split into one
+ * {@link ScenarioBatch} per worker thread and every batch advances all of its points together; otherwise every point
+ * loads its own copy of the parsed rows. Both ways give the same results.
+ */
+public class ParameterSweep {
+    /**
+     * The name of the model class in {@code data.models}.
+     */
+    private final String modelName;
+
+    /**
+     * The path of the data file all points start from.
+     */
+    private final String dataFile;
+
+    /**
+     * The names of the varied parameters, in grid order.
+     */
+    private final List<String> parameters = new ArrayList<>();
+
+    /**
+     * The values of each varied parameter, in the same order as {@link #parameters}.
+     */
+    private final List<double[]> parameterValues = new ArrayList<>();
+
+    /**
+     * The names of the outputs to collect.
+     */
+    private final List<String> outputs = new ArrayList<>();
+
+    /**
+     * The number of points run concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a sweep of the given model, starting from the given data file.
+     *
+     * @param modelName the name of the {@link data.Model} class to run.
+     * @param dataFile  the path of the base data file.
+     */
+    public ParameterSweep(String modelName, String dataFile) {
+        this.modelName = modelName;
+        this.dataFile = dataFile;
+    }
+
+    /**
+     * Varies a parameter from {@code from} to {@code to}, both inclusive, in steps of {@code step}.
+     *
+     * @param parameter the name of a bound {@code double[]} or {@code Series} field.
+     * @param from      the first value.
+     * @param to        the last value.
+     * @param step      the distance between consecutive values.
+     * @return the current {@code ParameterSweep} instance for method chaining.
+     * @throws IllegalArgumentException if the range is empty or the step is not positive.
+     */
+    public ParameterSweep vary(String parameter, double from, double to, double step) {
+        if (step <= 0 || to < from)
+            throw new IllegalArgumentException("Invalid range for '" + parameter + "': " + from + ".." + to + " by " + step);
+
+        // tolerate rounding so that e.g. 1.08..1.16 by 0.01 includes 1.16
+        int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++)
+            values[i] = from + i * step;
+
+        return vary(parameter, values);
+    }
+
+    /**
+     * Varies a parameter over the given values.
+     *
+     * @param parameter the name of a bound {@code double[]} or {@code Series} field.
+     * @param values    the values the parameter takes.
+     * @return the current {@code ParameterSweep} instance for method chaining.
+     * @throws IllegalArgumentException if no values are given.
+     */
+    public ParameterSweep vary(String parameter, double... values) {
+        if (values.length == 0)
+            throw new IllegalArgumentException("No values given for '" + parameter + "'");
+
+        parameters.add(parameter);
+        parameterValues.add(values.clone());
+        return this;
+    }
+
+    /**
+     * Selects outputs to collect from every point.
+     *
+     * @param outputs the names of bound {@code double[]} or {@code Series} fields.
+     * @return the current {@code ParameterSweep} instance for method chaining.
+     */
+    public ParameterSweep collect(String... outputs) {
+        this.outputs.addAll(Arrays.asList(outputs));
+        return this;
+    }
+
+    /**
+     * Sets the number of points run concurrently. Defaults to the number of available processors.
+     *
+     * @param parallelism the number of worker threads.
+     * @return the current {@code ParameterSweep} instance for method chaining.
+     */
+    public ParameterSweep parallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Runs the model for every point of the grid.
+     *
+     * @return the collected outputs of all points.
+     * @throws NoFieldException if a parameter or output is not a bound {@code double[]} or {@code Series} field.
+     * @throws RuntimeException if the data file cannot be read or a point fails.
+     */
+    public SweepResult run() {
+        Class<? extends Model> modelClass = ModelRegistry.getModelClass(modelName);
+        BindingPlan plan = BindingPlan.of(modelClass);
+        for (String name : parameters)
+            checkSeries(plan, name);
+        for (String name : outputs)
+            checkSeries(plan, name);
+
+        ParsedData data;
+        try {
+            data = DataFileParser.parse(Path.of(dataFile));
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading data file: " + dataFile + ". " + e.getMessage());
+        }
+
+        SweepResult result = new SweepResult(data.getLL(), data.getYears(),
+                parameters.toArray(new String[0]), parameterValues.toArray(new double[0][]),
+                outputs.toArray(new String[0]));
+
+        int points = result.getPointCount();
+        boolean batched = BatchedModel.class.isAssignableFrom(modelClass);
+        int chunks = Math.min(parallelism, points);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            if (batched) {
+                pool.submit(() -> IntStream.range(0, chunks)
+                        .parallel()
+                        .forEach(chunk -> runBatch(data, result, points * chunk / chunks, points * (chunk + 1) / chunks)))
+                        .get();
+            } else {
+                pool.submit(() -> IntStream.range(0, points)
+                        .parallel()
+                        .forEach(point -> runPoint(data, result, point)))
+                        .get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sweep interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Sweep failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    private void checkSeries(BindingPlan plan, String name) {
+        BindingPlan.BoundField field = plan.field(name);
+        if (field == null || !field.kind().isSeries())
+            throw new NoFieldException("Field '" + name + "' is not a bound double[] or Series field of " + modelName + ".");
+    }
+
+    /**
+     * Runs a range of points of the grid as one {@link ScenarioBatch} and stores their outputs.
+     */
+    private void runBatch(ParsedData data, SweepResult result, int from, int to) {
+        Controller controller = new Controller(modelName);
+        ScenarioBatch batch = controller.newBatch(data, to - from);
+
+        for (int point = from; point < to; point++) {
+            for (int p = 0; p < parameters.size(); p++)
+                batch.fill(parameters.get(p), point - from, result.getParameterValue(point, p));
+        }
+
+        controller.runBatch(batch);
+
+        for (int point = from; point < to; point++) {
+            for (int o = 0; o < outputs.size(); o++)
+                result.store(o, point, batch.getSeries(outputs.get(o), point - from));
+        }
+    }
+
+    /**
+     * Runs one point of the grid in its own controller and stores its outputs.
+     */
+    private void runPoint(ParsedData data, SweepResult result, int point) {
+        int LL = data.getLL();
+        Controller controller = new Controller(modelName).readData(data);
+
+        for (int p = 0; p < parameters.size(); p++) {
+            double[] values = new double[LL];
+            Arrays.fill(values, result.getParameterValue(point, p));
+            controller.setVariable(parameters.get(p), values);
+        }
+
+        controller.runModel();
+
+        for (int o = 0; o < outputs.size(); o++)
+            result.store(o, point, controller.getVariable(outputs.get(o)));
+    }
+}
@@ -0,0 +1,174 @@
+package domain.sweepLogic;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SweepResult} class holds the outputs collected by a {@link ParameterSweep}.
+ *
+ * <p>Each output is stored as one points-by-years matrix in a single {@code double[]}: the values of point {@code p}
+ * occupy the range {@code [p * LL, (p + 1) * LL)}. Points are numbered in grid order, with the first varied
+ * parameter changing slowest.
+ */
+public class SweepResult {
+    /**
+     * The number of years of every point.
+     */
+    private final int LL;
+
+    /**
+     * The years from the header of the data file.
+     */
+    private final int[] years;
+
+    /**
+     * The names of the varied parameters.
+     */
+    private final String[] parameters;
+
+    /**
+     * The values of each varied parameter.
+     */
+    private final double[][] parameterValues;
+
+    /**
+     * The names of the collected outputs.
+     */
+    private final String[] outputs;
+
+    /**
+     * The collected values, one matrix per output.
+     */
+    private final double[][] values;
+
+    /**
+     * The number of points of the grid.
+     */
+    private final int pointCount;
+
+    SweepResult(int LL, int[] years, String[] parameters, double[][] parameterValues, String[] outputs) {
+        this.LL = LL;
+        this.years = years;
+        this.parameters = parameters;
+        this.parameterValues = parameterValues;
+        this.outputs = outputs;
+
+        int points = 1;
+        for (double[] valuesOfParameter : parameterValues)
+            points = Math.multiplyExact(points, valuesOfParameter.length);
+        this.pointCount = points;
+
+        this.values = new double[outputs.length][];
+        for (int o = 0; o < outputs.length; o++)
+            this.values[o] = new double[Math.multiplyExact(points, LL)];
+    }
+
+    /**
+     * Returns the number of points of the grid.
+     *
+     * @return the number of points.
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the number of years of every point.
+     *
+     * @return the number of years.
+     */
+    public int getLL() {
+        return LL;
+    }
+
+    /**
+     * Returns the years from the header of the data file.
+     *
+     * @return the years.
+     */
+    public int[] getYears() {
+        return years;
+    }
+
+    /**
+     * Returns the names of the varied parameters.
+     *
+     * @return the parameter names in grid order.
+     */
+    public String[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * Returns the names of the collected outputs.
+     *
+     * @return the output names.
+     */
+    public String[] getOutputs() {
+        return outputs.clone();
+    }
+
+    /**
+     * Returns the value a parameter takes at a point of the grid.
+     *
+     * @param point     the index of the point.
+     * @param parameter the index of the parameter.
+     * @return the value of the parameter at the point.
+     */
+    public double getParameterValue(int point, int parameter) {
+        int stride = 1;
+        for (int p = parameters.length - 1; p > parameter; p--)
+            stride *= parameterValues[p].length;
+
+        double[] valuesOfParameter = parameterValues[parameter];
+        return valuesOfParameter[(point / stride) % valuesOfParameter.length];
+    }
+
+    /**
+     * Returns the value of an output at a point and year index.
+     *
+     * @param output the name of the output.
+     * @param point  the index of the point.
+     * @param t      the year index.
+     * @return the collected value.
+     */
+    public double get(String output, int point, int t) {
+        return values[indexOf(output)][point * LL + t];
+    }
+
+    /**
+     * Returns a copy of the series of an output at one point.
+     *
+     * @param output the name of the output.
+     * @param point  the index of the point.
+     * @return the values of the output for every year.
+     */
+    public double[] getSeries(String output, int point) {
+        int from = point * LL;
+        return Arrays.copyOfRange(values[indexOf(output)], from, from + LL);
+    }
+
+    /**
+     * Returns the matrix of an output, without copying. Point {@code p} occupies {@code [p * LL, (p + 1) * LL)}.
+     *
+     * @param output the name of the output.
+     * @return the values of the output for all points.
+     */
+    public double[] getColumn(String output) {
+        return values[indexOf(output)];
+    }
+
+    /**
+     * Stores the series of an output at one point; each point writes a disjoint range.
+     */
+    void store(int output, int point, double[] series) {
+        System.arraycopy(series, 0, values[output], point * LL, LL);
+    }
+
+    private int indexOf(String output) {
+        for (int o = 0; o < outputs.length; o++) {
+            if (outputs[o].equals(output))
+                return o;
+        }
+        throw new IllegalArgumentException("Output '" + output + "' was not collected.");
+    }
+}
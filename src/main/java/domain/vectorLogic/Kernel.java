@@ -0,0 +1,15 @@
+package domain.vectorLogic;
+
+/**
+ * The compiled body of a {@link VectorScript}, implemented by a hidden class written by {@link KernelWriter}.
+ */
+interface Kernel {
+    /**
+     * Runs the script.
+     *
+     * @param series  the series, by slot; slots the script allocates are replaced by the new arrays.
+     * @param scalars the values of the {@code int} fields, by slot.
+     * @param LL      the number of years.
+     */
+    void run(double[][] series, double[] scalars, int LL);
+}
@@ -0,0 +1,368 @@
+package domain.vectorLogic;
+
+import domain.vectorLogic.VectorProgram.Allocate;
+import domain.vectorLogic.VectorProgram.Arithmetic;
+import domain.vectorLogic.VectorProgram.Assign;
+import domain.vectorLogic.VectorProgram.Call;
+import domain.vectorLogic.VectorProgram.Choice;
+import domain.vectorLogic.VectorProgram.Compare;
+import domain.vectorLogic.VectorProgram.Constant;
+import domain.vectorLogic.VectorProgram.Element;
+import domain.vectorLogic.VectorProgram.Expr;
+import domain.vectorLogic.VectorProgram.Formula;
+import domain.vectorLogic.VectorProgram.Group;
+import domain.vectorLogic.VectorProgram.If;
+import domain.vectorLogic.VectorProgram.Logical;
+import domain.vectorLogic.VectorProgram.Loop;
+import domain.vectorLogic.VectorProgram.Negate;
+import domain.vectorLogic.VectorProgram.Not;
+import domain.vectorLogic.VectorProgram.Reduction;
+import domain.vectorLogic.VectorProgram.Scalar;
+import domain.vectorLogic.VectorProgram.Statement;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.List;
+
+/**
+ * The {@code KernelWriter} class writes the bytecode of a {@link Kernel} class for a {@link VectorProgram}.
+ *
+ * <p>Every loop of the program becomes one loop over {@code double[]} arrays held in local variables, with all its
+ * statements fused into the body; numbers stay primitive {@code double} values throughout, and conditions become
+ * jumps. Reductions are computed in a loop of their own before the loop that uses them.
+ */
+final class KernelWriter implements Opcodes {
+    /**
+     * The internal name of the written class; the JVM appends a suffix to the name of every hidden class.
+     */
+    private static final String NAME = "domain/vectorLogic/VectorKernel";
+
+    private static final String KERNEL = Type.getInternalName(Kernel.class);
+    private static final String MATH = Type.getInternalName(Math.class);
+
+    /**
+     * The local variables of {@link Kernel#run(double[][], double[], int)}.
+     */
+    private static final int SERIES = 1, SCALARS = 2, LL = 3, T = 4, ARRAYS = 5;
+
+    private final VectorProgram program;
+    private final MethodVisitor mv;
+
+    /**
+     * The first local variable holding a reduction; every reduction takes two local slots.
+     */
+    private final int reductions;
+
+    private KernelWriter(VectorProgram program, MethodVisitor mv) {
+        this.program = program;
+        this.mv = mv;
+        this.reductions = ARRAYS + program.series().length;
+    }
+
+    /**
+     * Writes the kernel class of a program.
+     *
+     * @param program the parsed program.
+     * @return the class file.
+     */
+    static byte[] write(VectorProgram program) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // the kernel only merges double[] locals; avoid loading classes to find out
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, NAME, null, "java/lang/Object",
+                new String[] {KERNEL});
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor run = cw.visitMethod(ACC_PUBLIC, "run", "([[D[DI)V", null, null);
+        run.visitCode();
+        KernelWriter writer = new KernelWriter(program, run);
+        writer.statements(program.statements());
+        run.visitInsn(RETURN);
+        run.visitMaxs(0, 0);
+        run.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void statements(List<Statement> statements) {
+        for (Statement statement : statements)
+            statement(statement);
+    }
+
+    private void statement(Statement statement) {
+        switch (statement) {
+            case Allocate allocate -> allocate(allocate.slot());
+            case Assign assign -> {
+                mv.visitVarInsn(ALOAD, ARRAYS + assign.slot());
+                mv.visitVarInsn(ILOAD, T);
+                if (assign.operator() == '=') {
+                    expression(assign.value());
+                } else {
+                    mv.visitInsn(DUP2);
+                    mv.visitInsn(DALOAD);
+                    expression(assign.value());
+                    arithmetic(assign.operator());
+                }
+                mv.visitInsn(DASTORE);
+            }
+            case If conditional -> {
+                Label otherwise = new Label();
+                Label end = new Label();
+                jump(conditional.condition(), false, otherwise);
+                statements(conditional.then());
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(otherwise);
+                statements(conditional.otherwise());
+                mv.visitLabel(end);
+            }
+            case Loop loop -> {
+                loadArrays();
+                Label condition = new Label();
+                Label end = new Label();
+                push(loop.start());
+                mv.visitVarInsn(ISTORE, T);
+                mv.visitLabel(condition);
+                mv.visitVarInsn(ILOAD, T);
+                mv.visitVarInsn(ILOAD, LL);
+                if (loop.endOffset() != 0) {
+                    push(loop.endOffset());
+                    mv.visitInsn(ISUB);
+                }
+                mv.visitJumpInsn(IF_ICMPGE, end);
+                statements(loop.body());
+                mv.visitIincInsn(T, 1);
+                mv.visitJumpInsn(GOTO, condition);
+                mv.visitLabel(end);
+            }
+            case Group group -> group(group);
+        }
+    }
+
+    private void allocate(int slot) {
+        mv.visitVarInsn(ALOAD, SERIES);
+        push(slot);
+        mv.visitVarInsn(ILOAD, LL);
+        mv.visitIntInsn(NEWARRAY, T_DOUBLE);
+        mv.visitInsn(AASTORE);
+    }
+
+    /**
+     * Copies every series into its local variable; called before each loop, after any allocation.
+     */
+    private void loadArrays() {
+        for (int slot = 0; slot < program.series().length; slot++) {
+            mv.visitVarInsn(ALOAD, SERIES);
+            push(slot);
+            mv.visitInsn(AALOAD);
+            mv.visitVarInsn(ASTORE, ARRAYS + slot);
+        }
+    }
+
+    private void group(Group group) {
+        for (int slot : group.allocates())
+            allocate(slot);
+        loadArrays();
+
+        for (Reduction reduction : group.reductions()) {
+            int local = reductions + 2 * reduction.local();
+            switch (reduction.function()) {
+                case "min" -> mv.visitLdcInsn(Double.POSITIVE_INFINITY);
+                case "max" -> mv.visitLdcInsn(Double.NEGATIVE_INFINITY);
+                default -> mv.visitInsn(DCONST_0);
+            }
+            mv.visitVarInsn(DSTORE, local);
+
+            overYears(0, () -> {
+                mv.visitVarInsn(DLOAD, local);
+                expression(reduction.operand());
+                switch (reduction.function()) {
+                    case "min" -> mv.visitMethodInsn(INVOKESTATIC, MATH, "min", "(DD)D", false);
+                    case "max" -> mv.visitMethodInsn(INVOKESTATIC, MATH, "max", "(DD)D", false);
+                    default -> mv.visitInsn(DADD);
+                }
+                mv.visitVarInsn(DSTORE, local);
+            });
+
+            if (reduction.function().equals("mean")) {
+                mv.visitVarInsn(DLOAD, local);
+                mv.visitVarInsn(ILOAD, LL);
+                mv.visitInsn(I2D);
+                mv.visitInsn(DDIV);
+                mv.visitVarInsn(DSTORE, local);
+            }
+        }
+
+        overYears(0, () -> {
+            for (Formula formula : group.formulas()) {
+                Label skip = new Label();
+                if (formula.firstYear() > 0) {
+                    mv.visitVarInsn(ILOAD, T);
+                    push(formula.firstYear());
+                    mv.visitJumpInsn(IF_ICMPLT, skip);
+                }
+                mv.visitVarInsn(ALOAD, ARRAYS + formula.slot());
+                mv.visitVarInsn(ILOAD, T);
+                expression(formula.value());
+                mv.visitInsn(DASTORE);
+                mv.visitLabel(skip);
+            }
+        });
+    }
+
+    /**
+     * Writes a loop running the body for every year from {@code first} to {@code LL - 1}.
+     */
+    private void overYears(int first, Runnable body) {
+        Label condition = new Label();
+        Label end = new Label();
+        push(first);
+        mv.visitVarInsn(ISTORE, T);
+        mv.visitLabel(condition);
+        mv.visitVarInsn(ILOAD, T);
+        mv.visitVarInsn(ILOAD, LL);
+        mv.visitJumpInsn(IF_ICMPGE, end);
+        body.run();
+        mv.visitIincInsn(T, 1);
+        mv.visitJumpInsn(GOTO, condition);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * Writes a numeric expression, leaving a {@code double} on the stack.
+     */
+    private void expression(Expr expr) {
+        switch (expr) {
+            case Constant constant -> {
+                double value = constant.value();
+                if (Double.doubleToRawLongBits(value) == 0L)
+                    mv.visitInsn(DCONST_0);
+                else if (value == 1.0)
+                    mv.visitInsn(DCONST_1);
+                else
+                    mv.visitLdcInsn(value);
+            }
+            case Scalar scalar -> {
+                mv.visitVarInsn(ALOAD, SCALARS);
+                push(scalar.slot());
+                mv.visitInsn(DALOAD);
+            }
+            case Element element -> {
+                mv.visitVarInsn(ALOAD, ARRAYS + element.slot());
+                mv.visitVarInsn(ILOAD, T);
+                if (element.offset() != 0) {
+                    push(element.offset());
+                    mv.visitInsn(IADD);
+                }
+                mv.visitInsn(DALOAD);
+            }
+            case Negate negate -> {
+                expression(negate.operand());
+                mv.visitInsn(DNEG);
+            }
+            case Arithmetic arithmetic -> {
+                expression(arithmetic.left());
+                expression(arithmetic.right());
+                arithmetic(arithmetic.operator());
+            }
+            case Choice choice -> {
+                Label otherwise = new Label();
+                Label end = new Label();
+                jump(choice.condition(), false, otherwise);
+                expression(choice.ifTrue());
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(otherwise);
+                expression(choice.ifFalse());
+                mv.visitLabel(end);
+            }
+            case Call call -> {
+                call.arguments().forEach(this::expression);
+                String descriptor = call.arguments().size() == 1 ? "(D)D" : "(DD)D";
+                mv.visitMethodInsn(INVOKESTATIC, MATH, call.function(), descriptor, false);
+            }
+            case Reduction reduction -> mv.visitVarInsn(DLOAD, reductions + 2 * reduction.local());
+            case Compare compare -> throw new IllegalStateException("Condition used as a number");
+            case Logical logical -> throw new IllegalStateException("Condition used as a number");
+            case Not not -> throw new IllegalStateException("Condition used as a number");
+        }
+    }
+
+    private void arithmetic(char operator) {
+        mv.visitInsn(switch (operator) {
+            case '+' -> DADD;
+            case '-' -> DSUB;
+            case '*' -> DMUL;
+            case '/' -> DDIV;
+            default -> throw new IllegalStateException("Unknown operator " + operator);
+        });
+    }
+
+    /**
+     * Writes a condition as a jump to {@code target} taken when the condition equals {@code when}.
+     */
+    private void jump(Expr condition, boolean when, Label target) {
+        switch (condition) {
+            case Compare compare -> {
+                expression(compare.left());
+                expression(compare.right());
+                boolean equality = compare.operator().equals("==") || compare.operator().equals("!=");
+                if (compare.doubles() && !equality) {
+                    // as javac compiles it: NaN makes every ordering false
+                    boolean less = compare.operator().startsWith("<");
+                    mv.visitInsn(less ? DCMPG : DCMPL);
+                } else {
+                    mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "compare", "(DD)I", false);
+                }
+                int opcode = switch (compare.operator()) {
+                    case "<" -> when ? IFLT : IFGE;
+                    case "<=" -> when ? IFLE : IFGT;
+                    case ">" -> when ? IFGT : IFLE;
+                    case ">=" -> when ? IFGE : IFLT;
+                    case "==" -> when ? IFEQ : IFNE;
+                    case "!=" -> when ? IFNE : IFEQ;
+                    default -> throw new IllegalStateException("Unknown comparison " + compare.operator());
+                };
+                mv.visitJumpInsn(opcode, target);
+            }
+            case Not not -> jump(not.operand(), !when, target);
+            case Logical logical -> {
+                // jump when the left operand decides the outcome, otherwise the right operand decides it
+                if (logical.and() != when) {
+                    jump(logical.left(), when, target);
+                    jump(logical.right(), when, target);
+                } else {
+                    Label skip = new Label();
+                    jump(logical.left(), !when, skip);
+                    jump(logical.right(), when, target);
+                    mv.visitLabel(skip);
+                }
+            }
+            default -> throw new IllegalStateException("Number used as a condition");
+        }
+    }
+
+    private void push(int value) {
+        if (value >= -1 && value <= 5)
+            mv.visitInsn(ICONST_0 + value);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+            mv.visitIntInsn(BIPUSH, value);
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+            mv.visitIntInsn(SIPUSH, value);
+        else
+            mv.visitLdcInsn(value);
+    }
+}
@@ -0,0 +1,162 @@
+package domain.vectorLogic;
+
+import java.lang.invoke.MethodHandles;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The {@code VectorCompiler} class compiles element-wise scripts straight to JVM bytecode, as a fast path beside
+ * Groovy.
+ *
+ * <p>A script that {@link VectorParser} accepts is turned into a hidden class whose single method runs every loop of
+ * the script over primitive {@code double[]} arrays, with no boxing and no dynamic dispatch. Any other script is
+ * rejected and runs in Groovy as before, so scripts never need to be marked. The results are the same either way:
+ * only scripts whose Groovy semantics the kernel reproduces exactly are accepted.
+ *
+ * <p>Compiled scripts, and rejections, are kept in a bounded cache keyed by the source and the variables it was
+ * compiled for, which evicts the least recently used entry. The fast path can be switched off with
+ * {@link #setEnabled(boolean)} or the system property {@code modelsim.vectorScripts=false}.
+ */
+public class VectorCompiler {
+    /**
+     * The default number of compiled scripts kept by {@link #shared()}.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The compiler shared by all {@link domain.Controller} instances.
+     */
+    private static final VectorCompiler SHARED = new VectorCompiler(DEFAULT_CAPACITY);
+
+    /**
+     * Identifies a compilation: the source and the variables it was compiled for.
+     */
+    private record Key(String source, Map<String, Class<?>> fields, Set<String> scriptVariables) { }
+
+    /**
+     * The maximum number of compilations kept in the cache.
+     */
+    private final int capacity;
+
+    /**
+     * Compiled scripts in access order; an empty value marks a rejected script.
+     */
+    private final Map<Key, Optional<VectorScript>> scripts;
+
+    private volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("modelsim.vectorScripts"));
+
+    /**
+     * Constructs a compiler with an empty cache.
+     *
+     * @param capacity the maximum number of compilations to keep.
+     * @throws IllegalArgumentException if {@code capacity} is not positive.
+     */
+    public VectorCompiler(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        this.scripts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Optional<VectorScript>> eldest) {
+                return size() > VectorCompiler.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiler shared by all controllers.
+     *
+     * @return the shared {@code VectorCompiler}.
+     */
+    public static VectorCompiler shared() {
+        return SHARED;
+    }
+
+    /**
+     * Compiles a script if it is a vector script.
+     *
+     * @param source          the text of the script.
+     * @param fields          the fields annotated with {@code Bind}, with their types.
+     * @param scriptVariables the names of the {@code double[]} variables created by earlier scripts.
+     * @return the compiled script, or {@code null} if the script must run in Groovy or the fast path is disabled.
+     */
+    public VectorScript compile(String source, Map<String, Class<?>> fields, Set<String> scriptVariables) {
+        if (!enabled)
+            return null;
+
+        Key key = new Key(source, new TreeMap<>(fields), new TreeSet<>(scriptVariables));
+        Optional<VectorScript> script = lookup(key);
+        if (script == null) {
+            script = Optional.ofNullable(define(source, fields, scriptVariables));
+            store(key, script);
+        }
+        return script.orElse(null);
+    }
+
+    private static VectorScript define(String source, Map<String, Class<?>> fields, Set<String> scriptVariables) {
+        VectorProgram program;
+        try {
+            program = VectorParser.parse(source, fields, scriptVariables);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        try {
+            Class<?> kernelClass = MethodHandles.lookup()
+                    .defineHiddenClass(KernelWriter.write(program), true)
+                    .lookupClass();
+            Kernel kernel = (Kernel) kernelClass.getConstructor().newInstance();
+            return new VectorScript(kernel, program);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new RuntimeException("Failed to compile vector script: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks whether scripts are compiled by this compiler.
+     *
+     * @return {@code true} unless the fast path was switched off.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches the fast path on or off; when off, {@link #compile(String, Map, Set)} returns {@code null} and every
+     * script runs in Groovy.
+     *
+     * @param enabled whether to compile vector scripts.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the number of compilations currently cached.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return scripts.size();
+    }
+
+    /**
+     * Removes all compiled scripts from the cache.
+     */
+    public synchronized void clear() {
+        scripts.clear();
+    }
+
+    private synchronized Optional<VectorScript> lookup(Key key) {
+        return scripts.get(key);
+    }
+
+    private synchronized void store(Key key, Optional<VectorScript> script) {
+        scripts.put(key, script);
+    }
+}
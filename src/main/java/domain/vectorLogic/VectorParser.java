@@ -0,0 +1,847 @@
+package domain.vectorLogic;
+
+import domain.vectorLogic.VectorProgram.Allocate;
+import domain.vectorLogic.VectorProgram.Arithmetic;
+import domain.vectorLogic.VectorProgram.Assign;
+import domain.vectorLogic.VectorProgram.Call;
+import domain.vectorLogic.VectorProgram.Choice;
+import domain.vectorLogic.VectorProgram.Compare;
+import domain.vectorLogic.VectorProgram.Constant;
+import domain.vectorLogic.VectorProgram.Element;
+import domain.vectorLogic.VectorProgram.Expr;
+import domain.vectorLogic.VectorProgram.Formula;
+import domain.vectorLogic.VectorProgram.Group;
+import domain.vectorLogic.VectorProgram.If;
+import domain.vectorLogic.VectorProgram.Logical;
+import domain.vectorLogic.VectorProgram.Loop;
+import domain.vectorLogic.VectorProgram.Negate;
+import domain.vectorLogic.VectorProgram.Not;
+import domain.vectorLogic.VectorProgram.Reduction;
+import domain.vectorLogic.VectorProgram.Scalar;
+import domain.vectorLogic.VectorProgram.Statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code VectorParser} class parses the vector script language into a {@link VectorProgram}.
+ *
+ * <p>A script is accepted only if it is certain to compute exactly what Groovy would compute for it; anything else is
+ * rejected with an {@link IllegalArgumentException} and left to Groovy. This is why, for example, an operation whose
+ * operands are both literals or {@code int} fields is rejected: Groovy computes it with {@code Integer} or
+ * {@code BigDecimal} arithmetic. Accepted are two forms of statements, which may be mixed:
+ * <ul>
+ *   <li>the element-wise Groovy loops the scripts are written in: {@code X = new double[LL]} and
+ *   {@code for (i = 0; i < LL; i++) { ... }} with assignments {@code X[i] = ...} (also {@code += -= *= /=}) and
+ *   {@code if}/{@code else} in the body, reading series as {@code X[i]}, {@code X[i - 1]} or {@code X[i + 1]};</li>
+ *   <li>series formulas such as {@code X = EXP / PRC}, where a bare series name stands for its value in the current
+ *   year {@code t} and {@code X[t - k]} for a lagged value. A formula is evaluated for every year in which its lags
+ *   are defined; a series it creates is zero in the other years. Formulas may use the reductions {@code sum},
+ *   {@code mean}, {@code min} and {@code max} over all years, e.g. {@code SHARE = X / sum(X)}, and the functions
+ *   {@code abs sqrt exp log log10 floor ceil pow min max}.</li>
+ * </ul>
+ * Expressions consist of numbers, the {@code int} fields such as {@code LL}, {@code + - * /}, comparisons,
+ * {@code && || !}, {@code ?:} and the {@link Math} functions above.
+ */
+final class VectorParser {
+    private static final Set<String> UNARY_FUNCTIONS = Set.of("abs", "sqrt", "exp", "log", "log10", "floor", "ceil");
+    private static final Set<String> BINARY_FUNCTIONS = Set.of("pow", "min", "max");
+    private static final Set<String> REDUCTIONS = Set.of("sum", "mean", "min", "max");
+
+    /**
+     * The functions {@link Math} also declares for {@code int} and {@code long}, which Groovy then calls with
+     * {@code Integer} arguments, returning an {@code Integer}.
+     */
+    private static final Set<String> OVERLOADED_FUNCTIONS = Set.of("abs", "min", "max");
+
+    /**
+     * The index of series formulas.
+     */
+    private static final String YEAR = "t";
+
+    private enum Kind { NAME, NUMBER, SYMBOL, NEWLINE, END }
+
+    private record Token(Kind kind, String text) { }
+
+    private final List<Token> tokens;
+    private int pos;
+
+    /**
+     * The fields annotated with {@code Bind}, with their types.
+     */
+    private final Map<String, Class<?>> fields;
+
+    /**
+     * The series that exist at the current point of the script.
+     */
+    private final Set<String> known = new HashSet<>();
+
+    private final Map<String, Integer> seriesSlots = new LinkedHashMap<>();
+    private final Map<String, Integer> scalarSlots = new LinkedHashMap<>();
+    private final List<Integer> required = new ArrayList<>();
+    private final Set<Integer> allocated = new LinkedHashSet<>();
+    private int locals;
+
+    /**
+     * The index variable of the loop or formula being parsed, and the range of its values as {@code [start, LL - end)}.
+     */
+    private String index;
+    private int start, end;
+
+    /**
+     * The state of the series formula being parsed, or {@code null} within a loop.
+     */
+    private FormulaState formula;
+
+    /**
+     * What a series formula reads, used to decide whether it can share a loop with the formulas before it.
+     */
+    private static final class FormulaState {
+        int maxLag;
+        final Set<Integer> laggedReads = new HashSet<>();
+        final Set<Integer> reducedReads = new HashSet<>();
+        final List<Reduction> reductions = new ArrayList<>();
+    }
+
+    /**
+     * The series formulas collected into the current loop.
+     */
+    private static final class GroupState {
+        final List<Integer> allocates = new ArrayList<>();
+        final List<Reduction> reductions = new ArrayList<>();
+        final List<Formula> formulas = new ArrayList<>();
+        final Set<Integer> assigned = new HashSet<>();
+        final Set<Integer> laggedReads = new HashSet<>();
+
+        Group toGroup() {
+            return new Group(List.copyOf(allocates), List.copyOf(reductions), List.copyOf(formulas));
+        }
+    }
+
+    private VectorParser(String source, Map<String, Class<?>> fields, Set<String> scriptVariables) {
+        this.tokens = tokenize(source);
+        this.fields = fields;
+        fields.forEach((name, type) -> {
+            if (type == double[].class)
+                known.add(name);
+        });
+        known.addAll(scriptVariables);
+    }
+
+    /**
+     * Parses a script.
+     *
+     * @param source          the text of the script.
+     * @param fields          the fields annotated with {@code Bind}, with their types.
+     * @param scriptVariables the names of the {@code double[]} variables created by earlier scripts.
+     * @return the parsed program.
+     * @throws IllegalArgumentException if the script is not a vector script.
+     */
+    static VectorProgram parse(String source, Map<String, Class<?>> fields, Set<String> scriptVariables) {
+        return new VectorParser(source, fields, scriptVariables).program();
+    }
+
+    private VectorProgram program() {
+        List<Statement> statements = new ArrayList<>();
+        GroupState group = null;
+
+        skipSeparators();
+        while (peek().kind() != Kind.END) {
+            if (peekName("for")) {
+                if (group != null)
+                    statements.add(group.toGroup());
+                group = null;
+                statements.add(loop());
+            } else if (peek().kind() == Kind.NAME && peekSymbol(1, "=")) {
+                if (peekName(2, "new")) {
+                    if (group != null)
+                        statements.add(group.toGroup());
+                    group = null;
+                    statements.add(allocation());
+                } else {
+                    group = formula(group, statements);
+                }
+                statementEnd();
+            } else {
+                throw fail("Unsupported statement at '" + peek().text() + "'");
+            }
+            skipSeparators();
+        }
+        if (group != null)
+            statements.add(group.toGroup());
+
+        int[] requiredBySlot = required.stream().mapToInt(Integer::intValue).toArray();
+        for (int slot : allocated) {
+            if (requiredBySlot[slot] > 0)
+                throw fail("A created series is read beyond its length");
+        }
+        return new VectorProgram(List.copyOf(statements), seriesSlots.keySet().toArray(new String[0]),
+                scalarSlots.keySet().toArray(new String[0]), requiredBySlot,
+                allocated.stream().mapToInt(Integer::intValue).toArray(), locals);
+    }
+
+    /**
+     * {@code X = new double[LL]}.
+     */
+    private Statement allocation() {
+        String name = next().text();
+        // Groovy would replace the binding variable, which the controller ignores for a field
+        if (fields.containsKey(name))
+            throw fail("Cannot create " + name);
+        expectSymbol("=");
+        expectName("new");
+        expectName("double");
+        expectSymbol("[");
+        expectName("LL");
+        expectSymbol("]");
+        scalarSlot("LL");
+
+        int slot = seriesSlot(name);
+        allocated.add(slot);
+        known.add(name);
+        return new Allocate(slot);
+    }
+
+    /**
+     * {@code for (i = start; i < LL - end; i++) body}.
+     */
+    private Statement loop() {
+        expectName("for");
+        expectSymbol("(");
+        boolean declared = peekName("int");
+        if (declared)
+            next();
+        String variable = expect(Kind.NAME).text();
+        // an undeclared counter lives in the binding, where only single lowercase letters are ignored
+        if (!declared && !variable.matches("[a-z]") || fields.containsKey(variable) || known.contains(variable))
+            throw fail("Unsupported loop variable " + variable);
+        expectSymbol("=");
+        int loopStart = integer();
+        expectSymbol(";");
+        expectName(variable);
+        expectSymbol("<");
+        expectName("LL");
+        scalarSlot("LL");
+        int loopEnd = 0;
+        if (peekSymbol(0, "-")) {
+            next();
+            loopEnd = integer();
+        }
+        expectSymbol(";");
+        if (peekSymbol(0, "++")) {
+            next();
+            expectName(variable);
+        } else {
+            expectName(variable);
+            if (peekSymbol(0, "+=")) {
+                next();
+                if (integer() != 1)
+                    throw fail("Unsupported loop step");
+            } else {
+                expectSymbol("++");
+            }
+        }
+        expectSymbol(")");
+
+        String outerIndex = index;
+        index = variable;
+        start = loopStart;
+        end = loopEnd;
+        formula = null;
+        List<Statement> body = block();
+        index = outerIndex;
+        return new Loop(loopStart, loopEnd, body);
+    }
+
+    /**
+     * A block in braces or a single statement, within a loop.
+     */
+    private List<Statement> block() {
+        skipNewlines();
+        List<Statement> statements = new ArrayList<>();
+        if (peekSymbol(0, "{")) {
+            next();
+            skipSeparators();
+            while (!peekSymbol(0, "}")) {
+                statements.add(loopStatement());
+                skipSeparators();
+            }
+            next();
+        } else {
+            statements.add(loopStatement());
+        }
+        return statements;
+    }
+
+    /**
+     * {@code X[i] = value}, a compound assignment or an {@code if} statement within a loop.
+     */
+    private Statement loopStatement() {
+        if (peekName("if")) {
+            next();
+            expectSymbol("(");
+            Expr condition = condition(expression());
+            expectSymbol(")");
+            List<Statement> then = block();
+
+            int mark = pos;
+            skipSeparators();
+            if (peekName("else")) {
+                next();
+                return new If(condition, then, block());
+            }
+            pos = mark;
+            return new If(condition, then, List.of());
+        }
+
+        String name = expect(Kind.NAME).text();
+        if (!known.contains(name))
+            throw fail("Unknown series " + name);
+        expectSymbol("[");
+        expectName(index);
+        expectSymbol("]");
+        int slot = seriesSlot(name);
+        require(slot, 0);
+
+        String operator = expect(Kind.SYMBOL).text();
+        if (!List.of("=", "+=", "-=", "*=", "/=").contains(operator))
+            throw fail("Unsupported assignment " + operator);
+        Expr value = number(expression());
+        loopStatementEnd();
+        return new Assign(slot, operator.charAt(0), value);
+    }
+
+    /**
+     * A series formula {@code X = value}, added to the current group unless it must start a new one.
+     */
+    private GroupState formula(GroupState group, List<Statement> statements) {
+        String name = next().text();
+        next();
+        if (fields.containsKey(name) && fields.get(name) != double[].class)
+            throw fail("Cannot assign " + name);
+        scalarSlot("LL");
+
+        index = YEAR;
+        start = 0;
+        end = 0;
+        formula = new FormulaState();
+        Expr value = number(expression());
+        FormulaState state = formula;
+        formula = null;
+        index = null;
+
+        boolean created = !known.contains(name);
+        int slot = seriesSlot(name);
+        require(slot, 0);
+
+        if (group != null && (group.laggedReads.contains(slot)
+                || !Collections.disjoint(state.reducedReads, group.assigned))) {
+            statements.add(group.toGroup());
+            group = null;
+        }
+        if (group == null)
+            group = new GroupState();
+
+        if (created) {
+            group.allocates.add(slot);
+            allocated.add(slot);
+            known.add(name);
+        }
+        group.reductions.addAll(state.reductions);
+        group.formulas.add(new Formula(slot, state.maxLag, value));
+        group.assigned.add(slot);
+        group.laggedReads.addAll(state.laggedReads);
+        return group;
+    }
+
+    /* ---- expressions, from the lowest precedence to the highest ---- */
+
+    private Expr expression() {
+        Expr condition = or();
+        if (!peekSymbol(0, "?"))
+            return condition;
+        next();
+        skipNewlines();
+        Expr ifTrue = number(expression());
+        skipNewlines();
+        expectSymbol(":");
+        skipNewlines();
+        Expr ifFalse = number(expression());
+        return new Choice(condition(condition), ifTrue, ifFalse);
+    }
+
+    private Expr or() {
+        Expr left = and();
+        while (peekSymbol(0, "||")) {
+            next();
+            skipNewlines();
+            left = new Logical(false, condition(left), condition(and()));
+        }
+        return left;
+    }
+
+    private Expr and() {
+        Expr left = equality();
+        while (peekSymbol(0, "&&")) {
+            next();
+            skipNewlines();
+            left = new Logical(true, condition(left), condition(equality()));
+        }
+        return left;
+    }
+
+    private Expr equality() {
+        Expr left = relational();
+        while (peekSymbol(0, "==") || peekSymbol(0, "!=")) {
+            String operator = next().text();
+            skipNewlines();
+            left = compare(operator, left, relational());
+        }
+        return left;
+    }
+
+    private Expr relational() {
+        Expr left = additive();
+        while (peekSymbol(0, "<") || peekSymbol(0, "<=") || peekSymbol(0, ">") || peekSymbol(0, ">=")) {
+            String operator = next().text();
+            skipNewlines();
+            left = compare(operator, left, additive());
+        }
+        return left;
+    }
+
+    private Expr additive() {
+        Expr left = multiplicative();
+        while (peekSymbol(0, "+") || peekSymbol(0, "-")) {
+            char operator = next().text().charAt(0);
+            skipNewlines();
+            left = arithmetic(operator, left, multiplicative());
+        }
+        return left;
+    }
+
+    private Expr multiplicative() {
+        Expr left = unary();
+        while (peekSymbol(0, "*") || peekSymbol(0, "/")) {
+            char operator = next().text().charAt(0);
+            skipNewlines();
+            left = arithmetic(operator, left, unary());
+        }
+        return left;
+    }
+
+    private Expr arithmetic(char operator, Expr left, Expr right) {
+        if (!isDouble(number(left)) && !isDouble(number(right)))
+            throw fail("Groovy does not compute this operation with doubles");
+        return new Arithmetic(operator, left, right);
+    }
+
+    private Expr compare(String operator, Expr left, Expr right) {
+        left = number(left);
+        right = number(right);
+        if (!isDouble(left) && !isDouble(right))
+            throw fail("Groovy does not compare these operands as doubles");
+        if (!isDouble(left) && !isNotDouble(left) || !isDouble(right) && !isNotDouble(right))
+            throw fail("Groovy compares this operand as a Double or not depending on the branch taken");
+        return new Compare(operator, left, right, isDouble(left) && isDouble(right));
+    }
+
+    /**
+     * Checks whether Groovy computes an expression as a {@code Double}, rather than as an {@code Integer} or a
+     * {@code BigDecimal} like literals and {@code int} fields. An operation with a {@code Double} operand is computed
+     * with doubles.
+     */
+    private static boolean isDouble(Expr expr) {
+        return switch (expr) {
+            case Element element -> true;
+            case Call call -> true;
+            case Reduction reduction -> true;
+            case Arithmetic arithmetic -> isDouble(arithmetic.left()) || isDouble(arithmetic.right());
+            case Negate negate -> isDouble(negate.operand());
+            case Choice choice -> isDouble(choice.ifTrue()) && isDouble(choice.ifFalse());
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks whether Groovy computes an expression as an {@code Integer} or a {@code BigDecimal} whatever the branches
+     * taken. A choice between a {@code Double} and another number is neither this nor {@link #isDouble(Expr)}.
+     */
+    private static boolean isNotDouble(Expr expr) {
+        return switch (expr) {
+            case Constant constant -> true;
+            case Scalar scalar -> true;
+            case Arithmetic arithmetic -> isNotDouble(arithmetic.left()) && isNotDouble(arithmetic.right());
+            case Choice choice -> isNotDouble(choice.ifTrue()) && isNotDouble(choice.ifFalse());
+            default -> false;
+        };
+    }
+
+    private Expr unary() {
+        if (peekSymbol(0, "-")) {
+            next();
+            Expr operand = number(unary());
+            // an Integer or a BigDecimal has no negative zero, so -0 and -0.0 are 0
+            if (operand instanceof Constant constant)
+                return new Constant(constant.value() == 0 ? 0.0 : -constant.value());
+            if (isDouble(operand))
+                return new Negate(operand);
+            if (isNotDouble(operand))
+                return new Arithmetic('-', new Constant(0), operand);
+            throw fail("Groovy negates this operand as a Double or not depending on the branch taken");
+        }
+        if (peekSymbol(0, "+")) {
+            next();
+            return number(unary());
+        }
+        if (peekSymbol(0, "!")) {
+            next();
+            return new Not(condition(unary()));
+        }
+        return primary();
+    }
+
+    private Expr primary() {
+        Token token = next();
+        if (token.kind() == Kind.NUMBER)
+            return new Constant(Double.parseDouble(token.text()));
+        if (token.kind() == Kind.SYMBOL && token.text().equals("(")) {
+            Expr value = expression();
+            expectSymbol(")");
+            return value;
+        }
+        if (token.kind() != Kind.NAME)
+            throw fail("Unexpected '" + token.text() + "'");
+
+        String name = token.text();
+        if (name.equals("Math") && peekSymbol(0, ".")) {
+            next();
+            String function = expect(Kind.NAME).text();
+            expectSymbol("(");
+            return call(function);
+        }
+        if (formula != null && peekSymbol(0, "(")) {
+            next();
+            return call(name);
+        }
+        if (peekSymbol(0, "["))
+            return element(name);
+
+        if (fields.get(name) == int.class)
+            return new Scalar(scalarSlot(name));
+        if (formula != null && known.contains(name))
+            return read(name, 0);
+        throw fail("Unsupported name " + name);
+    }
+
+    /**
+     * A function call or, in a series formula, a reduction; the opening parenthesis has been read.
+     */
+    private Expr call(String function) {
+        List<Expr> arguments = new ArrayList<>();
+        if (!peekSymbol(0, ")")) {
+            do {
+                if (!arguments.isEmpty())
+                    next();
+                skipNewlines();
+                arguments.add(number(expression()));
+            } while (peekSymbol(0, ","));
+        }
+        expectSymbol(")");
+
+        if (arguments.size() == 1 && formula != null && REDUCTIONS.contains(function)) {
+            Reduction reduction = new Reduction(function, arguments.getFirst(), locals++);
+            reducedReads(reduction.operand(), formula.reducedReads);
+            formula.reductions.add(reduction);
+            return reduction;
+        }
+        if (OVERLOADED_FUNCTIONS.contains(function) && (arguments.stream().noneMatch(VectorParser::isDouble)
+                || !arguments.stream().allMatch(argument -> isDouble(argument) || isNotDouble(argument))))
+            throw fail("Groovy does not call Math." + function + " with doubles here");
+        if (arguments.size() == 1 && UNARY_FUNCTIONS.contains(function)
+                || arguments.size() == 2 && BINARY_FUNCTIONS.contains(function))
+            return new Call(function, List.copyOf(arguments));
+        throw fail("Unsupported function " + function + " with " + arguments.size() + " arguments");
+    }
+
+    /**
+     * Collects the series a reduction reads; they must be read in the current year, and reductions do not nest.
+     */
+    private static void reducedReads(Expr expr, Set<Integer> reads) {
+        switch (expr) {
+            case Element element -> {
+                if (element.offset() != 0)
+                    throw fail("Unsupported lag in a reduction");
+                reads.add(element.slot());
+            }
+            case Reduction reduction -> throw fail("Nested reduction");
+            case Negate negate -> reducedReads(negate.operand(), reads);
+            case Not not -> reducedReads(not.operand(), reads);
+            case Arithmetic arithmetic -> {
+                reducedReads(arithmetic.left(), reads);
+                reducedReads(arithmetic.right(), reads);
+            }
+            case Compare compare -> {
+                reducedReads(compare.left(), reads);
+                reducedReads(compare.right(), reads);
+            }
+            case Logical logical -> {
+                reducedReads(logical.left(), reads);
+                reducedReads(logical.right(), reads);
+            }
+            case Choice choice -> {
+                reducedReads(choice.condition(), reads);
+                reducedReads(choice.ifTrue(), reads);
+                reducedReads(choice.ifFalse(), reads);
+            }
+            case Call call -> call.arguments().forEach(argument -> reducedReads(argument, reads));
+            case Constant constant -> { }
+            case Scalar scalar -> { }
+        }
+    }
+
+    /**
+     * {@code X[i]}, {@code X[i - k]} or {@code X[i + k]}; the name has been read.
+     */
+    private Expr element(String name) {
+        expectSymbol("[");
+        expectName(index);
+        int offset = 0;
+        if (peekSymbol(0, "-") || peekSymbol(0, "+")) {
+            boolean minus = next().text().equals("-");
+            offset = minus ? -integer() : integer();
+        }
+        expectSymbol("]");
+        return read(name, offset);
+    }
+
+    private Expr read(String name, int offset) {
+        if (!known.contains(name))
+            throw fail("Unknown series " + name);
+        int slot = seriesSlot(name);
+        if (formula != null) {
+            if (offset > 0)
+                throw fail("Unsupported lead in a series formula");
+            formula.maxLag = Math.max(formula.maxLag, -offset);
+            if (offset < 0)
+                formula.laggedReads.add(slot);
+        } else if (start + offset < 0) {
+            throw fail("Series " + name + " is read before its first value");
+        }
+        require(slot, offset);
+        return new Element(slot, offset);
+    }
+
+    private Expr condition(Expr expr) {
+        if (!isCondition(expr))
+            throw fail("A condition is required");
+        return expr;
+    }
+
+    private Expr number(Expr expr) {
+        if (isCondition(expr))
+            throw fail("A number is required");
+        return expr;
+    }
+
+    private static boolean isCondition(Expr expr) {
+        return expr instanceof Compare || expr instanceof Logical || expr instanceof Not;
+    }
+
+    /* ---- slots ---- */
+
+    private int seriesSlot(String name) {
+        Integer slot = seriesSlots.get(name);
+        if (slot == null) {
+            slot = seriesSlots.size();
+            seriesSlots.put(name, slot);
+            required.add(Integer.MIN_VALUE);
+        }
+        return slot;
+    }
+
+    private int scalarSlot(String name) {
+        if (fields.get(name) != int.class)
+            throw fail(name + " is not an int field");
+        return scalarSlots.computeIfAbsent(name, key -> scalarSlots.size());
+    }
+
+    /**
+     * Records that a series is accessed at the given offset from the index in the current range.
+     */
+    private void require(int slot, int offset) {
+        required.set(slot, Math.max(required.get(slot), offset - end));
+    }
+
+    /* ---- tokens ---- */
+
+    private int integer() {
+        Token token = expect(Kind.NUMBER);
+        if (!token.text().matches("\\d{1,9}"))
+            throw fail("An integer is required");
+        return Integer.parseInt(token.text());
+    }
+
+    private void statementEnd() {
+        Token token = peek();
+        if (token.kind() == Kind.END || token.kind() == Kind.NEWLINE || token.text().equals(";"))
+            return;
+        throw fail("Unexpected '" + token.text() + "'");
+    }
+
+    private void loopStatementEnd() {
+        Token token = peek();
+        if (token.kind() == Kind.END || token.kind() == Kind.NEWLINE || token.text().equals(";")) {
+            if (token.kind() != Kind.END)
+                next();
+            return;
+        }
+        if (!token.text().equals("}") && !peekName("else"))
+            throw fail("Unexpected '" + token.text() + "'");
+    }
+
+    private void skipSeparators() {
+        while (peek().kind() == Kind.NEWLINE || peekSymbol(0, ";"))
+            next();
+    }
+
+    private void skipNewlines() {
+        while (peek().kind() == Kind.NEWLINE)
+            next();
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private Token next() {
+        Token token = tokens.get(pos);
+        if (token.kind() != Kind.END)
+            pos++;
+        return token;
+    }
+
+    private boolean peekName(String name) {
+        return peekName(0, name);
+    }
+
+    private boolean peekName(int ahead, String name) {
+        Token token = tokens.get(Math.min(pos + ahead, tokens.size() - 1));
+        return token.kind() == Kind.NAME && token.text().equals(name);
+    }
+
+    private boolean peekSymbol(int ahead, String symbol) {
+        Token token = tokens.get(Math.min(pos + ahead, tokens.size() - 1));
+        return token.kind() == Kind.SYMBOL && token.text().equals(symbol);
+    }
+
+    private Token expect(Kind kind) {
+        Token token = next();
+        if (token.kind() != kind)
+            throw fail("Unexpected '" + token.text() + "'");
+        return token;
+    }
+
+    private void expectName(String name) {
+        Token token = expect(Kind.NAME);
+        if (!token.text().equals(name))
+            throw fail("Expected " + name + " but found " + token.text());
+    }
+
+    private void expectSymbol(String symbol) {
+        Token token = next();
+        if (token.kind() != Kind.SYMBOL || !token.text().equals(symbol))
+            throw fail("Expected '" + symbol + "' but found '" + token.text() + "'");
+    }
+
+    private static IllegalArgumentException fail(String message) {
+        return new IllegalArgumentException(message);
+    }
+
+    /**
+     * Splits a script into tokens. As in Groovy, a line break ends a statement unless it is inside parentheses or
+     * brackets; the parser skips line breaks that follow an operator.
+     */
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                if (depth == 0 && !tokens.isEmpty() && tokens.getLast().kind() != Kind.NEWLINE)
+                    tokens.add(new Token(Kind.NEWLINE, "\\n"));
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (source.startsWith("//", i)) {
+                while (i < source.length() && source.charAt(i) != '\n')
+                    i++;
+            } else if (source.startsWith("/*", i)) {
+                int close = source.indexOf("*/", i + 2);
+                if (close < 0)
+                    throw fail("Unterminated comment");
+                i = close + 2;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int from = i;
+                while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i)))
+                    i++;
+                tokens.add(new Token(Kind.NAME, source.substring(from, i)));
+            } else if (Character.isDigit(c)) {
+                int from = i;
+                while (i < source.length() && Character.isDigit(source.charAt(i)))
+                    i++;
+                if (i + 1 < source.length() && source.charAt(i) == '.' && Character.isDigit(source.charAt(i + 1))) {
+                    i++;
+                    while (i < source.length() && Character.isDigit(source.charAt(i)))
+                        i++;
+                }
+                if (i < source.length() && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+                    i++;
+                    if (i < source.length() && (source.charAt(i) == '+' || source.charAt(i) == '-'))
+                        i++;
+                    if (i >= source.length() || !Character.isDigit(source.charAt(i)))
+                        throw fail("Malformed number");
+                    while (i < source.length() && Character.isDigit(source.charAt(i)))
+                        i++;
+                }
+                String number = source.substring(from, i);
+                // only the double suffix keeps Groovy's arithmetic in doubles
+                if (i < source.length() && (source.charAt(i) == 'd' || source.charAt(i) == 'D'))
+                    i++;
+                if (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i)))
+                    throw fail("Unsupported number suffix");
+                tokens.add(new Token(Kind.NUMBER, number));
+            } else {
+                String symbol = symbolAt(source, i);
+                if (symbol.equals("(") || symbol.equals("["))
+                    depth++;
+                else if (symbol.equals(")") || symbol.equals("]"))
+                    depth = Math.max(0, depth - 1);
+                tokens.add(new Token(Kind.SYMBOL, symbol));
+                i += symbol.length();
+            }
+        }
+        tokens.add(new Token(Kind.END, "end of script"));
+        return tokens;
+    }
+
+    private static String symbolAt(String source, int i) {
+        // Groovy operators that are not supported are still read whole, e.g. -- is a decrement, not two negations
+        for (String symbol : List.of("===", "!==", "<=>", "==", "!=", "<=", ">=", "&&", "||", "++", "--", "**", "?:",
+                "<<", ">>", "+=", "-=", "*=", "/=")) {
+            if (source.startsWith(symbol, i))
+                return symbol;
+        }
+        char c = source.charAt(i);
+        if ("+-*/<>=!?:()[]{};,.".indexOf(c) < 0)
+            throw fail("Unsupported character '" + c + "'");
+        return String.valueOf(c);
+    }
+}
@@ -0,0 +1,131 @@
+package domain.vectorLogic;
+
+import java.util.List;
+
+/**
+ * The {@code VectorProgram} class is a parsed vector script, as produced by {@link VectorParser} and turned into
+ * bytecode by {@link KernelWriter}.
+ *
+ * <p>Variables are referred to by slot: series slots index the {@code double[][]} passed to the {@link Kernel}, scalar
+ * slots the {@code double[]} of scalar values. Every numeric expression has type {@code double}; conditions are kept
+ * apart from numbers by the parser.
+ *
+ * @param statements the top-level statements, in order.
+ * @param series     the names of the series, by slot.
+ * @param scalars    the names of the scalars, by slot.
+ * @param required   for every series slot, how many values the series needs beyond {@code LL}; a negative number
+ *                   allows a shorter series.
+ * @param creates    the series slots the program allocates, in the order of their first allocation.
+ * @param locals     the number of {@code double} locals holding reductions.
+ */
+record VectorProgram(List<Statement> statements, String[] series, String[] scalars, int[] required, int[] creates,
+                     int locals) {
+
+    /**
+     * A numeric or boolean expression.
+     */
+    sealed interface Expr permits Constant, Scalar, Element, Negate, Arithmetic, Compare, Logical, Not, Choice, Call,
+            Reduction { }
+
+    /**
+     * A numeric literal.
+     */
+    record Constant(double value) implements Expr { }
+
+    /**
+     * The value of an {@code int} field, such as {@code LL}.
+     */
+    record Scalar(int slot) implements Expr { }
+
+    /**
+     * The value of a series at the current year plus an offset, e.g. {@code X[t - 1]}.
+     */
+    record Element(int slot, int offset) implements Expr { }
+
+    /**
+     * The negation of a number.
+     */
+    record Negate(Expr operand) implements Expr { }
+
+    /**
+     * One of the operations {@code + - * /} on two numbers.
+     */
+    record Arithmetic(char operator, Expr left, Expr right) implements Expr { }
+
+    /**
+     * One of the comparisons {@code < <= > >= == !=} of two numbers. Groovy compares two {@code Double} values with
+     * the primitive operators for {@code < <= > >=} and with {@link Double#compare(double, double)} for
+     * {@code == !=}, so that {@code -0.0 != 0.0} and {@code NaN == NaN}; it compares a {@code Double} with an
+     * {@code Integer} or a {@code BigDecimal} with {@code Double.compare} throughout.
+     *
+     * @param doubles whether both operands are {@code Double} values.
+     */
+    record Compare(String operator, Expr left, Expr right, boolean doubles) implements Expr { }
+
+    /**
+     * {@code &&} or {@code ||} of two conditions.
+     */
+    record Logical(boolean and, Expr left, Expr right) implements Expr { }
+
+    /**
+     * The negation of a condition.
+     */
+    record Not(Expr operand) implements Expr { }
+
+    /**
+     * {@code condition ? ifTrue : ifFalse}.
+     */
+    record Choice(Expr condition, Expr ifTrue, Expr ifFalse) implements Expr { }
+
+    /**
+     * A call of a {@link Math} function taking and returning {@code double} values.
+     */
+    record Call(String function, List<Expr> arguments) implements Expr { }
+
+    /**
+     * A reduction over all years ({@code sum}, {@code mean}, {@code min} or {@code max}), computed before the loop
+     * that uses it and kept in a {@code double} local.
+     */
+    record Reduction(String function, Expr operand, int local) implements Expr { }
+
+    /**
+     * A top-level statement or a statement within a loop.
+     */
+    sealed interface Statement permits Allocate, Assign, If, Loop, Group { }
+
+    /**
+     * {@code X = new double[LL]}.
+     */
+    record Allocate(int slot) implements Statement { }
+
+    /**
+     * {@code X[i] = value}, or a compound assignment such as {@code X[i] += value} when the operator is one of
+     * {@code + - * /}; the operator is {@code =} for a plain assignment.
+     */
+    record Assign(int slot, char operator, Expr value) implements Statement { }
+
+    /**
+     * {@code if (condition) ... else ...} within a loop.
+     */
+    record If(Expr condition, List<Statement> then, List<Statement> otherwise) implements Statement { }
+
+    /**
+     * {@code for (i = start; i < LL - endOffset; i++) ...}.
+     */
+    record Loop(int start, int endOffset, List<Statement> body) implements Statement { }
+
+    /**
+     * Consecutive series formulas such as {@code X = A / B[t - 1]}, fused into one loop over all years.
+     *
+     * @param allocates  the series created by the formulas, allocated before the loop.
+     * @param reductions the reductions the formulas use, computed before the loop.
+     * @param formulas   the formulas, evaluated in order for every year.
+     */
+    record Group(List<Integer> allocates, List<Reduction> reductions, List<Formula> formulas) implements Statement { }
+
+    /**
+     * A series formula: the target is assigned for every year from {@code firstYear} on, so that no lag reaches before
+     * the first year.
+     */
+    record Formula(int slot, int firstYear, Expr value) { }
+}
@@ -0,0 +1,89 @@
+package domain.vectorLogic;
+
+/**
+ * The {@code VectorScript} class is a vector script compiled to bytecode by {@link VectorCompiler}.
+ *
+ * <p>A script works on series and scalars by slot. The caller passes one {@code double[]} per name in
+ * {@link #getSeries()}, or {@code null} for a series the script creates, and the value of every {@code int} field in
+ * {@link #getScalars()}. After {@link #run(double[][], double[], int)}, the slots in {@link #getCreates()} hold the new
+ * arrays. A script instance keeps no state between runs and may be run by several threads at once.
+ */
+public final class VectorScript {
+    private final Kernel kernel;
+    private final String[] series;
+    private final String[] scalars;
+    private final int[] required;
+    private final int[] creates;
+
+    VectorScript(Kernel kernel, VectorProgram program) {
+        this.kernel = kernel;
+        this.series = program.series();
+        this.scalars = program.scalars();
+        this.required = program.required();
+        this.creates = program.creates();
+    }
+
+    /**
+     * Checks whether the script can run on the given series without reading past their ends. A script that cannot is
+     * left to Groovy, which reports the error in its own words.
+     *
+     * @param values the series, by slot.
+     * @param LL     the number of years.
+     * @return {@code true} if every series the script reads is present and long enough.
+     */
+    public boolean fits(double[][] values, int LL) {
+        if (values.length != series.length || LL < 0)
+            return false;
+
+        boolean[] created = new boolean[series.length];
+        for (int slot : creates)
+            created[slot] = true;
+        for (int slot = 0; slot < series.length; slot++) {
+            if (created[slot] && values[slot] == null)
+                continue;
+            if (values[slot] == null)
+                return false;
+            if (required[slot] != Integer.MIN_VALUE && values[slot].length < (long) LL + required[slot])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the script.
+     *
+     * @param values  the series, by slot; the slots in {@link #getCreates()} are replaced by the new arrays.
+     * @param scalars the values of the scalars, by slot.
+     * @param LL      the number of years.
+     */
+    public void run(double[][] values, double[] scalars, int LL) {
+        kernel.run(values, scalars, LL);
+    }
+
+    /**
+     * Returns the names of the series the script reads or writes, by slot.
+     *
+     * @return the names of the series.
+     */
+    public String[] getSeries() {
+        return series.clone();
+    }
+
+    /**
+     * Returns the names of the {@code int} fields the script reads, by slot.
+     *
+     * @return the names of the scalars.
+     */
+    public String[] getScalars() {
+        return scalars.clone();
+    }
+
+    /**
+     * Returns the slots of the series the script creates, in the order of their creation.
+     *
+     * @return the created slots.
+     */
+    public int[] getCreates() {
+        return creates.clone();
+    }
+}
@@ -0,0 +1,255 @@
+package domain.watchLogic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code InputWatcher} class watches the data and script directories for files being created, modified or deleted.
+ *
+ * <p>Editors rarely save a file with a single write: they truncate and rewrite it, or write a temporary file and rename
+ * it over the original, and each step raises its own event. The watcher therefore waits until no event has arrived for
+ * the quiet period and hands the whole burst to the {@link Listener} as one {@link Changes}, with the events of each
+ * file coalesced into a single change. A file that keeps changing is still reported once the burst has lasted ten
+ * quiet periods. Events are delivered on the watcher's own daemon thread.
+ */
+public class InputWatcher implements Closeable {
+
+    /**
+     * The quiet period used when none is given.
+     */
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(200);
+
+    /**
+     * Receives the coalesced changes of a burst of file events.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called on the watcher thread once a burst of events has settled.
+         *
+         * @param changes the files that changed during the burst.
+         */
+        void inputsChanged(Changes changes);
+    }
+
+    /**
+     * The files that changed during one burst of events. Each file appears in at most one of the sets; a file that
+     * was created and deleted again within the burst does not appear at all.
+     *
+     * @param created    the files that did not exist before the burst.
+     * @param modified   the existing files whose contents changed.
+     * @param deleted    the files that no longer exist.
+     * @param overflowed {@code true} if events were lost and the directories have to be listed again.
+     */
+    public record Changes(Set<Path> created, Set<Path> modified, Set<Path> deleted, boolean overflowed) {
+
+        /**
+         * Checks whether the contents of a file may have changed, that is whether it was created or modified.
+         *
+         * @param file the absolute, normalized path of the file.
+         * @return {@code true} if the file was created or modified.
+         */
+        public boolean isChanged(Path file) {
+            return created.contains(file) || modified.contains(file);
+        }
+    }
+
+    /**
+     * The kind of change recorded for a file while a burst is collected.
+     */
+    private enum Change { CREATED, MODIFIED, DELETED }
+
+    private final WatchService service;
+    private final Duration quietPeriod;
+    private final Listener listener;
+    private final Map<WatchKey, Path> directories = new LinkedHashMap<>();
+    private Thread thread;
+
+    /**
+     * Creates a watcher with the {@link #DEFAULT_QUIET_PERIOD}.
+     *
+     * @param listener receives the changes.
+     */
+    public InputWatcher(Listener listener) {
+        this(DEFAULT_QUIET_PERIOD, listener);
+    }
+
+    /**
+     * Creates a watcher.
+     *
+     * @param quietPeriod how long no event must arrive before a burst is reported.
+     * @param listener    receives the changes.
+     */
+    public InputWatcher(Duration quietPeriod, Listener listener) {
+        if (quietPeriod.isNegative() || quietPeriod.isZero())
+            throw new IllegalArgumentException("The quiet period must be positive: " + quietPeriod);
+
+        this.quietPeriod = quietPeriod;
+        this.listener = listener;
+        try {
+            this.service = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to watch the input files", e);
+        }
+    }
+
+    /**
+     * Watches the files directly inside a directory; subdirectories are not watched.
+     *
+     * @param directory the directory to watch.
+     * @return this watcher.
+     */
+    public synchronized InputWatcher watch(Path directory) {
+        Path dir = directory.toAbsolutePath().normalize();
+        try {
+            WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            directories.put(key, dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to watch " + dir, e);
+        }
+        return this;
+    }
+
+    /**
+     * Starts delivering changes. Calling this method again has no effect.
+     *
+     * @return this watcher.
+     */
+    public synchronized InputWatcher start() {
+        if (thread == null) {
+            thread = new Thread(this::run, "input-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Stops watching. A burst that is still being collected is dropped.
+     */
+    @Override
+    public void close() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to stop watching the input files", e);
+        }
+    }
+
+    /**
+     * Collects bursts of events and reports them until the watcher is closed.
+     */
+    private void run() {
+        long maxBurstNanos = quietPeriod.toNanos() * 10;
+        try {
+            while (true) {
+                Map<Path, Change> burst = new LinkedHashMap<>();
+                boolean overflowed = collect(service.take(), burst);
+                long burstStart = System.nanoTime();
+
+                WatchKey key;
+                while (System.nanoTime() - burstStart < maxBurstNanos
+                        && (key = service.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    overflowed |= collect(key, burst);
+                }
+
+                if (!burst.isEmpty() || overflowed)
+                    listener.inputsChanged(toChanges(burst, overflowed));
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed: stop watching
+        }
+    }
+
+    /**
+     * Adds the pending events of a key to the burst and re-arms the key.
+     *
+     * @param key   the signalled key.
+     * @param burst the changes collected so far, by file.
+     * @return {@code true} if events were lost.
+     */
+    private boolean collect(WatchKey key, Map<Path, Change> burst) {
+        Path dir;
+        synchronized (this) {
+            dir = directories.get(key);
+        }
+
+        boolean overflowed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflowed = true;
+            } else if (dir != null) {
+                Path file = dir.resolve((Path) event.context());
+                Change before = burst.get(file);
+                Change after = coalesce(before, event.kind());
+                if (after == null)
+                    burst.remove(file);
+                else
+                    burst.put(file, after);
+            }
+        }
+        if (!key.reset()) {
+            synchronized (this) {
+                directories.remove(key);
+            }
+        }
+        return overflowed;
+    }
+
+    /**
+     * Merges an event into the change recorded so far for its file.
+     *
+     * @param before the change recorded so far, or {@code null} if the file had no event yet.
+     * @param kind   the kind of the new event.
+     * @return the merged change, or {@code null} if the file ends up as it was before the burst.
+     */
+    private static Change coalesce(Change before, WatchEvent.Kind<?> kind) {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE)
+            return before == Change.DELETED ? Change.MODIFIED : Change.CREATED;
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE)
+            return before == Change.CREATED ? null : Change.DELETED;
+        return before == Change.CREATED ? Change.CREATED : Change.MODIFIED;
+    }
+
+    /**
+     * Sorts a burst into its sets, checking each file against the file system so that the reported state is the state
+     * after the burst even if its last event was missed.
+     *
+     * @param burst      the changes collected, by file.
+     * @param overflowed whether events were lost.
+     * @return the changes of the burst.
+     */
+    private static Changes toChanges(Map<Path, Change> burst, boolean overflowed) {
+        Set<Path> created = new LinkedHashSet<>();
+        Set<Path> modified = new LinkedHashSet<>();
+        Set<Path> deleted = new LinkedHashSet<>();
+
+        burst.forEach((file, change) -> {
+            boolean exists = Files.exists(file);
+            if (!exists)
+                deleted.add(file);
+            else if (change == Change.CREATED)
+                created.add(file);
+            else
+                modified.add(file);
+        });
+        return new Changes(Collections.unmodifiableSet(created), Collections.unmodifiableSet(modified),
+                Collections.unmodifiableSet(deleted), overflowed);
+    }
+}
@@ -2,10 +2,10 @@ package ui;
 
 import data.Paths;
 import data.ResultPanelContract;
+import domain.Results;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.io.File;
@@ -17,6 +17,11 @@ import data.Palette;
  */
 public class ResultPanelView extends JPanel implements ResultPanelContract.View {
 
+    /**
+     * The largest number of columns that are resized to fit the width of the panel.
+     */
+    private static final int MAX_FITTED_COLUMNS = 20;
+
     /**
      * Table for displaying the results in a tabular format.
      */
@@ -32,6 +37,21 @@ public class ResultPanelView extends JPanel implements ResultPanelContract.View
      */
     private JButton createScriptButton;
 
+    /**
+     * Button for cancelling the script runs in progress.
+     */
+    private JButton cancelButton;
+
+    /**
+     * Button for showing the collected phase timings.
+     */
+    private JButton metricsButton;
+
+    /**
+     * Label showing the progress of the latest script run.
+     */
+    private JLabel statusLabel;
+
     /**
      * Presenter responsible for handling the user interactions and business logic.
      */
@@ -125,7 +145,7 @@ public class ResultPanelView extends JPanel implements ResultPanelContract.View
      */
     public void initButtonsPanel() {
         JPanel buttonPanel = new JPanel();
-        buttonPanel.setLayout(new GridLayout(1, 2));
+        buttonPanel.setLayout(new GridLayout(1, 4));
 
         //select script button
         runScriptButton = new JButton("Run Script from File");
@@ -158,7 +178,24 @@ public class ResultPanelView extends JPanel implements ResultPanelContract.View
             }
         });
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        //cancel button
+        cancelButton = new JButton("Cancel");
+        buttonPanel.add(cancelButton);
+
+        cancelButton.addActionListener(e -> presenter.onCancelClicked());
+
+        //metrics button
+        metricsButton = new JButton("Show Metrics");
+        buttonPanel.add(metricsButton);
+
+        metricsButton.addActionListener(e -> presenter.onShowMetricsClicked());
+
+        statusLabel = new JLabel(" ");
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.NORTH);
+        southPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
     }
 
     /**
@@ -182,14 +219,17 @@ public class ResultPanelView extends JPanel implements ResultPanelContract.View
     }
 
     /**
-     * Updates the results table with new data.
+     * Updates the results table with new data. Cells are formatted only when they are painted.
      *
-     * @param results     The 2D array containing the data to be displayed.
-     * @param columnNames The array of column headers corresponding to the data.
+     * @param results The results to be displayed; the first row provides the column headers.
      */
     @Override
-    public void displayResults(String[][] results, String[] columnNames) {
-        DefaultTableModel tableModel = new DefaultTableModel(results, columnNames);
+    public void displayResults(Results results) {
+        ResultTableModel tableModel = new ResultTableModel(results);
+
+        // Squeezing many year columns into the view makes them unreadable, scroll instead
+        resultsTable.setAutoResizeMode(tableModel.getColumnCount() > MAX_FITTED_COLUMNS
+                ? JTable.AUTO_RESIZE_OFF : JTable.AUTO_RESIZE_ALL_COLUMNS);
         resultsTable.setModel(tableModel);
     }
 
@@ -203,6 +243,29 @@ public class ResultPanelView extends JPanel implements ResultPanelContract.View
         JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    /**
+     * Shows the progress of a script run in the status label.
+     *
+     * @param message The progress message to be displayed.
+     */
+    @Override
+    public void showProgress(String message) {
+        statusLabel.setText(message);
+    }
+
+    /**
+     * Shows the phase timings in a dialog.
+     *
+     * @param summary The table of timings, one line per phase.
+     */
+    @Override
+    public void showMetrics(String summary) {
+        JTextArea text = new JTextArea(summary);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        text.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text), "Metrics", JOptionPane.PLAIN_MESSAGE);
+    }
+
     /**
      * Notifies the user about the successful execution of a script.
      *
@@ -0,0 +1,66 @@
+package ui;
+
+import domain.Results;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The ResultTableModel class presents {@link Results} to a {@link javax.swing.JTable}.
+ *
+ * <p>The first result row (the years) becomes the column headers and every further row a table row, with the
+ * variable name in the first column. Cells are read straight from the result arrays and formatted only when the
+ * table asks for them, i.e. when they are painted, so opening a table with thousands of columns costs nothing
+ * up front.
+ */
+public class ResultTableModel extends AbstractTableModel {
+
+    /**
+     * The results shown by the table.
+     */
+    private final Results results;
+
+    /**
+     * The number of columns: the name column plus the longest row.
+     */
+    private final int columnCount;
+
+    /**
+     * Constructs a table model for the given results.
+     *
+     * @param results The results to present; must contain at least the header row.
+     */
+    public ResultTableModel(Results results) {
+        this.results = results;
+
+        int longestRow = 0;
+        for (int row = 0; row < results.getRowCount(); row++)
+            longestRow = Math.max(longestRow, results.getLength(row));
+        this.columnCount = longestRow + 1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return results.getRowCount() - 1; // The first row holds the column names
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column == 0 ? results.getName(0) : results.getText(0, column - 1);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int row = rowIndex + 1;
+        return columnIndex == 0 ? results.getName(row) : results.getText(row, columnIndex - 1);
+    }
+}
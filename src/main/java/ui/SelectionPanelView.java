@@ -2,6 +2,7 @@ package ui;
 
 import data.SelectionPanelContract;
 
+import javax.swing.DefaultListModel;
 import javax.swing.JPanel;
 import javax.swing.JList;
 import javax.swing.JButton;
@@ -11,6 +12,7 @@ import javax.swing.JScrollPane;
 import javax.swing.ListSelectionModel;
 import javax.swing.BorderFactory;
 import java.awt.BorderLayout;
+import java.awt.GridLayout;
 
 /**
  * The SelectionPanelView class serves as the UI component for displaying model and data lists,
@@ -35,11 +37,26 @@ public class SelectionPanelView extends JPanel implements SelectionPanelContract
      */
     private JList<String> dataList;
 
+    /**
+     * The entries of the data list, kept so that single files can be added and removed.
+     */
+    private final DefaultListModel<String> dataFiles = new DefaultListModel<>();
+
     /**
      * A button for triggering the execution of the selected model with the selected data.
      */
     private JButton runModelButton;
 
+    /**
+     * A button for cancelling the model runs in progress.
+     */
+    private JButton cancelButton;
+
+    /**
+     * A label showing the progress of the latest model run.
+     */
+    private JLabel statusLabel;
+
     /**
      * Default constructor for the SelectionPanelView.
      * Sets up the layout and initializes child components for both models and data selection.
@@ -63,12 +80,26 @@ public class SelectionPanelView extends JPanel implements SelectionPanelContract
     }
 
     /**
-     * Initializes the "Run Model" button and sets an action listener to handle model execution when clicked.
+     * Initializes the "Run Model" and "Cancel" buttons with the status label below them,
+     * and sets action listeners to handle model execution and cancellation when clicked.
      */
     private void initRunModelButton() {
         runModelButton = new JButton("Run Model");
         runModelButton.addActionListener(e -> presenter.onRunModelClicked());
-        add(runModelButton, BorderLayout.SOUTH);
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> presenter.onCancelClicked());
+
+        JPanel buttonPanel = new JPanel(new GridLayout(1, 2));
+        buttonPanel.add(runModelButton);
+        buttonPanel.add(cancelButton);
+
+        statusLabel = new JLabel(" ");
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.NORTH);
+        southPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
     }
 
     /**
@@ -92,7 +123,7 @@ public class SelectionPanelView extends JPanel implements SelectionPanelContract
      * to notify the presenter when a dataset is selected.
      */
     private void initDataList() {
-        dataList = new JList<>();
+        dataList = new JList<>(dataFiles);
         dataList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         dataList.addListSelectionListener(e -> {
             if (!dataList.isSelectionEmpty()) {
@@ -139,7 +170,32 @@ public class SelectionPanelView extends JPanel implements SelectionPanelContract
      */
     @Override
     public void showDataList(String[] data) {
-        dataList.setListData(data);
+        dataFiles.clear();
+        for (String name : data) {
+            dataFiles.addElement(name);
+        }
+    }
+
+    /**
+     * Adds a dataset name to the end of the data list unless it is already listed.
+     *
+     * @param dataFileName The name of the dataset to add.
+     */
+    @Override
+    public void addDataFile(String dataFileName) {
+        if (!dataFiles.contains(dataFileName)) {
+            dataFiles.addElement(dataFileName);
+        }
+    }
+
+    /**
+     * Removes a dataset name from the data list, keeping the selection of the other entries.
+     *
+     * @param dataFileName The name of the dataset to remove.
+     */
+    @Override
+    public void removeDataFile(String dataFileName) {
+        dataFiles.removeElement(dataFileName);
     }
 
     /**
@@ -152,6 +208,16 @@ public class SelectionPanelView extends JPanel implements SelectionPanelContract
         JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    /**
+     * Shows the progress of a model run in the status label.
+     *
+     * @param message The progress message to display.
+     */
+    @Override
+    public void showProgress(String message) {
+        statusLabel.setText(message);
+    }
+
     /**
      * Displays a success message dialog indicating that the model execution has completed successfully.
      */
@@ -1,5 +1,7 @@
 package ui;
 
+import data.Paths;
+import domain.SimulationExecutor;
 import domain.selectionPanelLogic.SelectionPanelModel;
 import domain.selectionPanelLogic.SelectionPanelPresenter;
 import domain.resultPanelLogic.ResultPanelModel;
@@ -30,10 +32,9 @@ public class Window extends JFrame {
     /**
      * Constructs the main application window and initializes the GUI components.
      *
-     * @param modelsPath The file path to the model data.
-     * @param dataPath   The file path to the associated data.
+     * @param dataPath The file path to the data files.
      */
-    public Window(String modelsPath, String dataPath) {
+    public Window(String dataPath) {
         setTitle("Modelling Framework");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
@@ -44,16 +45,22 @@ public class Window extends JFrame {
         selectionPanelView = new SelectionPanelView();
         resultPanelView = new ResultPanelView();
 
-        SelectionPanelPresenter selectionPanelPresenter = new SelectionPanelPresenter(selectionPanelView, new SelectionPanelModel());
+        // Models and scripts run in the background, shared by both panels
+        SimulationExecutor executor = new SimulationExecutor();
+
+        SelectionPanelPresenter selectionPanelPresenter = new SelectionPanelPresenter(selectionPanelView, new SelectionPanelModel(), executor);
 
         // Connect ResultPanel MVP components
-        ResultPanelPresenter resultPanelPresenter = new ResultPanelPresenter(resultPanelView, new ResultPanelModel());
+        ResultPanelPresenter resultPanelPresenter = new ResultPanelPresenter(resultPanelView, new ResultPanelModel(), executor);
 
         // Connect panels (when model runs, pass Controller to ResultPanelPresenter)
         selectionPanelPresenter.setResultPanelPresenter(resultPanelPresenter);
 
         // Load data
-        selectionPanelView.getPresenter().loadModelData(modelsPath, dataPath);
+        selectionPanelView.getPresenter().loadModelData(dataPath);
+
+        // Reload the lists and rerun the shown model when inputs are edited outside the application
+        selectionPanelView.getPresenter().watchInputs(dataPath, Paths.ToScripts.getPath());
 
         // Add panels to the frame
         add(selectionPanelView, BorderLayout.WEST);
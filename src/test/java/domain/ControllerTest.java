@@ -0,0 +1,64 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that incremental updates of a {@link Controller} give the results of a full run.
+ */
+class ControllerTest {
+    private static final String ECONOMY_DATA = "src/main/resources/data/economyData.txt";
+    private static final String ECONOMY_DATA_2 = "src/main/resources/data/economyData2.txt";
+
+    @Test
+    void updateAfterReadingAnotherFileRunsTheWholeModel() {
+        Controller controller = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA).runModel();
+        controller.readDataFrom(ECONOMY_DATA_2).setValues("grINV", 3, new double[] {1.5}).update();
+
+        Controller full = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA_2)
+                .setValues("grINV", 3, new double[] {1.5}).runModel();
+        for (String name : new String[] {"PRC", "PUC", "INV", "EXP", "IMP", "GDP"})
+            assertArrayEquals(full.getVariable(name), controller.getVariable(name), name);
+    }
+
+    @Test
+    void updateReplaysAScriptRunSeveralTimesOnce() {
+        String script = "SHARE = new double[LL]\nfor (i = 0; i < LL; i++) {\n    SHARE[i] = EXP[i] / GDP[i]\n}\n";
+        Controller controller = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA).runModel();
+        for (int n = 0; n < 3; n++)
+            controller.runScript(script);
+        controller.setValues("grEXP", 2, new double[] {1.5}).update();
+
+        Controller full = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA)
+                .setValues("grEXP", 2, new double[] {1.5}).runModel().runScript(script);
+        assertArrayEquals(full.getVariable("SHARE"), controller.getVariable("SHARE"));
+    }
+
+    @Test
+    void saveCheckpointReplacesTheFileThroughATemporaryOne(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("economy.ckpt");
+        Controller controller = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA).runModel();
+        controller.saveCheckpoint(file.toString());
+        double[] first = controller.getVariable("GDP").clone();
+
+        controller.setValues("grEXP", 2, new double[] {1.5}).update().saveCheckpoint(file.toString());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+
+        Controller restored = new Controller("EconomyModel").restoreCheckpoint(file.toString());
+        assertArrayEquals(controller.getVariable("GDP"), restored.getVariable("GDP"));
+        assertFalse(Arrays.equals(first, restored.getVariable("GDP")));
+    }
+}
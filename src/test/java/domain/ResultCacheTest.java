@@ -0,0 +1,34 @@
+package domain;
+
+import data.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks the memory and disk tiers of the {@link ResultCache}.
+ */
+class ResultCacheTest {
+    private static final String ECONOMY_DATA = "src/main/resources/data/economyData.txt";
+
+    @Test
+    void storeKeepsTheMemoryEntryWhenTheDirectoryCannotBeWritten(@TempDir Path temporary) throws IOException {
+        // a regular file in place of the directory makes every write to the disk tier fail
+        Path directory = Files.createFile(temporary.resolve("not-a-directory"));
+        ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_BYTES).directory(directory);
+
+        Model model = ModelRegistry.create("EconomyModel");
+        BindingPlan plan = BindingPlan.of(model.getClass());
+        plan.load(model, DataFileParser.parse(Path.of(ECONOMY_DATA)));
+        model.run();
+
+        cache.store("key", "EconomyModel", model, plan, Map.of());
+        assertNotNull(cache.lookup("key"));
+    }
+}
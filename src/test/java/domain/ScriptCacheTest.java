@@ -0,0 +1,43 @@
+package domain;
+
+import domain.vectorLogic.VectorCompiler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs cached script classes more than once, in Groovy rather than through the {@link VectorCompiler}.
+ */
+class ScriptCacheTest {
+    private static final String ECONOMY_DATA = "src/main/resources/data/economyData.txt";
+
+    @BeforeEach
+    void disableVectors() {
+        VectorCompiler.shared().setEnabled(false);
+    }
+
+    @AfterEach
+    void enableVectors() {
+        VectorCompiler.shared().setEnabled(true);
+    }
+
+    @Test
+    void cachedScriptStoresIntegersAndDoublesOnEveryRun() {
+        String script = "X = new double[LL]\nfor (i = 0; i < LL; i++) {\n    X[i] = i == 0 ? 0 : EXP[i - 1]\n}\n";
+        long hits = ScriptCache.shared().getHits();
+
+        double[] first = run(script);
+        for (int n = 0; n < 2; n++)
+            assertArrayEquals(first, run(script));
+        assertTrue(ScriptCache.shared().getHits() >= hits + 2, "the script class was not reused");
+    }
+
+    private static double[] run(String script) {
+        Controller controller = new Controller("EconomyModel").readDataFrom(ECONOMY_DATA).runModel();
+        controller.runScript(script);
+        return controller.getVariable("X");
+    }
+}
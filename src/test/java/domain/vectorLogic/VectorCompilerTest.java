@@ -0,0 +1,271 @@
+package domain.vectorLogic;
+
+import data.models.EconomyModel;
+import domain.BindingPlan;
+import domain.Controller;
+import domain.Results;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs scripts once through the {@link VectorCompiler} and once in Groovy, and checks that both give the same results
+ * bit for bit, including signed zeros and {@code NaN}.
+ */
+class VectorCompilerTest {
+    private static final String ECONOMY_DATA = "src/main/resources/data/economyData.txt";
+    private static final String POPULATION_DATA = "src/main/resources/data/populationData.txt";
+    private static final String SCRIPTS = "src/main/resources/scripts/";
+
+    @AfterEach
+    void enable() {
+        VectorCompiler.shared().setEnabled(true);
+    }
+
+    @Test
+    void negatedLiteralsHaveNoSign() {
+        assertCompiled("-0", "-0.0", "EXP[i] * -0", "EXP[i] * -0.0", "-(-0.0)", "-LL", "-(EXP[i] * 0)");
+    }
+
+    @Test
+    void comparesDoublesAsGroovy() {
+        assertCompiled(
+                "(-EXP[i] * 0 < EXP[i] * 0) ? 1 : 2",
+                "(-EXP[i] * 0 == EXP[i] * 0) ? 1 : 2",
+                "(EXP[i] * 0 != -EXP[i] * 0) ? 1 : 2",
+                "(EXP[i] * 0 > -EXP[i] * 0) ? 1 : 2",
+                "(EXP[i] * 0 >= -EXP[i] * 0) ? 1 : 2",
+                "(EXP[i] * 0 <= -EXP[i] * 0) ? 1 : 2",
+                "(Math.sqrt(-1.0) == Math.sqrt(-1.0)) ? 1 : 2",
+                "(Math.sqrt(-1.0) != Math.sqrt(-1.0)) ? 1 : 2",
+                "(Math.sqrt(-1.0) <= Math.sqrt(-1.0)) ? 1 : 2",
+                "(Math.sqrt(-1.0) >= Math.sqrt(-1.0)) ? 1 : 2",
+                "(Math.sqrt(-1.0) > EXP[i]) ? 1 : 2",
+                "(EXP[i] < Math.sqrt(-1.0)) ? 1 : 2",
+                "(EXP[i] <= Math.sqrt(-1.0)) ? 1 : 2");
+    }
+
+    @Test
+    void comparesDoublesWithOtherNumbersAsGroovy() {
+        assertCompiled(
+                "(-EXP[i] * 0 < 0) ? 1 : 2",
+                "(-EXP[i] * 0 == 0) ? 1 : 2",
+                "(-EXP[i] * 0 >= 0) ? 1 : 2",
+                "(-EXP[i] * 0 <= 0) ? 1 : 2",
+                "(-EXP[i] * 0 < 0.0) ? 1 : 2",
+                "(-EXP[i] * 0 == 0.0) ? 1 : 2",
+                "(0 > -EXP[i] * 0) ? 1 : 2",
+                "(0 == -EXP[i] * 0) ? 1 : 2",
+                "(Math.sqrt(-1.0) > 0) ? 1 : 2",
+                "(0 < Math.sqrt(-1.0)) ? 1 : 2",
+                "(Math.sqrt(-1.0) == 0) ? 1 : 2",
+                "(Math.sqrt(-1.0) != 0) ? 1 : 2",
+                "(Math.sqrt(-1.0) <= 0) ? 1 : 2",
+                "(Math.sqrt(-1.0) > 0.5) ? 1 : 2");
+    }
+
+    @Test
+    void mathFunctionsOfIntegersRunInGroovy() {
+        assertRejected("Math.abs(LL) / 3", "EXP[i] + Math.max(LL, 2) / 3", "Math.min(LL, 2)", "Math.abs(-0)",
+                "Math.max(LL, 2.5) / 3");
+        assertCompiled("Math.max(EXP[i], 2)", "Math.min(LL, EXP[i])", "Math.max(-EXP[i] * 0, 0)",
+                "Math.min(0, -EXP[i] * 0)", "Math.abs(-EXP[i]) / 3", "Math.sqrt(LL) / 3", "Math.pow(LL, 2) / 7");
+    }
+
+    @Test
+    void choicesOfDoublesAndOtherNumbersAreNotNegatedOrCompared() {
+        assertRejected("-(EXP[i] < 0 ? EXP[i] : 0)", "(EXP[i] > 0 ? EXP[i] * 0 : 0) == 0 ? 1 : 2");
+        assertCompiled("EXP[i] > 0 ? EXP[i] : 0");
+    }
+
+    @Test
+    void bundledScriptsGiveGroovyResults() {
+        assertSameResults("EconomyModel", ECONOMY_DATA, List.of(read("economy_script.groovy")));
+        assertSameResults("EconomyModel", ECONOMY_DATA,
+                List.of(read("zdeks_script.groovy"), read("economy_script.groovy")));
+        assertSameResults("PopulationModel", POPULATION_DATA, List.of(read("percentOfImmirgantsPerYear.groovy")));
+    }
+
+    @Test
+    void randomScriptsGiveGroovyResults() {
+        ScriptGenerator generator = new ScriptGenerator(new Random(42));
+        int compiled = 0;
+        for (int n = 0; n < 200; n++) {
+            String script = generator.script();
+            if (compile(script) != null)
+                compiled++;
+            assertSameResults("EconomyModel", ECONOMY_DATA, List.of(script));
+        }
+        // most generated scripts must take the fast path, or the comparison proves nothing
+        assertTrue(compiled > 100, "only " + compiled + " of 200 scripts were compiled");
+    }
+
+    /**
+     * Checks that the compiler accepts loops assigning each expression, and that they give the results of Groovy.
+     */
+    private static void assertCompiled(String... expressions) {
+        for (String expression : expressions) {
+            String script = loop(expression);
+            assertNotNull(compile(script), () -> "not compiled: " + expression);
+            assertSameResults("EconomyModel", ECONOMY_DATA, List.of(script));
+        }
+    }
+
+    /**
+     * Checks that the compiler leaves loops assigning each expression to Groovy.
+     */
+    private static void assertRejected(String... expressions) {
+        for (String expression : expressions)
+            assertNull(compile(loop(expression)), () -> "compiled: " + expression);
+    }
+
+    private static String loop(String expression) {
+        return "X = new double[LL]\nfor (i = 0; i < LL; i++) {\n    X[i] = " + expression + "\n}\n";
+    }
+
+    private static VectorScript compile(String script) {
+        Map<String, Class<?>> fields = new HashMap<>();
+        for (BindingPlan.BoundField field : BindingPlan.of(EconomyModel.class).fields()) {
+            fields.put(field.name(), switch (field.kind()) {
+                case INT -> int.class;
+                case INT_ARRAY -> int[].class;
+                case DOUBLE_ARRAY -> double[].class;
+                case SERIES -> data.Series.class;
+            });
+        }
+        VectorCompiler compiler = new VectorCompiler(1);
+        return compiler.compile(script, fields, Set.of());
+    }
+
+    private static void assertSameResults(String model, String data, List<String> scripts) {
+        Map<String, Object> vector = results(model, data, scripts, true);
+        Map<String, Object> groovy = results(model, data, scripts, false);
+        assertEquals(groovy.keySet(), vector.keySet(), () -> "different results of\n" + scripts);
+        for (String name : groovy.keySet()) {
+            if (groovy.get(name) instanceof double[] values)
+                assertArrayEquals(values, (double[]) vector.get(name), () -> name + " differs for\n" + scripts);
+            else
+                assertEquals(groovy.get(name), vector.get(name), () -> "different failure of\n" + scripts);
+        }
+    }
+
+    /**
+     * Runs scripts after the model and returns every result row, or the failure message of the run.
+     */
+    private static Map<String, Object> results(String model, String data, List<String> scripts, boolean vector) {
+        VectorCompiler.shared().setEnabled(vector);
+        Map<String, Object> rows = new LinkedHashMap<>();
+        try {
+            Controller controller = new Controller(model).readDataFrom(data).runModel();
+            scripts.forEach(controller::runScript);
+            Results results = controller.getResults();
+            for (int row = 0; row < results.getRowCount(); row++) {
+                double[] values = new double[results.getLength(row)];
+                results.copyRow(row, values, 0);
+                rows.put(results.getName(row), values);
+            }
+        } catch (RuntimeException e) {
+            rows.put("failure", String.valueOf(e.getMessage()));
+        }
+        return rows;
+    }
+
+    private static String read(String script) {
+        try {
+            return java.nio.file.Files.readString(java.nio.file.Path.of(SCRIPTS + script));
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes random element-wise loops over the series of the economy model, mixing literals, {@code LL}, lags,
+     * functions, comparisons and choices.
+     */
+    private static final class ScriptGenerator {
+        private static final String[] SERIES = {"EXP", "PRC", "IMP", "GDP", "INV"};
+        private static final String[] NUMBERS = {"2", "0.5", "1e-3", "3", "0", "-0", "100", "0.1", "-2.5", "LL"};
+        private static final String[] OPERATORS = {"+", "-", "*", "/"};
+        private static final String[] COMPARISONS = {"<", "<=", ">", ">=", "==", "!="};
+
+        private final Random random;
+
+        ScriptGenerator(Random random) {
+            this.random = random;
+        }
+
+        String script() {
+            StringBuilder script = new StringBuilder("Z = new double[LL]\nW = new double[LL]\n"
+                    + "for (i = 1; i < LL - 1; i++) {\n");
+            int statements = 1 + random.nextInt(3);
+            for (int k = 0; k < statements; k++) {
+                String target = random.nextBoolean() ? "Z" : "W";
+                String operator = new String[] {"=", "+=", "-=", "*=", "/="}[random.nextInt(5)];
+                if (random.nextInt(4) == 0)
+                    script.append("    if (").append(condition(2)).append(") ").append(target).append("[i] ")
+                            .append(operator).append(' ').append(number(3)).append(" else { ").append(target)
+                            .append("[i] = ").append(number(2)).append(" }\n");
+                else
+                    script.append("    ").append(target).append("[i] ").append(operator).append(' ')
+                            .append(number(3)).append('\n');
+            }
+            return script.append("}\n").toString();
+        }
+
+        private String element() {
+            String series = SERIES[random.nextInt(SERIES.length)];
+            return switch (random.nextInt(3)) {
+                case 0 -> series + "[i - 1]";
+                case 1 -> series + "[i + 1]";
+                default -> series + "[i]";
+            };
+        }
+
+        private String literal() {
+            return NUMBERS[random.nextInt(NUMBERS.length)];
+        }
+
+        private String condition(int depth) {
+            int kind = random.nextInt(5);
+            if (depth > 0 && kind == 0)
+                return "(" + condition(depth - 1) + " && " + condition(depth - 1) + ")";
+            if (depth > 0 && kind == 1)
+                return "(" + condition(depth - 1) + " || " + condition(depth - 1) + ")";
+            if (depth > 0 && kind == 2)
+                return "!(" + condition(depth - 1) + ")";
+            return number(depth - 1) + " " + COMPARISONS[random.nextInt(COMPARISONS.length)] + " "
+                    + (random.nextBoolean() ? number(depth - 1) : literal());
+        }
+
+        private String number(int depth) {
+            if (depth <= 0)
+                return element();
+            String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            return switch (random.nextInt(9)) {
+                case 0 -> "(" + number(depth - 1) + " " + operator + " " + literal() + ")";
+                case 1 -> "(" + literal() + " " + operator + " " + number(depth - 1) + ")";
+                case 2 -> "Math." + new String[] {"abs", "sqrt", "exp", "log", "floor", "ceil", "log10"}
+                        [random.nextInt(7)] + "(" + number(depth - 1) + ")";
+                case 3 -> "Math." + new String[] {"pow", "min", "max"}[random.nextInt(3)] + "("
+                        + number(depth - 1) + ", " + (random.nextBoolean() ? number(depth - 1) : literal()) + ")";
+                case 4 -> "(" + condition(depth - 1) + " ? " + number(depth - 1) + " : "
+                        + (random.nextBoolean() ? number(depth - 1) : literal()) + ")";
+                case 5 -> random.nextBoolean() ? "-(" + number(depth - 1) + ")" : "-" + number(depth - 1);
+                default -> "(" + number(depth - 1) + " " + operator + " " + number(depth - 1) + ")";
+            };
+        }
+    }
+}